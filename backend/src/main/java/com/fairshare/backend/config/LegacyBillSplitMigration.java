@@ -0,0 +1,52 @@
+package com.fairshare.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-time move of bill splits from the old @ElementCollection table
+ * (bill_splits, no id) into bill_split_entries. The old table is renamed to
+ * bill_splits_legacy afterwards, so this is a no-op on every later start.
+ *
+ * Depends on the EntityManagerFactory so Hibernate has already created the new table.
+ */
+@Component
+public class LegacyBillSplitMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyBillSplitMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+
+    public LegacyBillSplitMigration(JdbcTemplate jdbcTemplate, TransactionTemplate tx,
+                                    EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = tx;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        Integer legacy = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables " +
+                        "WHERE table_schema = DATABASE() AND table_name = 'bill_splits'", Integer.class);
+        if (legacy == null || legacy == 0) return;
+
+        Integer hasMember = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                        "WHERE table_schema = DATABASE() AND table_name = 'bill_splits' AND column_name = 'member'",
+                Integer.class);
+        String member = hasMember != null && hasMember > 0 ? "member" : "NULL";
+
+        Integer copied = tx.execute(status -> jdbcTemplate.update(
+                "INSERT INTO bill_split_entries (id, bill_id, member, amount, paid) " +
+                        "SELECT UUID_TO_BIN(UUID()), bill_id, " + member + ", amount, paid FROM bill_splits"));
+        // RENAME TABLE commits implicitly in MySQL, so it runs after the copy is committed
+        jdbcTemplate.execute("RENAME TABLE bill_splits TO bill_splits_legacy");
+        log.info("Migrated {} bill splits from bill_splits to bill_split_entries", copied);
+    }
+}
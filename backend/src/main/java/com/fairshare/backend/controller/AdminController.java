@@ -8,6 +8,7 @@ import com.fairshare.backend.repository.RoommateRepository;
 import com.fairshare.backend.repository.EnergyRepository;
 import com.fairshare.backend.repository.BillRepository;
 import com.fairshare.backend.repository.ChoreRepository;
+import com.fairshare.backend.service.RoommateService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -31,6 +32,7 @@ import java.util.*;
 public class AdminController {
 
     @Autowired private RoommateRepository roommateRepository;
+    @Autowired private RoommateService roommateService;
     @Autowired private EnergyRepository energyRepository;
     @Autowired private BillRepository billRepository;
     @Autowired private ChoreRepository choreRepository;
@@ -100,7 +102,7 @@ public class AdminController {
         Roommate newMember = new Roommate();
         newMember.setName(email.split("@")[0]);
         newMember.setEmail(email);
-        roommateRepository.save(newMember);
+        roommateService.add(newMember);
 
         return ResponseEntity.ok(Map.of("message", "Member added successfully"));
     }
@@ -108,11 +110,11 @@ public class AdminController {
     // ❌ 4. Delete Member (UUID)
     @DeleteMapping("/member/{id}")
     public ResponseEntity<Map<String, Object>> deleteMember(@PathVariable UUID id) {
-        if (!roommateRepository.existsById(id)) {
+        if (!roommateService.exists(id)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Member not found"));
         }
-        roommateRepository.deleteById(id);
+        roommateService.delete(id);
         return ResponseEntity.ok(Map.of("message", "Member deleted successfully"));
     }
 
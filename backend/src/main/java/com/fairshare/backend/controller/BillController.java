@@ -1,11 +1,26 @@
 package com.fairshare.backend.controller;
 
+import com.fairshare.backend.dsa.dp.FairSplitDP;
+import com.fairshare.backend.dsa.heap.CashFlowMinimizer;
 import com.fairshare.backend.model.Bill;
+import com.fairshare.backend.model.MemberBalance;
+import com.fairshare.backend.service.BalanceLedgerService;
 import com.fairshare.backend.service.BillService;
+import com.fairshare.backend.service.EnergyUsageAllocator;
+import com.fairshare.backend.service.ExportWriter;
+import com.fairshare.backend.service.ImportReport;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -16,9 +31,13 @@ import java.util.UUID;
 public class BillController {
 
     private final BillService billService;
+    private final BalanceLedgerService ledger;
+    private final EnergyUsageAllocator usageAllocator;
 
-    public BillController(BillService billService) {
+    public BillController(BillService billService, BalanceLedgerService ledger, EnergyUsageAllocator usageAllocator) {
         this.billService = billService;
+        this.ledger = ledger;
+        this.usageAllocator = usageAllocator;
     }
 
     @GetMapping
@@ -26,8 +45,18 @@ public class BillController {
         return billService.getAll();
     }
 
+    // ✅ Create a bill; bad amounts, dates, weights or caps come back as 400
     @PostMapping
-    public Bill create(@RequestBody Map<String, Object> data) {
+    public ResponseEntity<?> create(@RequestBody Map<String, Object> data) {
+        try {
+            return ResponseEntity.ok(createBill(data));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.status(400)
+                    .body(Map.of("error", "Invalid bill data", "details", String.valueOf(e.getMessage())));
+        }
+    }
+
+    private Bill createBill(Map<String, Object> data) {
         String title = (String) data.get("title");
         String category = (String) data.get("category");
         BigDecimal amount = new BigDecimal(String.valueOf(data.get("amount")));
@@ -38,7 +67,130 @@ public class BillController {
             splitCount = Integer.parseInt(String.valueOf(data.get("splitCount")));
         }
 
-        return billService.create(title, amount, dueDate, category, splitCount);
+        String paidBy = (String) data.get("paidBy");
+        List<String> members = null;
+        if (data.get("members") instanceof List<?> list) {
+            members = new ArrayList<>();
+            for (Object m : list) members.add(String.valueOf(m));
+        }
+
+        long[] weights = toLongArray(data.get("weights"));
+        Object caps = data.get("caps");
+
+        // ✅ splitMode "usage": weights from each member's metered devices over usageFrom..usageTo
+        //    (to exclusive; default the month before the due date); members default to device owners,
+        //    and then caps must be keyed by member name: {"alice": 40.00}
+        if ("usage".equalsIgnoreCase((String) data.get("splitMode"))) {
+            if (members == null && caps instanceof List<?>) {
+                throw new IllegalArgumentException("caps without members must be keyed by member name");
+            }
+            LocalDate[] period = EnergyUsageAllocator.defaultPeriod(dueDate);
+            LocalDate from = data.get("usageFrom") != null ? LocalDate.parse((String) data.get("usageFrom")) : period[0];
+            LocalDate to = data.get("usageTo") != null ? LocalDate.parse((String) data.get("usageTo")) : period[1];
+            EnergyUsageAllocator.Allocation allocation = usageAllocator.allocate(members, from, to);
+            members = allocation.members();
+            weights = allocation.weights();
+        }
+
+        return billService.create(title, amount, dueDate, category, splitCount, paidBy, members, weights,
+                toCapsInCents(caps, members));
+    }
+
+    // ✅ Bulk import: raw CSV (header row; members/weights/caps ';'-separated), NDJSON or a JSON array body.
+    //    Format comes from ?format=csv|ndjson|json, else from the Content-Type.
+    @PostMapping("/import")
+    public ResponseEntity<?> importBills(@RequestParam(required = false) String format,
+                                         HttpServletRequest request) {
+        try {
+            ImportReport report = billService.importBills(request.getInputStream(),
+                    format != null ? format : request.getContentType());
+            return ResponseEntity.ok(report);
+        } catch (IOException e) {
+            return ResponseEntity.status(400).body(Map.of("error", "Could not read upload"));
+        }
+    }
+
+    // ✅ Streams all bills as CSV (default) or NDJSON, one line per split: ?format=csv|ndjson
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) String format) {
+        StreamingResponseBody body = out -> billService.exportBills(out, format);
+        return ResponseEntity.ok()
+                .contentType(ExportWriter.mediaType(format))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + ExportWriter.fileName("bills", format) + "\"")
+                .body(body);
+    }
+
+    private static long[] toLongArray(Object value) {
+        if (!(value instanceof List<?> list)) return null;
+        long[] out = new long[list.size()];
+        for (int i = 0; i < out.length; i++) out[i] = Long.parseLong(String.valueOf(list.get(i)));
+        return out;
+    }
+
+    // caps arrive as money amounts, in member order or keyed by member name; null or missing means "no cap"
+    private static long[] toCapsInCents(Object value, List<String> members) {
+        if (value instanceof Map<?, ?> byMember) {
+            if (members == null) throw new IllegalArgumentException("caps by member name need members");
+            for (Object m : byMember.keySet()) {
+                if (!members.contains(String.valueOf(m))) throw new IllegalArgumentException("cap for unknown member " + m);
+            }
+            long[] out = new long[members.size()];
+            for (int i = 0; i < out.length; i++) out[i] = toCapInCents(byMember.get(members.get(i)));
+            return out;
+        }
+        if (!(value instanceof List<?> list)) return null;
+        long[] out = new long[list.size()];
+        for (int i = 0; i < out.length; i++) out[i] = toCapInCents(list.get(i));
+        return out;
+    }
+
+    private static long toCapInCents(Object cap) {
+        return cap == null ? Long.MAX_VALUE : FairSplitDP.toCents(new BigDecimal(String.valueOf(cap)));
+    }
+
+    // ✅ Minimal set of transfers that clears all open bill splits
+    @GetMapping("/settlements")
+    public List<Map<String, Object>> getSettlements() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (CashFlowMinimizer.Transfer t : billService.getSettlements()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("from", t.from());
+            row.put("to", t.to());
+            row.put("amount", BigDecimal.valueOf(t.cents(), 2));
+            result.add(row);
+        }
+        return result;
+    }
+
+    // ✅ Running per-member balances, read from the ledger table
+    @GetMapping("/balances")
+    public List<Map<String, Object>> getBalances() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (MemberBalance b : ledger.getAll()) result.add(toBalanceResponse(b));
+        return result;
+    }
+
+    @GetMapping("/balances/{member}")
+    public ResponseEntity<?> getBalance(@PathVariable String member) {
+        return ledger.get(member)
+                .<ResponseEntity<?>>map(b -> ResponseEntity.ok(toBalanceResponse(b)))
+                .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "No balance for " + member)));
+    }
+
+    // ✅ Recompute the ledger from the open splits (same as the nightly reconciliation)
+    @PostMapping("/balances/rebuild")
+    public Map<String, Boolean> rebuildBalances() {
+        ledger.rebuild();
+        return Map.of("success", true);
+    }
+
+    private static Map<String, Object> toBalanceResponse(MemberBalance b) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("member", b.getMember());
+        row.put("owed", BigDecimal.valueOf(b.getOwedCents(), 2));
+        row.put("owing", BigDecimal.valueOf(b.getOwingCents(), 2));
+        row.put("net", BigDecimal.valueOf(b.getNetCents(), 2));
+        return row;
     }
 
     @PutMapping("/{id}")
@@ -47,6 +199,14 @@ public class BillController {
         return billService.updateStatus(id, status);
     }
 
+    // ✅ Mark a single share paid/unpaid without touching the other splits
+    @PutMapping("/{id}/splits/{splitId}")
+    public Map<String, Boolean> updateSplit(@PathVariable UUID id, @PathVariable UUID splitId,
+                                            @RequestBody Map<String, Object> body) {
+        boolean paid = Boolean.parseBoolean(String.valueOf(body.getOrDefault("paid", true)));
+        return Map.of("success", billService.setSplitPaid(id, splitId, paid));
+    }
+
     @DeleteMapping("/{id}")
     public Map<String, Boolean> delete(@PathVariable UUID id) {
         billService.delete(id);
@@ -1,10 +1,15 @@
 package com.fairshare.backend.controller;
 
 import com.fairshare.backend.model.Booking;
+import com.fairshare.backend.service.AvailabilityService;
 import com.fairshare.backend.service.BookingService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -15,38 +20,166 @@ import java.util.Optional;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final AvailabilityService availabilityService;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, AvailabilityService availabilityService) {
         this.bookingService = bookingService;
+        this.availabilityService = availabilityService;
     }
 
-    // ✅ Get all bookings
+    // ✅ Get bookings: everything when called bare, otherwise a time window
+    //    starting at the required "from", paged by keyset (next page cursor in the X-Next-Cursor header)
     @GetMapping
-    public ResponseEntity<List<Booking>> getAllBookings() {
-        return ResponseEntity.ok(bookingService.getAllBookings());
+    public ResponseEntity<?> getAllBookings(@RequestParam(required = false) String from,
+                                            @RequestParam(required = false) String to,
+                                            @RequestParam(required = false) Long resourceId,
+                                            @RequestParam(required = false) String status,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit) {
+        if (from == null && to == null && resourceId == null && status == null && cursor == null && limit == null) {
+            return ResponseEntity.ok(bookingService.getAllBookings());
+        }
+        try {
+            BookingService.BookingPage page = bookingService.getBookings(
+                    parseTime(from), parseTime(to), resourceId, status, cursor, limit == null ? 100 : limit);
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (page.nextCursor() != null) ok.header("X-Next-Cursor", page.nextCursor());
+            return ok.body(page.bookings());
+        } catch (Exception e) {
+            return ResponseEntity.status(400)
+                    .body(Map.of("error", "Invalid booking query", "details", String.valueOf(e.getMessage())));
+        }
+    }
+
+    // ✅ First free windows, e.g. ?category=laundry&from=...&to=...&minMinutes=45&limit=5
+    @GetMapping("/availability")
+    public ResponseEntity<?> getAvailability(@RequestParam(required = false) String category,
+                                             @RequestParam(required = false) Long resourceId,
+                                             @RequestParam String from,
+                                             @RequestParam String to,
+                                             @RequestParam(defaultValue = "30") long minMinutes,
+                                             @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(availabilityService.findFreeSlots(category, resourceId,
+                    LocalDateTime.parse(from), LocalDateTime.parse(to), Duration.ofMinutes(minMinutes), limit));
+        } catch (Exception e) {
+            return ResponseEntity.status(400)
+                    .body(Map.of("error", "Invalid availability query", "details", String.valueOf(e.getMessage())));
+        }
     }
 
     // ✅ Create new booking
     @PostMapping
     public ResponseEntity<?> createBooking(@RequestBody Booking booking) {
         try {
-            boolean conflict = bookingService.hasConflict(booking);
-            if (conflict) {
+            Optional<Booking> saved = bookingService.reserve(booking);
+            if (saved.isEmpty()) {
                 return ResponseEntity.status(409)
                         .body(Map.of("error", "Resource already booked for this time slot"));
             }
-            Booking saved = bookingService.createBooking(booking);
-            return ResponseEntity.ok(saved);
+            return ResponseEntity.ok(saved.get());
         } catch (Exception e) {
             return ResponseEntity.status(400)
                     .body(Map.of("error", "Invalid booking data", "details", e.getMessage()));
         }
     }
 
+    // ✅ Create many bookings at once: explicit "occurrences" or a "recurrence" rule;
+    //    "allOrNothing": true creates none of them if any one is rejected
+    @PostMapping("/batch")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<?> createBatch(@RequestBody Map<String, Object> data) {
+        try {
+            Long resourceId = Long.valueOf(String.valueOf(data.get("resourceId")));
+            List<Booking> occurrences = new ArrayList<>();
+
+            if (data.get("occurrences") instanceof List<?> list) {
+                for (Object o : list) {
+                    Map<String, Object> occ = (Map<String, Object>) o;
+                    occurrences.add(Booking.builder()
+                            .startTime(parseTime(occ.get("startTime")))
+                            .endTime(parseTime(occ.get("endTime")))
+                            .build());
+                }
+            } else if (data.get("recurrence") instanceof Map<?, ?> rule) {
+                Map<String, Object> r = (Map<String, Object>) rule;
+                occurrences = BookingService.expandRecurrence(
+                        resourceId,
+                        parseTime(data.get("startTime")),
+                        parseTime(data.get("endTime")),
+                        (String) r.get("frequency"),
+                        r.get("interval") == null ? 1 : Integer.parseInt(String.valueOf(r.get("interval"))),
+                        r.get("count") == null ? null : Integer.parseInt(String.valueOf(r.get("count"))),
+                        parseTime(r.get("until")));
+            } else {
+                return ResponseEntity.status(400).body(Map.of("error", "occurrences or recurrence is required"));
+            }
+
+            boolean allOrNothing = Boolean.parseBoolean(String.valueOf(data.get("allOrNothing")));
+            return ResponseEntity.ok(toBatchResponse(bookingService.createBatch(resourceId, occurrences, allOrNothing)));
+        } catch (Exception e) {
+            return ResponseEntity.status(400)
+                    .body(Map.of("error", "Invalid booking data", "details", String.valueOf(e.getMessage())));
+        }
+    }
+
+    // ✅ Book "any resource" of a category; each request is assigned to a concrete resource
+    @PostMapping("/pool")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<?> reservePooled(@RequestBody Map<String, Object> data) {
+        try {
+            String category = (String) data.get("category");
+            if (category == null || !(data.get("requests") instanceof List<?> list)) {
+                return ResponseEntity.status(400).body(Map.of("error", "category and requests are required"));
+            }
+            List<Booking> requests = new ArrayList<>();
+            for (Object o : list) {
+                Map<String, Object> req = (Map<String, Object>) o;
+                requests.add(Booking.builder()
+                        .startTime(parseTime(req.get("startTime")))
+                        .endTime(parseTime(req.get("endTime")))
+                        .build());
+            }
+            return ResponseEntity.ok(toBatchResponse(bookingService.reservePooled(category, requests)));
+        } catch (Exception e) {
+            return ResponseEntity.status(400)
+                    .body(Map.of("error", "Invalid booking data", "details", String.valueOf(e.getMessage())));
+        }
+    }
+
+    private static Map<String, Object> toBatchResponse(List<BookingService.BatchResult> results) {
+        List<Map<String, Object>> body = new ArrayList<>();
+        int created = 0;
+        for (BookingService.BatchResult r : results) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("index", r.index());
+            row.put("status", r.status());
+            row.put("booking", r.booking());
+            body.add(row);
+            if ("created".equals(r.status())) created++;
+        }
+        return Map.of(
+                "created", created,
+                "rejected", results.size() - created,
+                "results", body);
+    }
+
+    private static LocalDateTime parseTime(Object value) {
+        return value == null ? null : LocalDateTime.parse(String.valueOf(value));
+    }
+
     // ✅ Update booking status or time
     @PutMapping("/{id}")
     public ResponseEntity<?> updateBooking(@PathVariable Long id, @RequestBody Booking updated) {
-        Optional<Booking> updatedBooking = bookingService.updateBooking(id, updated);
+        Optional<Booking> updatedBooking;
+        try {
+            updatedBooking = bookingService.updateBooking(id, updated);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400)
+                    .body(Map.of("error", "Invalid booking data", "details", e.getMessage()));
+        }
         if (updatedBooking.isEmpty()) {
             return ResponseEntity.status(404).body(Map.of("error", "Booking not found"));
         }
@@ -2,7 +2,11 @@ package com.fairshare.backend.controller;
 
 import com.fairshare.backend.model.Chore;
 import com.fairshare.backend.service.ChoreService;
+import com.fairshare.backend.service.ExportWriter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -25,6 +29,16 @@ public class ChoreController {
         return choreService.getAll();
     }
 
+    // ✅ Streams all chores as CSV (default) or NDJSON: ?format=csv|ndjson
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) String format) {
+        StreamingResponseBody body = out -> choreService.export(out, format);
+        return ResponseEntity.ok()
+                .contentType(ExportWriter.mediaType(format))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + ExportWriter.fileName("chores", format) + "\"")
+                .body(body);
+    }
+
     @PostMapping
     public Chore create(@RequestBody Map<String, String> data) {
         String title = data.get("title");
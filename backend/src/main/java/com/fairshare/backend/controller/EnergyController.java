@@ -1,11 +1,24 @@
 package com.fairshare.backend.controller;
 
 import com.fairshare.backend.model.EnergyReading;
+import com.fairshare.backend.service.EnergyAnomalyService;
+import com.fairshare.backend.service.EnergyPlanner;
 import com.fairshare.backend.service.EnergyService;
+import com.fairshare.backend.service.EnergyUsageAllocator;
+import com.fairshare.backend.service.ExportWriter;
+import com.fairshare.backend.service.ImportReport;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,24 +30,182 @@ public class EnergyController {
     @Autowired
     private EnergyService energyService;
 
+    @Autowired
+    private EnergyPlanner energyPlanner;
+
+    @Autowired
+    private EnergyAnomalyService anomalyService;
+
+    @Autowired
+    private EnergyUsageAllocator usageAllocator;
+
     @PostMapping
     public ResponseEntity<EnergyReading> createReading(@RequestBody EnergyReading reading) {
         return ResponseEntity.ok(energyService.saveReading(reading));
     }
 
+    // ✅ Bulk import: raw CSV (header row), NDJSON or a JSON array body, read as it streams in.
+    //    Format comes from ?format=csv|ndjson|json, else from the Content-Type.
+    @PostMapping("/import")
+    public ResponseEntity<?> importReadings(@RequestParam(required = false) String format,
+                                            HttpServletRequest request) {
+        try {
+            ImportReport report = energyService.importReadings(request.getInputStream(),
+                    format != null ? format : request.getContentType());
+            return ResponseEntity.ok(report);
+        } catch (IOException e) {
+            return ResponseEntity.status(400).body(Map.of("error", "Could not read upload"));
+        }
+    }
+
+    // ✅ High-rate meter ingestion: JSON array of readings, queued and written in batches.
+    //    202 when all were queued; 429 + Retry-After when the buffer is full (the first
+    //    `accepted` readings were taken, resend the rest); 503 while shutting down.
+    @PostMapping("/ingest")
+    public ResponseEntity<?> ingest(@RequestBody List<EnergyReading> readings) {
+        if (!energyService.isIngestRunning()) {
+            return ResponseEntity.status(503).body(Map.of("error", "Ingestion is not running"));
+        }
+        int accepted;
+        try {
+            accepted = energyService.ingest(readings);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
+        }
+        if (accepted < readings.size()) {
+            return ResponseEntity.status(429).header("Retry-After", "1")
+                    .body(Map.of("accepted", accepted, "error", "Ingest buffer is full"));
+        }
+        return ResponseEntity.accepted().body(Map.of("accepted", accepted));
+    }
+
+    @GetMapping("/ingest/stats")
+    public ResponseEntity<?> ingestStats() {
+        return ResponseEntity.ok(energyService.getIngestStats());
+    }
+
+    // ✅ Which appliances to run under a budget, e.g.
+    //    {"budget": 20, "by": "units"|"cost", "days": 30, "priorities": {"Heater": 3}}
+    @PostMapping("/plan")
+    public ResponseEntity<?> plan(@RequestBody Map<String, Object> body) {
+        try {
+            double budget = Double.parseDouble(String.valueOf(body.get("budget")));
+            String by = String.valueOf(body.getOrDefault("by", "units"));
+            int days = Integer.parseInt(String.valueOf(body.getOrDefault("days", 30)));
+            Map<String, Integer> priorities = new HashMap<>();
+            if (body.get("priorities") instanceof Map<?, ?> p) {
+                p.forEach((k, v) -> priorities.put(String.valueOf(k), Integer.parseInt(String.valueOf(v))));
+            }
+            return ResponseEntity.ok(energyPlanner.plan(budget, by, days, priorities));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400)
+                    .body(Map.of("error", "Invalid plan request", "details", String.valueOf(e.getMessage())));
+        }
+    }
+
+    // ✅ Device → member attribution used by usage-based bill splits
+    @GetMapping("/owners")
+    public ResponseEntity<?> deviceOwners() {
+        return ResponseEntity.ok(energyService.getDeviceOwners());
+    }
+
+    @PutMapping("/owners/{device}")
+    public ResponseEntity<?> setDeviceOwner(@PathVariable String device, @RequestBody Map<String, String> body) {
+        try {
+            return ResponseEntity.ok(energyService.setDeviceOwner(device, body.get("member")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/owners/{device}")
+    public ResponseEntity<Void> removeDeviceOwner(@PathVariable String device) {
+        energyService.removeDeviceOwner(device);
+        return ResponseEntity.noContent().build();
+    }
+
+    // ✅ Preview of a usage-based split: ?from=2025-03-01&to=2025-04-01 (to exclusive) &members=a,b
+    @GetMapping("/usage/split")
+    public ResponseEntity<?> usageSplit(@RequestParam String from, @RequestParam String to,
+                                        @RequestParam(required = false) List<String> members) {
+        try {
+            return ResponseEntity.ok(usageAllocator.allocate(members, LocalDate.parse(from), LocalDate.parse(to)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ✅ Consumption spikes, newest first: ?device=Heater&limit=50 (max 500)
+    @GetMapping("/anomalies")
+    public ResponseEntity<?> anomalies(@RequestParam(required = false) String device,
+                                       @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > 500) {
+            return ResponseEntity.status(400).body(Map.of("error", "limit must be between 1 and 500"));
+        }
+        return ResponseEntity.ok(anomalyService.recent(device, limit));
+    }
+
+    // ✅ Cold storage for old readings (only when fairshare.energy.archive.enabled=true)
+    @GetMapping("/archive")
+    public ResponseEntity<?> archiveStats() {
+        return ResponseEntity.ok(energyService.getArchiveStats());
+    }
+
+    @PostMapping("/archive/run")
+    public ResponseEntity<?> runArchive() {
+        if (!energyService.getArchiveStats().enabled()) {
+            return ResponseEntity.status(409).body(Map.of("error", "Energy archive is disabled"));
+        }
+        return ResponseEntity.ok(Map.of("archived", energyService.archiveOldReadings()));
+    }
+
     @GetMapping
     public ResponseEntity<List<EnergyReading>> getAllReadings() {
         return ResponseEntity.ok(energyService.getAllReadings());
     }
 
+    // ✅ Streams readings as CSV (default) or NDJSON: ?format=csv|ndjson, same filters as /analytics.
+    //    Rows are written as they are read, so any size exports in constant memory.
+    @GetMapping("/export")
+    public ResponseEntity<?> export(@RequestParam(required = false) String format,
+                                    @RequestParam(required = false) String from,
+                                    @RequestParam(required = false) String to,
+                                    @RequestParam(required = false) String device) {
+        Date fromDate, toDate;
+        try {
+            fromDate = from == null ? null : EnergyService.parseDate(from);
+            toDate = to == null ? null : EnergyService.parseDate(to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
+        }
+        StreamingResponseBody body = out -> energyService.exportReadings(out, format, fromDate, toDate, device);
+        return ResponseEntity.ok()
+                .contentType(ExportWriter.mediaType(format))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + ExportWriter.fileName("energy", format) + "\"")
+                .body(body);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteReading(@PathVariable Long id) {
         energyService.deleteReading(id);
         return ResponseEntity.noContent().build();
     }
 
+    // ✅ Optional filters: ?from=2025-01-01&to=2025-04-01 (to is exclusive) &device=Heater
     @GetMapping("/analytics")
-    public ResponseEntity<Map<String, Object>> getAnalytics() {
-        return ResponseEntity.ok(energyService.getAnalytics());
+    public ResponseEntity<?> getAnalytics(@RequestParam(required = false) String from,
+                                          @RequestParam(required = false) String to,
+                                          @RequestParam(required = false) String device) {
+        if (from == null && to == null && device == null) {
+            return ResponseEntity.ok(energyService.getAnalytics());
+        }
+        try {
+            return ResponseEntity.ok(energyService.getAnalytics(
+                    from == null ? null : EnergyService.parseDate(from),
+                    to == null ? null : EnergyService.parseDate(to),
+                    device));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
+        }
     }
 }
@@ -2,6 +2,7 @@ package com.fairshare.backend.controller;
 
 import com.fairshare.backend.model.Roommate;
 import com.fairshare.backend.service.RoommateService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
 
@@ -40,4 +41,26 @@ public class RoommateController {
     public List<Roommate> getTopPerformers(@RequestParam(defaultValue = "3") int n) {
         return service.getTopPerformers(n);
     }
+
+    // ✅ Leaderboard, best first: ?page=0&size=20, or keyset ?afterKey=&afterId=&afterRank=
+    //    (rankKey, id and rank of the last row seen)
+    @GetMapping("/leaderboard")
+    public ResponseEntity<?> leaderboard(@RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "20") int size,
+                                         @RequestParam(required = false) Double afterKey,
+                                         @RequestParam(required = false) UUID afterId,
+                                         @RequestParam(required = false) Integer afterRank) {
+        try {
+            return ResponseEntity.ok(service.getLeaderboard(page, size, afterKey, afterId, afterRank));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/rank")
+    public ResponseEntity<?> rank(@PathVariable UUID id) {
+        return service.getRank(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "Roommate not found")));
+    }
 }
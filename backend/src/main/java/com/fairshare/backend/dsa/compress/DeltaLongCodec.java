@@ -0,0 +1,67 @@
+package com.fairshare.backend.dsa.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Delta-of-delta encoding for sorted-ish long columns (timestamps, ids):
+ * each value is stored as the change in its delta, zigzagged and written as a
+ * varint. Evenly spaced values (a meter every 60s, consecutive ids) cost one
+ * byte each.
+ */
+public class DeltaLongCodec {
+
+    public static byte[] encode(long[] values, int n) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(n + 16);
+        long prev = 0, prevDelta = 0;
+        for (int i = 0; i < n; i++) {
+            long delta = values[i] - prev;
+            writeVarLong(out, zigzag(delta - prevDelta));
+            prev = values[i];
+            prevDelta = delta;
+        }
+        return out.toByteArray();
+    }
+
+    /** Streaming decoder over an encoded column; reads exactly as many values as were written. */
+    public static class Decoder {
+        private final ByteBuffer in;
+        private long prev, prevDelta;
+
+        public Decoder(ByteBuffer in) {
+            this.in = in;
+        }
+
+        public long next() {
+            long delta = prevDelta + unzigzag(readVarLong(in));
+            prev += delta;
+            prevDelta = delta;
+            return prev;
+        }
+    }
+
+    public static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    public static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    public static long readVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+    }
+}
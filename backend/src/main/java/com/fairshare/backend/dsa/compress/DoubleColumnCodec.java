@@ -0,0 +1,86 @@
+package com.fairshare.backend.dsa.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Picks the smaller encoding for a double column. Meter values are usually
+ * short decimals (0.125 kWh, 0.2 per unit), which XOR compression handles
+ * poorly because their binary mantissas look random. When every value is
+ * exactly a decimal with at most MAX_SCALE fraction digits, the column
+ * can also be stored as scaled longs, delta + zigzag + varint. Whichever of
+ * that and XorDoubleCodec is smaller wins (XOR takes constant columns at one
+ * bit per value). Both are lossless.
+ */
+public class DoubleColumnCodec {
+
+    private static final int XOR = 0, DECIMAL = 1;
+    private static final int MAX_SCALE = 6;
+    private static final long[] POW10 = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    public static byte[] encode(double[] values, int n) {
+        byte[] xor = XorDoubleCodec.encode(values, n);
+        int scale = decimalScale(values, n);
+        if (scale >= 0) {
+            byte[] decimal = encodeDecimal(values, n, scale);
+            if (decimal.length <= xor.length) return decimal; // XOR still wins on constant columns
+        }
+        byte[] out = new byte[xor.length + 1];
+        out[0] = XOR;
+        System.arraycopy(xor, 0, out, 1, xor.length);
+        return out;
+    }
+
+    private static byte[] encodeDecimal(double[] values, int n, int scale) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(n + 16);
+        out.write(DECIMAL);
+        out.write(scale);
+        long prev = 0;
+        for (int i = 0; i < n; i++) {
+            long m = Math.round(values[i] * POW10[scale]);
+            DeltaLongCodec.writeVarLong(out, DeltaLongCodec.zigzag(m - prev));
+            prev = m;
+        }
+        return out.toByteArray();
+    }
+
+    // smallest scale at which every value round-trips exactly, or -1
+    private static int decimalScale(double[] values, int n) {
+        for (int scale = 0; scale <= MAX_SCALE; scale++) {
+            double p = POW10[scale];
+            boolean exact = true;
+            for (int i = 0; i < n && exact; i++) {
+                double scaled = values[i] * p;
+                exact = Math.abs(scaled) < (1L << 52) && Math.round(scaled) / p == values[i]
+                        && Double.doubleToRawLongBits(values[i]) != Double.doubleToRawLongBits(-0.0);
+            }
+            if (exact) return scale;
+        }
+        return -1;
+    }
+
+    public static class Decoder {
+        private final XorDoubleCodec.Decoder xor;
+        private final ByteBuffer in;
+        private final double scale;
+        private long prev;
+
+        public Decoder(ByteBuffer in) {
+            if (in.get() == XOR) {
+                this.xor = new XorDoubleCodec.Decoder(in);
+                this.in = null;
+                this.scale = 1;
+            } else {
+                this.xor = null;
+                this.in = in;
+                this.scale = POW10[in.get()];
+            }
+        }
+
+        public double next() {
+            if (xor != null) return xor.next();
+            prev += DeltaLongCodec.unzigzag(DeltaLongCodec.readVarLong(in));
+            return prev / scale;
+        }
+    }
+}
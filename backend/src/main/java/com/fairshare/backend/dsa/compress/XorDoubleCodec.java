@@ -0,0 +1,128 @@
+package com.fairshare.backend.dsa.compress;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Gorilla-style XOR compression for double columns. Each value is XORed with
+ * the previous one:
+ * - identical value: a single 0 bit
+ * - otherwise '1', then either '0' + the meaningful bits when they fit in the
+ *   previous leading/trailing-zero window, or '1' + 5 bits of leading zeros,
+ *   6 bits of length and the meaningful bits.
+ * Slowly changing meter values (same tariff, similar units) shrink to a few bits.
+ * Lossless: values decode bit for bit.
+ */
+public class XorDoubleCodec {
+
+    public static byte[] encode(double[] values, int n) {
+        BitWriter out = new BitWriter(n * 2 + 16);
+        long prev = 0;
+        int prevLeading = Integer.MAX_VALUE, prevTrailing = 0;
+        for (int i = 0; i < n; i++) {
+            long bits = Double.doubleToRawLongBits(values[i]);
+            if (i == 0) {
+                out.write(bits, 64);
+                prev = bits;
+                continue;
+            }
+            long xor = bits ^ prev;
+            prev = bits;
+            if (xor == 0) {
+                out.write(0, 1);
+                continue;
+            }
+            out.write(1, 1);
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (prevLeading != Integer.MAX_VALUE && leading >= prevLeading && trailing >= prevTrailing) {
+                out.write(0, 1);
+                out.write(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+            } else {
+                int length = 64 - leading - trailing;
+                out.write(1, 1);
+                out.write(leading, 5);
+                out.write(length == 64 ? 0 : length, 6);
+                out.write(xor >>> trailing, length);
+                prevLeading = leading;
+                prevTrailing = trailing;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /** Streaming decoder; the caller knows how many values the column holds. */
+    public static class Decoder {
+        private final ByteBuffer in;
+        private long word;
+        private int bitsLeft;
+        private boolean started;
+        private long prev;
+        private int leading, trailing;
+
+        public Decoder(ByteBuffer in) {
+            this.in = in;
+        }
+
+        public double next() {
+            if (!started) {
+                started = true;
+                prev = read(64);
+            } else if (read(1) == 1) {
+                if (read(1) == 1) {
+                    leading = (int) read(5);
+                    int length = (int) read(6);
+                    if (length == 0) length = 64;
+                    trailing = 64 - leading - length;
+                }
+                prev ^= read(64 - leading - trailing) << trailing;
+            }
+            return Double.longBitsToDouble(prev);
+        }
+
+        private long read(int n) {
+            long v = 0;
+            while (n > 0) {
+                if (bitsLeft == 0) {
+                    word = in.get() & 0xFFL;
+                    bitsLeft = 8;
+                }
+                int take = Math.min(n, bitsLeft);
+                v = (v << take) | ((word >>> (bitsLeft - take)) & ((1L << take) - 1));
+                bitsLeft -= take;
+                n -= take;
+            }
+            return v;
+        }
+    }
+
+    private static class BitWriter {
+        private byte[] buf;
+        private int bytes;
+        private int bitsInCurrent; // bits already used in buf[bytes]
+
+        BitWriter(int capacity) {
+            buf = new byte[Math.max(capacity, 16)];
+        }
+
+        void write(long value, int n) {
+            while (n > 0) {
+                if (bytes == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+                int free = 8 - bitsInCurrent;
+                int take = Math.min(n, free);
+                int chunk = (int) ((value >>> (n - take)) & ((1L << take) - 1));
+                buf[bytes] |= (byte) (chunk << (free - take));
+                bitsInCurrent += take;
+                n -= take;
+                if (bitsInCurrent == 8) {
+                    bytes++;
+                    bitsInCurrent = 0;
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, bytes + (bitsInCurrent > 0 ? 1 : 0));
+        }
+    }
+}
@@ -9,22 +9,123 @@ import java.util.List;
  * Greedy + DP-inspired equal split:
  * - Split total into N nearly-equal parts (to 2 decimals).
  * - Distribute remainder cents greedily to minimize difference.
+ *
+ * The engine works on long cents; the BigDecimal entry point only converts
+ * at the edges. Weighted splits use the largest-remainder method (ties go to
+ * the lower index), so equal weights give exactly the equal split.
+ * Caps are applied by water-filling: capped members are fixed at their cap
+ * and the excess is re-split among the others by weight.
  */
 public class FairSplitDP {
 
     public static List<BigDecimal> split(BigDecimal total, int n) {
         if (n <= 0) throw new IllegalArgumentException("split count must be > 0");
-        total = total.setScale(2, RoundingMode.HALF_UP);
+        long[] cents = new long[n];
+        splitCents(toCents(total), n, cents, 0);
 
-        BigDecimal[] divRem = total.multiply(BigDecimal.valueOf(100)).divideAndRemainder(BigDecimal.valueOf(n));
-        int baseCents = divRem[0].intValue();           // floor cents per person
-        int remainder = divRem[1].intValue();           // leftover cents
+        List<BigDecimal> result = new ArrayList<>(n);
+        for (long c : cents) result.add(BigDecimal.valueOf(c, 2));
+        return result;
+    }
+
+    /** Rounds to 2 decimals (HALF_UP) and returns the amount in cents. */
+    public static long toCents(BigDecimal total) {
+        return total.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long[] splitCents(long totalCents, int n) {
+        if (n <= 0) throw new IllegalArgumentException("split count must be > 0");
+        long[] out = new long[n];
+        splitCents(totalCents, n, out, 0);
+        return out;
+    }
 
-        List<BigDecimal> result = new ArrayList<>();
+    /** Equal split written into out[offset .. offset + n); no allocation. */
+    public static void splitCents(long totalCents, int n, long[] out, int offset) {
+        long base = totalCents / n;       // floor cents per person (truncates like BigDecimal.divideAndRemainder)
+        long remainder = totalCents % n;  // leftover cents
         for (int i = 0; i < n; i++) {
-            int cents = baseCents + (i < remainder ? 1 : 0);
-            result.add(BigDecimal.valueOf(cents).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP));
+            out[offset + i] = base + (i < remainder ? 1 : 0);
         }
-        return result;
+    }
+
+    /** Equal split of many bills at once: out[b * n + i] is member i's share of totals[b]. */
+    public static void splitAll(long[] totalsCents, int n, long[] out) {
+        if (n <= 0) throw new IllegalArgumentException("split count must be > 0");
+        if (out.length < totalsCents.length * n) throw new IllegalArgumentException("output buffer too small");
+        for (int b = 0; b < totalsCents.length; b++) splitCents(totalsCents[b], n, out, b * n);
+    }
+
+    public static long[] splitWeighted(long totalCents, long[] weights) {
+        long[] out = new long[weights.length];
+        splitWeightedInto(totalCents, weights, out);
+        return out;
+    }
+
+    /** Split proportional to weights (>= 0, not all zero) into out; no allocation. */
+    public static void splitWeightedInto(long totalCents, long[] weights, long[] out) {
+        if (totalCents < 0) throw new IllegalArgumentException("total must be >= 0");
+        long sum = 0;
+        for (long w : weights) {
+            if (w < 0) throw new IllegalArgumentException("weights must be >= 0");
+            sum = Math.addExact(sum, w);
+        }
+        if (sum == 0) throw new IllegalArgumentException("at least one weight must be > 0");
+
+        long assigned = 0;
+        for (int i = 0; i < weights.length; i++) {
+            out[i] = Math.multiplyExact(totalCents, weights[i]) / sum;
+            assigned += out[i];
+        }
+        // leftover < number of members; hand it out by largest remainder
+        for (long left = totalCents - assigned; left > 0; left--) {
+            int best = -1;
+            long bestRem = -1;
+            for (int i = 0; i < weights.length; i++) {
+                long scaled = totalCents * weights[i];
+                if (out[i] > scaled / sum) continue; // already got its extra cent
+                long rem = scaled % sum;
+                if (rem > bestRem) { bestRem = rem; best = i; }
+            }
+            out[best]++;
+        }
+    }
+
+    /**
+     * Weighted split where member i never pays more than caps[i]
+     * (use Long.MAX_VALUE for "no cap").
+     */
+    public static long[] splitWeighted(long totalCents, long[] weights, long[] caps) {
+        if (caps == null) return splitWeighted(totalCents, weights);
+        int n = weights.length;
+        if (caps.length != n) throw new IllegalArgumentException("caps and weights differ in length");
+
+        long[] out = new long[n];
+        long[] active = weights.clone(); // capped members drop to weight 0
+        long remaining = totalCents;
+        while (true) {
+            boolean anyActive = false;
+            for (long w : active) anyActive |= w > 0;
+            if (!anyActive) {
+                if (remaining > 0) throw new IllegalArgumentException("caps are lower than the total");
+                break;
+            }
+
+            long[] share = splitWeighted(remaining, active);
+            boolean capped = false;
+            for (int i = 0; i < n; i++) {
+                if (active[i] > 0 && share[i] > caps[i]) {
+                    out[i] = caps[i];
+                    remaining -= caps[i];
+                    active[i] = 0;
+                    capped = true;
+                }
+            }
+            if (!capped) {
+                for (int i = 0; i < n; i++) if (active[i] > 0) out[i] = share[i];
+                break;
+            }
+        }
+        return out;
     }
 }
@@ -12,21 +12,31 @@ import java.util.List;
  *  - values[i]   : benefit (int)
  *  - capacity    : limit (int)
  *
- * Returns indices selected.
+ * Returns indices selected (highest index first).
+ *
+ * One rolling row of capacity + 1 ints holds the DP; which items were taken is
+ * kept as one bit per (item, capacity) cell, so memory is 4·C + n·C/8 bytes
+ * instead of 4·n·C for the full table.
  */
 public class KnapsackEnergyDP {
 
     public static List<Integer> solve(int[] weights, int[] values, int capacity) {
         int n = weights.length;
-        int[][] dp = new int[n + 1][capacity + 1];
-
-        for (int i = 1; i <= n; i++) {
-            int w = weights[i - 1];
-            int v = values[i - 1];
-            for (int c = 0; c <= capacity; c++) {
-                dp[i][c] = dp[i - 1][c];
-                if (w <= c) {
-                    dp[i][c] = Math.max(dp[i][c], dp[i - 1][c - w] + v);
+        int words = (capacity >>> 6) + 1;
+        int[] dp = new int[capacity + 1];
+        long[] taken = new long[n * words]; // bit (i, c): item i improved capacity c
+
+        for (int i = 0; i < n; i++) {
+            int w = weights[i];
+            int v = values[i];
+            if (w < 0) throw new IllegalArgumentException("weights must be >= 0");
+            int row = i * words;
+            // descending c keeps dp[c - w] at the previous item's value
+            for (int c = capacity; c >= w; c--) {
+                int with = dp[c - w] + v;
+                if (with > dp[c]) {
+                    dp[c] = with;
+                    taken[row + (c >>> 6)] |= 1L << c;
                 }
             }
         }
@@ -34,12 +44,52 @@ public class KnapsackEnergyDP {
         // reconstruct chosen items
         List<Integer> chosen = new ArrayList<>();
         int c = capacity;
-        for (int i = n; i >= 1; i--) {
-            if (dp[i][c] != dp[i - 1][c]) {
-                chosen.add(i - 1);
-                c -= weights[i - 1];
+        for (int i = n - 1; i >= 0; i--) {
+            if ((taken[i * words + (c >>> 6)] & (1L << c)) != 0) {
+                chosen.add(i);
+                c -= weights[i];
             }
         }
         return chosen;
     }
+
+    /**
+     * Same for long weights and capacity (e.g. Wh or cents). Weights and capacity
+     * are first divided by their gcd (exact). If the capacity is still above
+     * maxCapacity, everything is scaled down to fit with weights rounded up,
+     * so the chosen set never exceeds the real budget but may leave a little unused.
+     */
+    public static List<Integer> solveScaled(long[] weights, int[] values, long capacity, int maxCapacity) {
+        if (capacity < 0) return List.of();
+        long g = capacity;
+        for (long w : weights) {
+            if (w < 0) throw new IllegalArgumentException("weights must be >= 0");
+            g = gcd(g, w);
+        }
+        if (g == 0) g = 1;
+
+        long scale = g;
+        if (capacity / g > maxCapacity) scale = ceilDiv(capacity, maxCapacity);
+
+        int cap = (int) (capacity / scale);
+        int[] w = new int[weights.length];
+        for (int i = 0; i < w.length; i++) {
+            long scaled = ceilDiv(weights[i], scale);
+            w[i] = (int) Math.min(scaled, cap + 1L); // anything above cap can never be picked
+        }
+        return solve(w, values, cap);
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
 }
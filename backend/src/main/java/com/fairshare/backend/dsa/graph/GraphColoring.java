@@ -2,10 +2,18 @@ package com.fairshare.backend.dsa.graph;
 
 import com.fairshare.backend.model.Booking;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.PriorityQueue;
 
 public class GraphColoring {
 
+    /** Extra per-color constraint, e.g. a resource that already has bookings of its own. */
+    public interface ColorCheck {
+        boolean isFree(int color, long start, long end);
+    }
+
     // Checks if new booking conflicts with existing ones for same resource
     public static boolean isConflict(List<Booking> existingBookings, LocalDateTime start, LocalDateTime end) {
         for (Booking b : existingBookings) {
@@ -16,4 +24,53 @@ public class GraphColoring {
         }
         return false;
     }
+
+    /**
+     * Colors the interval graph of [starts[i], ends[i]) with at most `colors` colors,
+     * so overlapping intervals never share a color. Returns the color per interval,
+     * or -1 where none was left.
+     *
+     * Intervals are colored greedily in start order (what DSatur reduces to on
+     * interval graphs): every already-colored neighbour still contains the current
+     * start point, so together they form a clique and the greedy never needs more
+     * colors than the largest clique - which is optimal when colors are unlimited.
+     *
+     * With a bounded number of colors (or a ColorCheck) it is only a heuristic for
+     * placing as many intervals as possible: an early long interval keeps its
+     * color even if several shorter later ones could have used it instead.
+     *
+     * O(n log n) using a sweep with a min-heap of active ends and a bitset of free colors.
+     */
+    public static int[] colorIntervals(long[] starts, long[] ends, int colors, ColorCheck check) {
+        int n = starts.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> starts[a] != starts[b] ? Long.compare(starts[a], starts[b]) : Long.compare(ends[a], ends[b]));
+
+        int[] color = new int[n];
+        Arrays.fill(color, -1);
+        BitSet free = new BitSet(colors);
+        free.set(0, colors);
+        PriorityQueue<Integer> active = new PriorityQueue<>((a, b) -> Long.compare(ends[a], ends[b]));
+
+        for (int i : order) {
+            while (!active.isEmpty() && ends[active.peek()] <= starts[i]) {
+                free.set(color[active.poll()]);
+            }
+            for (int c = free.nextSetBit(0); c >= 0 && c < colors; c = free.nextSetBit(c + 1)) {
+                if (check == null || check.isFree(c, starts[i], ends[i])) {
+                    color[i] = c;
+                    free.clear(c);
+                    active.add(i);
+                    break;
+                }
+            }
+        }
+        return color;
+    }
+
+    /** Minimum coloring with no color limit; the number of colors used equals the max overlap. */
+    public static int[] colorIntervals(long[] starts, long[] ends) {
+        return colorIntervals(starts, ends, Math.max(starts.length, 1), null);
+    }
 }
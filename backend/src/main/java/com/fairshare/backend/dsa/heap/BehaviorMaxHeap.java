@@ -20,14 +20,11 @@ public class BehaviorMaxHeap<T> {
         heap.offer(new Pair<>(data, score));
     }
 
+    // Polls a copy: the heap's iterator order is not sorted order
     public List<T> getTopK(int k) {
         List<T> result = new ArrayList<>();
-        Iterator<Pair<T>> it = heap.iterator();
-        int i = 0;
-        while (it.hasNext() && i < k) {
-            result.add(it.next().data);
-            i++;
-        }
+        PriorityQueue<Pair<T>> copy = new PriorityQueue<>(heap);
+        while (!copy.isEmpty() && result.size() < k) result.add(copy.poll().data);
         return result;
     }
 
@@ -0,0 +1,49 @@
+package com.fairshare.backend.dsa.heap;
+
+import java.util.*;
+
+/**
+ * Debt simplification with two max-heaps:
+ * - net balance per member (positive = is owed money, negative = owes money)
+ * - repeatedly settle the largest creditor against the largest debtor
+ *
+ * Every transfer zeroes at least one member, so n members need at most n - 1
+ * transfers. (The true minimum is NP-hard; this greedy is the usual practical answer.)
+ * Amounts are in cents.
+ */
+public class CashFlowMinimizer {
+
+    public record Transfer(String from, String to, long cents) { }
+
+    private static class Pair {
+        String member;
+        long cents;
+        Pair(String member, long cents) { this.member = member; this.cents = cents; }
+    }
+
+    public static List<Transfer> settle(Map<String, Long> netCents) {
+        Comparator<Pair> largestFirst = (a, b) -> {
+            int c = Long.compare(b.cents, a.cents);
+            return c != 0 ? c : a.member.compareTo(b.member);
+        };
+        PriorityQueue<Pair> creditors = new PriorityQueue<>(largestFirst);
+        PriorityQueue<Pair> debtors = new PriorityQueue<>(largestFirst);
+        netCents.forEach((member, cents) -> {
+            if (cents > 0) creditors.offer(new Pair(member, cents));
+            else if (cents < 0) debtors.offer(new Pair(member, -cents));
+        });
+
+        List<Transfer> transfers = new ArrayList<>();
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            Pair cr = creditors.poll();
+            Pair db = debtors.poll();
+            long amount = Math.min(cr.cents, db.cents);
+            transfers.add(new Transfer(db.member, cr.member, amount));
+            cr.cents -= amount;
+            db.cents -= amount;
+            if (cr.cents > 0) creditors.offer(cr);
+            if (db.cents > 0) debtors.offer(db);
+        }
+        return transfers;
+    }
+}
@@ -0,0 +1,159 @@
+package com.fairshare.backend.dsa.stats;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Online spike detector over per-key value streams (units per reading per
+ * device), O(1) time per observation.
+ *
+ * - Each key keeps an exponentially weighted mean and variance overall and per
+ *   hour of day (the seasonal baseline), in flat primitive arrays: about
+ *   500 bytes per key.
+ * - A value is scored against its hour's baseline once that hour has seen
+ *   seasonalWarmup values, otherwise against the overall one:
+ *   z = (x - expected) / sd. Only a key with warmup values and a warm hour
+ *   baseline can flag an anomaly (z >= threshold), so a device's usual
+ *   evening peak is not reported while its baselines are still being learned.
+ * - Once the baseline in use is warm (warmup values overall), values are
+ *   clamped to expected ± threshold·sd before they update the baselines, so a
+ *   spike barely moves the baseline it is judged against.
+ * - sd never drops below minRelativeSd·|expected|; a device that always
+ *   reads the same would otherwise flag any change.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public class SeasonalAnomalyDetector {
+
+    public static final int HOURS = 24;
+    private static final byte VERSION = 1;
+
+    public record Score(double expected, double sd, double z, boolean anomaly) { }
+
+    private final double alpha, seasonalAlpha, threshold, minRelativeSd;
+    private final int warmup, seasonalWarmup;
+
+    private final Map<String, Integer> slots = new HashMap<>();
+    private String[] keys = new String[8];
+    private long[] count = new long[8];
+    private double[] mean = new double[8], var = new double[8];
+    private int[] hourCount = new int[8 * HOURS];
+    private double[] hourMean = new double[8 * HOURS], hourVar = new double[8 * HOURS];
+    private boolean[] dirty = new boolean[8];
+
+    public SeasonalAnomalyDetector(double alpha, double seasonalAlpha, double threshold, double minRelativeSd,
+                                   int warmup, int seasonalWarmup) {
+        this.alpha = alpha;
+        this.seasonalAlpha = seasonalAlpha;
+        this.threshold = threshold;
+        this.minRelativeSd = minRelativeSd;
+        this.warmup = warmup;
+        this.seasonalWarmup = seasonalWarmup;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /** Scores x for key at hour (0-23), then folds it into the baselines. */
+    public Score observe(String key, int hour, double x) {
+        int s = slot(key);
+        int h = s * HOURS + hour;
+        boolean seasonal = hourCount[h] >= seasonalWarmup;
+        double expected = seasonal ? hourMean[h] : mean[s];
+        double sd = Math.max(Math.sqrt(seasonal ? hourVar[h] : var[s]),
+                Math.max(minRelativeSd * Math.abs(expected), 1e-9));
+        double z = (x - expected) / sd;
+        boolean anomaly = seasonal && count[s] >= warmup && z >= threshold;
+
+        boolean warm = seasonal || count[s] >= warmup;
+        double clamped = warm ? Math.max(expected - threshold * sd, Math.min(x, expected + threshold * sd)) : x;
+        if (count[s] == 0) mean[s] = clamped;
+        else {
+            double diff = clamped - mean[s], incr = alpha * diff;
+            mean[s] += incr;
+            var[s] = (1 - alpha) * (var[s] + diff * incr);
+        }
+        if (hourCount[h] == 0) hourMean[h] = clamped;
+        else {
+            double diff = clamped - hourMean[h], incr = seasonalAlpha * diff;
+            hourMean[h] += incr;
+            hourVar[h] = (1 - seasonalAlpha) * (hourVar[h] + diff * incr);
+        }
+        count[s]++;
+        if (hourCount[h] < Integer.MAX_VALUE) hourCount[h]++;
+        dirty[s] = true;
+        return new Score(expected, sd, z, anomaly);
+    }
+
+    /** Keys changed since the last call. */
+    public List<String> takeDirty() {
+        List<String> out = new ArrayList<>();
+        for (int s = 0; s < slots.size(); s++) {
+            if (dirty[s]) {
+                out.add(keys[s]);
+                dirty[s] = false;
+            }
+        }
+        return out;
+    }
+
+    /** Marks a known key changed again, e.g. when saving what takeDirty() returned failed. */
+    public void markDirty(String key) {
+        Integer s = slots.get(key);
+        if (s != null) dirty[s] = true;
+    }
+
+    /** Serialized baselines of one key, or null if the key is unknown. */
+    public byte[] snapshot(String key) {
+        Integer s = slots.get(key);
+        if (s == null) return null;
+        ByteBuffer out = ByteBuffer.allocate(1 + 8 + 16 + HOURS * 20);
+        out.put(VERSION).putLong(count[s]).putDouble(mean[s]).putDouble(var[s]);
+        for (int h = s * HOURS; h < (s + 1) * HOURS; h++) {
+            out.putInt(hourCount[h]).putDouble(hourMean[h]).putDouble(hourVar[h]);
+        }
+        return out.array();
+    }
+
+    /** Loads baselines written by snapshot(); the key is not marked dirty. */
+    public void restore(String key, byte[] state) {
+        ByteBuffer in = ByteBuffer.wrap(state);
+        if (in.get() != VERSION) throw new IllegalArgumentException("Unknown detector state version");
+        int s = slot(key);
+        count[s] = in.getLong();
+        mean[s] = in.getDouble();
+        var[s] = in.getDouble();
+        for (int h = s * HOURS; h < (s + 1) * HOURS; h++) {
+            hourCount[h] = in.getInt();
+            hourMean[h] = in.getDouble();
+            hourVar[h] = in.getDouble();
+        }
+    }
+
+    private int slot(String key) {
+        Integer s = slots.get(key);
+        if (s != null) return s;
+        int n = slots.size();
+        if (n == keys.length) grow();
+        keys[n] = key;
+        slots.put(key, n);
+        return n;
+    }
+
+    private void grow() {
+        int cap = keys.length * 2;
+        keys = Arrays.copyOf(keys, cap);
+        count = Arrays.copyOf(count, cap);
+        mean = Arrays.copyOf(mean, cap);
+        var = Arrays.copyOf(var, cap);
+        dirty = Arrays.copyOf(dirty, cap);
+        hourCount = Arrays.copyOf(hourCount, cap * HOURS);
+        hourMean = Arrays.copyOf(hourMean, cap * HOURS);
+        hourVar = Arrays.copyOf(hourVar, cap * HOURS);
+    }
+}
@@ -2,31 +2,242 @@ package com.fairshare.backend.dsa.tree;
 
 import java.util.*;
 
-public class AVLTree<T extends Comparable<T>> {
+/**
+ * Sorted multiset on an AVL tree, augmented with subtree sizes.
+ *
+ * - Keys that compare equal are all kept, in insertion order; delete removes
+ *   one key that equals() the argument.
+ * - insert/delete/rank/select in O(log n); fromSorted builds in O(n).
+ * - Iteration is lazy (an explicit stack of O(log n) nodes, nothing copied):
+ *   whole tree, a key range [from, to), or from a rank, either direction.
+ *   Iterators fail fast if the tree changes under them.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
     private class Node {
         T key;
         Node left, right;
-        int height;
-        Node(T key) { this.key = key; height = 1; }
+        int height, size;
+        Node(T key) { this.key = key; height = 1; size = 1; }
     }
 
     private Node root;
+    private int modCount;
 
-    public void insert(T key) { root = insertRec(root, key); }
+    /** Builds a balanced tree from keys in ascending order, in O(n). */
+    public static <T extends Comparable<? super T>> AVLTree<T> fromSorted(List<? extends T> sorted) {
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i - 1).compareTo(sorted.get(i)) > 0) {
+                throw new IllegalArgumentException("keys are not sorted at index " + i);
+            }
+        }
+        AVLTree<T> tree = new AVLTree<>();
+        tree.root = tree.build(sorted, 0, sorted.size());
+        return tree;
+    }
+
+    // Middle key at the root: subtree sizes differ by at most one, so heights do too
+    private Node build(List<? extends T> keys, int lo, int hi) {
+        if (lo >= hi) return null;
+        int mid = (lo + hi) >>> 1;
+        Node n = new Node(keys.get(mid));
+        n.left = build(keys, lo, mid);
+        n.right = build(keys, mid + 1, hi);
+        update(n);
+        return n;
+    }
+
+    public int size() { return size(root); }
+
+    public boolean isEmpty() { return root == null; }
 
+    public void insert(T key) {
+        root = insertRec(root, key);
+        modCount++;
+    }
+
+    // Equal keys go right, so they iterate in insertion order
     private Node insertRec(Node node, T key) {
         if (node == null) return new Node(key);
+        if (key.compareTo(node.key) < 0) node.left = insertRec(node.left, key);
+        else node.right = insertRec(node.right, key);
+        update(node);
+        return balance(node);
+    }
+
+    /** Removes one key that equals() key; returns false if there is none. */
+    public boolean delete(T key) {
+        int before = size();
+        root = deleteRec(root, key);
+        if (size() == before) return false;
+        modCount++;
+        return true;
+    }
+
+    private Node deleteRec(Node node, T key) {
+        if (node == null) return null;
         int cmp = key.compareTo(node.key);
-        if (cmp < 0) node.left = insertRec(node.left, key);
-        else if (cmp > 0) node.right = insertRec(node.right, key);
-        else return node; // duplicate
+        if (cmp < 0) node.left = deleteRec(node.left, key);
+        else if (cmp > 0) node.right = deleteRec(node.right, key);
+        else if (!key.equals(node.key)) {
+            // an equal-comparing neighbour; the match may sit on either side
+            int before = size(node.left);
+            node.left = deleteRec(node.left, key);
+            if (size(node.left) == before) node.right = deleteRec(node.right, key);
+        } else {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            Node min = node.right;
+            while (min.left != null) min = min.left;
+            node.key = min.key;
+            node.right = removeMin(node.right);
+        }
+        update(node);
+        return balance(node);
+    }
 
-        node.height = 1 + Math.max(height(node.left), height(node.right));
+    private Node removeMin(Node node) {
+        if (node.left == null) return node.right;
+        node.left = removeMin(node.left);
+        update(node);
         return balance(node);
     }
 
+    /** Whether some key compares equal to key. */
+    public boolean contains(T key) {
+        Node n = root;
+        while (n != null) {
+            int cmp = key.compareTo(n.key);
+            if (cmp == 0) return true;
+            n = cmp < 0 ? n.left : n.right;
+        }
+        return false;
+    }
+
+    /** Number of keys smaller than key (the position of its first occurrence). */
+    public int rank(T key) {
+        int rank = 0;
+        Node n = root;
+        while (n != null) {
+            if (key.compareTo(n.key) <= 0) n = n.left;
+            else {
+                rank += size(n.left) + 1;
+                n = n.right;
+            }
+        }
+        return rank;
+    }
+
+    /** The key at 0-based position i in ascending order. */
+    public T select(int i) {
+        if (i < 0 || i >= size()) throw new IndexOutOfBoundsException(i);
+        Node n = root;
+        while (true) {
+            int left = size(n.left);
+            if (i < left) n = n.left;
+            else if (i == left) return n.key;
+            else {
+                i -= left + 1;
+                n = n.right;
+            }
+        }
+    }
+
+    /** Up to count keys from position from, ascending or counted from the largest key. */
+    public List<T> slice(int from, int count, boolean descending) {
+        List<T> res = new ArrayList<>(Math.max(0, Math.min(count, size() - from)));
+        Iterator<T> it = iterator(from, descending);
+        while (res.size() < count && it.hasNext()) res.add(it.next());
+        return res;
+    }
+
+    @Override
+    public Iterator<T> iterator() { return iterator(0, false); }
+
+    public Iterator<T> descendingIterator() { return iterator(0, true); }
+
+    /** Lazy iterator from position from (0 = smallest, or largest when descending). */
+    public Iterator<T> iterator(int from, boolean descending) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node n = root;
+        int i = Math.max(0, from);
+        while (n != null) {
+            Node near = descending ? n.right : n.left, far = descending ? n.left : n.right;
+            int before = size(near);
+            if (i < before) {
+                path.push(n);
+                n = near;
+            } else if (i == before) {
+                path.push(n);
+                break;
+            } else {
+                i -= before + 1;
+                n = far;
+            }
+        }
+        return new TreeIterator(path, descending, null);
+    }
+
+    /** Lazy ascending view of keys in [from, to); a null bound is open. */
+    public Iterable<T> range(T from, T to) {
+        return () -> {
+            Deque<Node> path = new ArrayDeque<>();
+            Node n = root;
+            while (n != null) {
+                if (from == null || n.key.compareTo(from) >= 0) {
+                    path.push(n);
+                    n = n.left;
+                } else n = n.right;
+            }
+            return new TreeIterator(path, false, to);
+        };
+    }
+
+    /** Number of keys in [from, to), in O(log n); a null bound is open, as in range(). */
+    public int count(T from, T to) {
+        int hi = to == null ? size() : rank(to);
+        int lo = from == null ? 0 : rank(from);
+        return Math.max(0, hi - lo);
+    }
+
+    // The stack holds the next node on top, then the ancestors still to visit
+    private class TreeIterator implements Iterator<T> {
+        private final Deque<Node> path;
+        private final boolean descending;
+        private final T to;
+        private final int expectedModCount = modCount;
+
+        TreeIterator(Deque<Node> path, boolean descending, T to) {
+            this.path = path;
+            this.descending = descending;
+            this.to = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty() && (to == null || path.peek().key.compareTo(to) < 0);
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException();
+            Node n = path.pop();
+            for (Node c = descending ? n.left : n.right; c != null; c = descending ? c.right : c.left) path.push(c);
+            return n.key;
+        }
+    }
+
     private int height(Node n) { return n == null ? 0 : n.height; }
 
+    private int size(Node n) { return n == null ? 0 : n.size; }
+
+    private void update(Node n) {
+        n.height = 1 + Math.max(height(n.left), height(n.right));
+        n.size = 1 + size(n.left) + size(n.right);
+    }
+
     private Node balance(Node n) {
         int bf = height(n.left) - height(n.right);
         if (bf > 1) {
@@ -45,30 +256,23 @@ public class AVLTree<T extends Comparable<T>> {
     private Node rotateLeft(Node y) {
         Node x = y.right, T2 = x.left;
         x.left = y; y.right = T2;
-        y.height = 1 + Math.max(height(y.left), height(y.right));
-        x.height = 1 + Math.max(height(x.left), height(x.right));
+        update(y);
+        update(x);
         return x;
     }
 
     private Node rotateRight(Node y) {
         Node x = y.left, T2 = x.right;
         x.right = y; y.left = T2;
-        y.height = 1 + Math.max(height(y.left), height(y.right));
-        x.height = 1 + Math.max(height(x.left), height(x.right));
+        update(y);
+        update(x);
         return x;
     }
 
+    /** Copy of all keys in ascending order. */
     public List<T> inOrder() {
-        List<T> res = new ArrayList<>();
-        inOrderRec(root, res);
+        List<T> res = new ArrayList<>(size());
+        for (T key : this) res.add(key);
         return res;
     }
-
-    private void inOrderRec(Node node, List<T> res) {
-        if (node != null) {
-            inOrderRec(node.left, res);
-            res.add(node.key);
-            inOrderRec(node.right, res);
-        }
-    }
 }
@@ -0,0 +1,165 @@
+package com.fairshare.backend.dsa.tree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Augmented AVL interval tree over half-open intervals [start, end).
+ *
+ * - Nodes are ordered by (start, id), so several intervals may share a start.
+ * - Every node keeps the max end of its subtree, which lets overlap
+ *   queries skip whole subtrees: O(log n) for "any overlap", O(log n + k)
+ *   to list the k overlapping intervals.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public class IntervalTree {
+
+    public record Interval(long start, long end, long id) { }
+
+    private static class Node {
+        Interval interval;
+        long maxEnd;
+        int height = 1;
+        Node left, right;
+        Node(Interval interval) { this.interval = interval; this.maxEnd = interval.end(); }
+    }
+
+    private Node root;
+    private int size;
+
+    public int size() { return size; }
+
+    public void insert(long start, long end, long id) {
+        root = insertRec(root, new Interval(start, end, id));
+        size++;
+    }
+
+    /** Removes the interval registered with this start and id; returns false if absent. */
+    public boolean remove(long start, long id) {
+        int before = size;
+        root = removeRec(root, start, id);
+        return size < before;
+    }
+
+    /** True if any stored interval overlaps [start, end). */
+    public boolean overlaps(long start, long end) {
+        Node n = root;
+        while (n != null) {
+            if (n.interval.start() < end && n.interval.end() > start) return true;
+            // If the left subtree reaches past start it must hold an overlap when one exists there,
+            // otherwise only the right side can still overlap.
+            if (n.left != null && n.left.maxEnd > start) n = n.left;
+            else if (n.interval.start() < end) n = n.right;
+            else return false;
+        }
+        return false;
+    }
+
+    /**
+     * The earliest-starting interval that ends after t, or null. Walking
+     * t = result.end() repeatedly visits the busy blocks after t in order,
+     * one O(log n) step at a time, which is how free gaps are found lazily.
+     */
+    public Interval firstEndingAfter(long t) {
+        Node n = root;
+        while (n != null && n.maxEnd > t) {
+            if (n.left != null && n.left.maxEnd > t) n = n.left;
+            else if (n.interval.end() > t) return n.interval;
+            else n = n.right;
+        }
+        return null;
+    }
+
+    /** All intervals overlapping [start, end), ordered by start. */
+    public List<Interval> findOverlapping(long start, long end) {
+        List<Interval> res = new ArrayList<>();
+        collect(root, start, end, res);
+        return res;
+    }
+
+    private void collect(Node n, long start, long end, List<Interval> res) {
+        if (n == null || n.maxEnd <= start) return;
+        collect(n.left, start, end, res);
+        if (n.interval.start() >= end) return;
+        if (n.interval.end() > start) res.add(n.interval);
+        collect(n.right, start, end, res);
+    }
+
+    private static int compare(long start, long id, Interval i) {
+        int c = Long.compare(start, i.start());
+        return c != 0 ? c : Long.compare(id, i.id());
+    }
+
+    private Node insertRec(Node node, Interval iv) {
+        if (node == null) return new Node(iv);
+        if (compare(iv.start(), iv.id(), node.interval) < 0) node.left = insertRec(node.left, iv);
+        else node.right = insertRec(node.right, iv);
+        return balance(node);
+    }
+
+    private Node removeRec(Node node, long start, long id) {
+        if (node == null) return null;
+        int cmp = compare(start, id, node.interval);
+        if (cmp < 0) node.left = removeRec(node.left, start, id);
+        else if (cmp > 0) node.right = removeRec(node.right, start, id);
+        else {
+            size--;
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            Node min = node.right;
+            while (min.left != null) min = min.left;
+            node.interval = min.interval;
+            node.right = removeMin(node.right);
+        }
+        return balance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) return node.right;
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private int height(Node n) { return n == null ? 0 : n.height; }
+
+    private void update(Node n) {
+        n.height = 1 + Math.max(height(n.left), height(n.right));
+        long m = n.interval.end();
+        if (n.left != null && n.left.maxEnd > m) m = n.left.maxEnd;
+        if (n.right != null && n.right.maxEnd > m) m = n.right.maxEnd;
+        n.maxEnd = m;
+    }
+
+    private Node balance(Node n) {
+        update(n);
+        int bf = height(n.left) - height(n.right);
+        if (bf > 1) {
+            if (height(n.left.left) < height(n.left.right)) n.left = rotateLeft(n.left);
+            return rotateRight(n);
+        }
+        if (bf < -1) {
+            if (height(n.right.right) < height(n.right.left)) n.right = rotateRight(n.right);
+            return rotateLeft(n);
+        }
+        return n;
+    }
+
+    private Node rotateLeft(Node y) {
+        Node x = y.right;
+        y.right = x.left;
+        x.left = y;
+        update(y);
+        update(x);
+        return x;
+    }
+
+    private Node rotateRight(Node y) {
+        Node x = y.left;
+        y.left = x.right;
+        x.right = y;
+        update(y);
+        update(x);
+        return x;
+    }
+}
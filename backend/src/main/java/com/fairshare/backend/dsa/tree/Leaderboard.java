@@ -0,0 +1,127 @@
+package com.fairshare.backend.dsa.tree;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Long-lived ranking of members by score, kept current as scores change
+ * rather than rebuilt per query.
+ *
+ * - An order-statistic AVLTree holds (score, key) entries; equal scores are
+ *   ordered by key (natural order, or the comparator given), so ties keep a
+ *   stable order.
+ * - A map from key to its current entry makes an update a delete + insert,
+ *   O(log n); load() builds the whole board in one pass.
+ * - top(k), page() and rank() run in O(log n + k) and O(log n).
+ *
+ * Ranks count from 1 at the highest score. Thread-safe.
+ */
+public class Leaderboard<K extends Comparable<K>, V> {
+
+    public record Ranked<V>(int rank, double score, V value) { }
+
+    private final class Entry implements Comparable<Entry> {
+        final double score;
+        final K key;
+        final V value;
+        Entry(double score, K key, V value) { this.score = score; this.key = key; this.value = value; }
+
+        // (score, key) ascending: best first is score DESC, key DESC, the same order as the DB ranking queries
+        @Override
+        public int compareTo(Entry o) {
+            int c = Double.compare(score, o.score);
+            return c != 0 ? c : keyOrder.compare(key, o.key);
+        }
+    }
+
+    private final Comparator<? super K> keyOrder;
+    private AVLTree<Entry> tree = new AVLTree<>();
+    private final Map<K, Entry> byKey = new HashMap<>();
+
+    public Leaderboard() {
+        this(Comparator.naturalOrder());
+    }
+
+    /** Breaks score ties by keyOrder, e.g. to match how a database orders the keys. */
+    public Leaderboard(Comparator<? super K> keyOrder) {
+        this.keyOrder = keyOrder;
+    }
+
+    public synchronized int size() {
+        return byKey.size();
+    }
+
+    /** Replaces the board with these members: one sort and an O(n) tree build. Later duplicates of a key win. */
+    public synchronized void load(Collection<? extends V> values, Function<? super V, K> key,
+                                  ToDoubleFunction<? super V> score) {
+        byKey.clear();
+        for (V v : values) {
+            K k = key.apply(v);
+            byKey.put(k, new Entry(score.applyAsDouble(v), k, v));
+        }
+        List<Entry> sorted = new ArrayList<>(byKey.values());
+        Collections.sort(sorted);
+        tree = AVLTree.fromSorted(sorted);
+    }
+
+    /** Adds the member or moves it to its new score. */
+    public synchronized void put(K key, double score, V value) {
+        Entry old = byKey.get(key);
+        if (old != null) tree.delete(old);
+        Entry e = new Entry(score, key, value);
+        tree.insert(e);
+        byKey.put(key, e);
+    }
+
+    public synchronized boolean remove(K key) {
+        Entry old = byKey.remove(key);
+        return old != null && tree.delete(old);
+    }
+
+    /** The k highest scores, best first. */
+    public List<V> top(int k) {
+        return values(page(0, k));
+    }
+
+    /** Members ranked offset+1 .. offset+limit, best first. */
+    public synchronized List<Ranked<V>> page(int offset, int limit) {
+        List<Ranked<V>> out = new ArrayList<>();
+        Iterator<Entry> it = tree.iterator(offset, true);
+        while (out.size() < limit && it.hasNext()) {
+            Entry e = it.next();
+            out.add(new Ranked<>(offset + out.size() + 1, e.score, e.value));
+        }
+        return out;
+    }
+
+    /**
+     * Up to limit members ranked after the cursor (score, key), best first:
+     * keyset paging that stays correct while ranks above the cursor move.
+     * The cursor member itself need not be on the board any more.
+     */
+    public synchronized List<Ranked<V>> pageAfter(double score, K key, int limit) {
+        int offset = tree.size() - tree.rank(new Entry(score, key, null));
+        return page(offset, limit);
+    }
+
+    /** All members, lowest score first. */
+    public synchronized List<V> ascending() {
+        List<V> out = new ArrayList<>(byKey.size());
+        for (Entry e : tree) out.add(e.value);
+        return out;
+    }
+
+    /** The member's rank and score, or empty if it is not on the board. */
+    public synchronized Optional<Ranked<V>> rank(K key) {
+        Entry e = byKey.get(key);
+        if (e == null) return Optional.empty();
+        return Optional.of(new Ranked<>(tree.size() - tree.rank(e), e.score, e.value));
+    }
+
+    private static <V> List<V> values(List<Ranked<V>> ranked) {
+        List<V> out = new ArrayList<>(ranked.size());
+        for (Ranked<V> r : ranked) out.add(r.value());
+        return out;
+    }
+}
@@ -0,0 +1,12 @@
+package com.fairshare.backend.model;
+
+import java.util.UUID;
+
+/** An entity ranked by behavior score: roommates and behavior records. */
+public interface BehaviorScored {
+    UUID getId();
+    double getBehaviorScore();
+
+    /** What rankings sort on; the score itself unless it changes over time. */
+    default double getRankKey() { return getBehaviorScore(); }
+}
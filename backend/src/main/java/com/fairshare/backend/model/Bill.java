@@ -18,10 +18,10 @@ public class Bill {
     private LocalDate dueDate;
     private String category; // utilities, rent, groceries, other
     private String status = "pending"; // pending | paid
+    private String paidBy; // member who fronted the money; splits are owed to them
     private LocalDateTime createdAt = LocalDateTime.now();
 
-    @ElementCollection
-    @CollectionTable(name = "bill_splits", joinColumns = @JoinColumn(name = "bill_id"))
+    @OneToMany(mappedBy = "bill", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<BillSplit> splits = new ArrayList<>();
 
     public Bill() {}
@@ -42,9 +42,18 @@ public class Bill {
     public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
+    public String getPaidBy() { return paidBy; }
+    public void setPaidBy(String paidBy) { this.paidBy = paidBy; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public List<BillSplit> getSplits() { return splits; }
-    public void setSplits(List<BillSplit> splits) { this.splits = splits; }
+    public void setSplits(List<BillSplit> splits) {
+        this.splits.clear();
+        splits.forEach(this::addSplit);
+    }
+    public void addSplit(BillSplit split) {
+        split.setBill(this);
+        splits.add(split);
+    }
 }
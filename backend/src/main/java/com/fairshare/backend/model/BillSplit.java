@@ -1,10 +1,23 @@
 package com.fairshare.backend.model;
 
-import jakarta.persistence.Embeddable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.util.UUID;
 
-@Embeddable
+@Entity
+@Table(name = "bill_split_entries", indexes = @Index(name = "idx_split_bill", columnList = "bill_id"))
 public class BillSplit {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "bill_id")
+    private Bill bill;
+
+    private String member; // who owes this share (name or email)
     private BigDecimal amount = BigDecimal.ZERO;
     private boolean paid = false;
 
@@ -13,7 +26,16 @@ public class BillSplit {
         this.amount = amount;
         this.paid = paid;
     }
+    public BillSplit(String member, BigDecimal amount, boolean paid) {
+        this(amount, paid);
+        this.member = member;
+    }
 
+    public UUID getId() { return id; }
+    public Bill getBill() { return bill; }
+    public void setBill(Bill bill) { this.bill = bill; }
+    public String getMember() { return member; }
+    public void setMember(String member) { this.member = member; }
     public BigDecimal getAmount() { return amount; }
     public void setAmount(BigDecimal amount) { this.amount = amount; }
     public boolean isPaid() { return paid; }
@@ -6,6 +6,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_booking_resource_start", columnList = "resource_id, start_time"),
+        @Index(name = "idx_booking_start", columnList = "start_time, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
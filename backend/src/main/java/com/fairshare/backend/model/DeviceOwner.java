@@ -0,0 +1,29 @@
+package com.fairshare.backend.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Which household member a metered device belongs to, for usage-based energy
+ * bill splits. member uses the same name/email as bill splits; devices
+ * without an owner count as shared.
+ */
+@Entity
+@Table(name = "energy_device_owners")
+public class DeviceOwner {
+
+    @Id
+    private String device;
+
+    private String member;
+
+    public DeviceOwner() {}
+
+    public DeviceOwner(String device, String member) {
+        this.device = device;
+        this.member = member;
+    }
+
+    public String getDevice() { return device; }
+    public String getMember() { return member; }
+    public void setMember(String member) { this.member = member; }
+}
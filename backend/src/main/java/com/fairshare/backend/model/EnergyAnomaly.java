@@ -0,0 +1,28 @@
+package com.fairshare.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.util.Date;
+
+/** A reading flagged as a consumption spike for its device and hour of day. */
+@Data
+@Entity
+@Table(indexes = @Index(name = "idx_anomaly_device", columnList = "device, id"))
+public class EnergyAnomaly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long readingId;
+    private String device;
+    private Double units;
+    private Double expectedUnits;
+    private Double sigmas; // standard deviations above expectedUnits
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date readingAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date flaggedAt = new Date();
+}
@@ -0,0 +1,9 @@
+package com.fairshare.backend.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "energy_rollup_daily", uniqueConstraints = @UniqueConstraint(
+        name = "uk_rollup_daily_bucket", columnNames = {"bucket_start", "device", "category"}))
+public class EnergyDailyRollup extends EnergyRollup {
+}
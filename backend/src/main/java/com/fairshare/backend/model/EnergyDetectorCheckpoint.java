@@ -0,0 +1,22 @@
+package com.fairshare.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.util.Date;
+
+/** Saved anomaly-detector baselines of one device (SeasonalAnomalyDetector.snapshot). */
+@Data
+@Entity
+@Table(name = "energy_detector_checkpoint")
+public class EnergyDetectorCheckpoint {
+
+    @Id
+    private String device;
+
+    @Lob
+    @Column(columnDefinition = "BLOB")
+    private byte[] state;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date savedAt;
+}
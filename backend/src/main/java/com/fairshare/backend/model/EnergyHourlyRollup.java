@@ -0,0 +1,9 @@
+package com.fairshare.backend.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "energy_rollup_hourly", uniqueConstraints = @UniqueConstraint(
+        name = "uk_rollup_hourly_bucket", columnNames = {"bucket_start", "device", "category"}))
+public class EnergyHourlyRollup extends EnergyRollup {
+}
@@ -6,6 +6,10 @@ import java.util.Date;
 
 @Data
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_energy_created", columnList = "created_at"),
+        @Index(name = "idx_energy_device_created", columnList = "device, created_at")
+})
 public class EnergyReading {
 
     @Id
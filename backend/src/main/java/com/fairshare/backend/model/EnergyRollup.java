@@ -0,0 +1,29 @@
+package com.fairshare.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Summary of the readings of one device/category in one time bucket.
+ * Rows are written by EnergyRollupRepository with additive upserts; null
+ * devices and categories are stored as "unknown" / "other".
+ */
+@Data
+@MappedSuperclass
+public abstract class EnergyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private LocalDateTime bucketStart;
+    private String device;
+    private String category;
+
+    private long readings;
+    private double unitsSum;
+    private double unitsMin;
+    private double unitsMax;
+    private double costSum;
+}
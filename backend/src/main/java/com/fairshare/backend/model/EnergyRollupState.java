@@ -0,0 +1,24 @@
+package com.fairshare.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Single-row bookkeeping for the rollup stage. Readings with id <= rolledUpToId
+ * are in the rollup tables; pendingUpToId is the highest id seen on the last
+ * run, rolled up on the next one so slower inserts with lower ids have committed.
+ */
+@Data
+@Entity
+@Table(name = "energy_rollup_state")
+public class EnergyRollupState {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id = ID;
+
+    private long rolledUpToId;
+    private long pendingUpToId;
+    private boolean archiveBackfilled;
+}
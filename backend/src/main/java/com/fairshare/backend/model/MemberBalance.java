@@ -0,0 +1,33 @@
+package com.fairshare.backend.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Materialized running balance of one household member across all open bill splits.
+ * owedCents: what others still owe this member; owingCents: what this member still owes.
+ */
+@Entity
+@Table(name = "member_balances")
+public class MemberBalance {
+
+    @Id
+    private String member;
+
+    private long owedCents;
+    private long owingCents;
+
+    public MemberBalance() {}
+
+    public MemberBalance(String member, long owedCents, long owingCents) {
+        this.member = member;
+        this.owedCents = owedCents;
+        this.owingCents = owingCents;
+    }
+
+    public String getMember() { return member; }
+    public long getOwedCents() { return owedCents; }
+    public void setOwedCents(long owedCents) { this.owedCents = owedCents; }
+    public long getOwingCents() { return owingCents; }
+    public void setOwingCents(long owingCents) { this.owingCents = owingCents; }
+    public long getNetCents() { return owedCents - owingCents; }
+}
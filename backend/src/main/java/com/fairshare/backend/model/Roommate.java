@@ -4,8 +4,8 @@ import jakarta.persistence.*;
 import java.util.UUID;
 
 @Entity
-@Table(name = "roommates")
-public class Roommate implements Comparable<Roommate> {
+@Table(name = "roommates", indexes = @Index(name = "idx_roommate_score", columnList = "behavior_score, id"))
+public class Roommate implements Comparable<Roommate>, BehaviorScored {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
@@ -1,11 +1,14 @@
 package com.fairshare.backend.model;
 
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "roommate_behavior")
-public class RoommateBehavior implements Comparable<RoommateBehavior> {
+@Table(name = "roommate_behavior", indexes = {
+        @Index(name = "idx_behavior_rank_key", columnList = "rank_key, id"),
+        @Index(name = "idx_behavior_email", columnList = "email")})
+public class RoommateBehavior implements Comparable<RoommateBehavior>, BehaviorScored {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -13,7 +16,10 @@ public class RoommateBehavior implements Comparable<RoommateBehavior> {
 
     private String name;
     private String email;
-    private double behaviorScore; // between 0–100
+    private double behaviorScore; // between 0–100, as of scoreUpdatedAt; decays toward 50 after that
+    private Instant scoreUpdatedAt;
+    private Double rankKey; // time-invariant ranking order of the decaying score, see BehaviorDecay
+    private long scoreVersion; // bumped by every batched score write, see BehaviorScoreBatchRepository
     private int completedChores;
     private int sharedBillsPaid;
     private int punctualityScore;
@@ -29,11 +35,25 @@ public class RoommateBehavior implements Comparable<RoommateBehavior> {
         this.punctualityScore = 50;
     }
 
+    /** A detached copy, for handing out a snapshot that is shared between threads. */
+    public RoommateBehavior(RoommateBehavior other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.email = other.email;
+        this.behaviorScore = other.behaviorScore;
+        this.scoreUpdatedAt = other.scoreUpdatedAt;
+        this.rankKey = other.rankKey;
+        this.scoreVersion = other.scoreVersion;
+        this.completedChores = other.completedChores;
+        this.sharedBillsPaid = other.sharedBillsPaid;
+        this.punctualityScore = other.punctualityScore;
+    }
+
     // ✅ Implement Comparable
     @Override
     public int compareTo(RoommateBehavior other) {
-        // Higher score = “greater” roommate
-        return Double.compare(this.behaviorScore, other.behaviorScore);
+        // Higher current score = “greater” roommate; rankKey orders decaying scores at any time
+        return Double.compare(this.getRankKey(), other.getRankKey());
     }
 
     // ---- Getters & Setters ----
@@ -44,6 +64,12 @@ public class RoommateBehavior implements Comparable<RoommateBehavior> {
     public void setEmail(String email) { this.email = email; }
     public double getBehaviorScore() { return behaviorScore; }
     public void setBehaviorScore(double behaviorScore) { this.behaviorScore = behaviorScore; }
+    public Instant getScoreUpdatedAt() { return scoreUpdatedAt; }
+    public void setScoreUpdatedAt(Instant scoreUpdatedAt) { this.scoreUpdatedAt = scoreUpdatedAt; }
+    @Override
+    public double getRankKey() { return rankKey == null ? 0 : rankKey; }
+    public void setRankKey(double rankKey) { this.rankKey = rankKey; }
+    public long getScoreVersion() { return scoreVersion; }
     public int getCompletedChores() { return completedChores; }
     public void setCompletedChores(int completedChores) { this.completedChores = completedChores; }
     public int getSharedBillsPaid() { return sharedBillsPaid; }
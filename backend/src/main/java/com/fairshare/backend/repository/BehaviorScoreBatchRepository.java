@@ -0,0 +1,63 @@
+package com.fairshare.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes coalesced behavior score states (score, scoreUpdatedAt, rankKey) as
+ * one JDBC batch of UPDATEs by id. Each state is computed from the row as read
+ * at scoreVersion, and the UPDATE only matches while the row is still at that
+ * version, so a write from another instance in between is never overwritten.
+ */
+@Repository
+public class BehaviorScoreBatchRepository {
+
+    private static final String SET_SCORE =
+            "UPDATE roommate_behavior SET behavior_score = ?, score_updated_at = ?, rank_key = ?, "
+                    + "score_version = score_version + 1 WHERE id = ? AND score_version = ?";
+
+    /** The new score of row id, which was read at version. */
+    public record ScoreState(UUID id, long version, double score, Instant updatedAt, double rankKey) { }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BehaviorScoreBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Writes the states in one transaction. Returns the ids that were not
+     * written because their row changed (or went away) since it was read.
+     */
+    @Transactional
+    public Set<UUID> saveScores(List<ScoreState> states) {
+        if (states.isEmpty()) return Set.of();
+        List<Object[]> rows = new ArrayList<>(states.size());
+        for (ScoreState s : states) {
+            rows.add(new Object[]{s.score(), Timestamp.from(s.updatedAt()), s.rankKey(), toBytes(s.id()), s.version()});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(SET_SCORE, rows);
+        Set<UUID> stale = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) stale.add(states.get(i).id());
+        }
+        return stale;
+    }
+
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,40 @@
+package com.fairshare.backend.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ranking queries shared by entities with a behavior score. Ranking order is
+ * (behaviorScore DESC, id DESC), which the (behavior_score, id) index serves
+ * by a backward scan: a page of k reads k index entries, and the keyset form
+ * (after the last row seen) stays O(k) however deep the page is. Entities
+ * whose rank key is not the score redeclare these queries; the score
+ * parameters are then rank keys. Keyset predicates are spelled out as
+ * score < :score OR (score = :score AND id < :id) rather than as a row
+ * comparison, which not every MySQL version runs as an index range.
+ */
+@NoRepositoryBean
+public interface BehaviorScoreRepository<T> extends JpaRepository<T, UUID> {
+
+    @Query("SELECT e FROM #{#entityName} e ORDER BY e.behaviorScore DESC, e.id DESC")
+    List<T> findRanked(Pageable page);
+
+    @Query("SELECT e FROM #{#entityName} e " +
+            "WHERE e.behaviorScore < :score OR (e.behaviorScore = :score AND e.id < :id) " +
+            "ORDER BY e.behaviorScore DESC, e.id DESC")
+    List<T> findRankedAfter(@Param("score") double score, @Param("id") UUID id, Pageable page);
+
+    /** Rows ranked ahead of (score, id); counted on the index, O(rank). */
+    @Query("SELECT COUNT(e) FROM #{#entityName} e " +
+            "WHERE e.behaviorScore > :score OR (e.behaviorScore = :score AND e.id > :id)")
+    long countRankedAhead(@Param("score") double score, @Param("id") UUID id);
+
+    @Query("SELECT e FROM #{#entityName} e ORDER BY e.behaviorScore ASC, e.id ASC")
+    List<T> findRankedAscending();
+}
@@ -0,0 +1,60 @@
+package com.fairshare.backend.repository;
+
+import com.fairshare.backend.model.Bill;
+import com.fairshare.backend.model.BillSplit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Plain JDBC batch writes for bills and their splits, used by bulk import.
+ * Ids are generated here (random UUIDs, stored as BINARY(16) like Hibernate does),
+ * so both tables go out as two batches without a round trip per bill.
+ */
+@Repository
+public class BillBatchRepository {
+
+    private static final String INSERT_BILL =
+            "INSERT INTO bills (id, title, amount, due_date, category, status, paid_by, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SPLIT =
+            "INSERT INTO bill_split_entries (id, bill_id, member, amount, paid) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BillBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public void insertAll(List<Bill> bills) {
+        if (bills.isEmpty()) return;
+        List<Object[]> billRows = new ArrayList<>(bills.size());
+        List<Object[]> splitRows = new ArrayList<>();
+        for (Bill b : bills) {
+            byte[] billId = toBytes(UUID.randomUUID());
+            billRows.add(new Object[]{billId, b.getTitle(), b.getAmount(),
+                    b.getDueDate() == null ? null : Date.valueOf(b.getDueDate()),
+                    b.getCategory(), b.getStatus(), b.getPaidBy(), Timestamp.valueOf(b.getCreatedAt())});
+            for (BillSplit s : b.getSplits()) {
+                splitRows.add(new Object[]{toBytes(UUID.randomUUID()), billId, s.getMember(), s.getAmount(), s.isPaid()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_BILL, billRows);
+        jdbcTemplate.batchUpdate(INSERT_SPLIT, splitRows);
+    }
+
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
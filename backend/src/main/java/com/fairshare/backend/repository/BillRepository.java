@@ -1,10 +1,87 @@
 package com.fairshare.backend.repository;
 
 import com.fairshare.backend.model.Bill;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface BillRepository extends JpaRepository<Bill, UUID> { }
+public interface BillRepository extends JpaRepository<Bill, UUID> {
+
+    // splits come back in the same query instead of one extra select per bill
+    @Override
+    @EntityGraph(attributePaths = "splits")
+    List<Bill> findAll();
+
+    @Modifying
+    @Query("UPDATE Bill b SET b.status = 'paid' WHERE b.id = :id AND b.status <> 'paid' " +
+            "AND NOT EXISTS (SELECT s FROM BillSplit s WHERE s.bill = b AND s.paid = false)")
+    int markPaidIfSettled(@Param("id") UUID id);
+
+    @Modifying
+    @Query("UPDATE Bill b SET b.status = 'pending' WHERE b.id = :id AND b.status = 'paid'")
+    int reopen(@Param("id") UUID id);
+
+    /** What one member still owes another across all open bills. */
+    interface OpenDebt {
+        String getDebtor();
+        String getCreditor();
+        BigDecimal getAmount();
+    }
+
+    @Query("SELECT s.member AS debtor, b.paidBy AS creditor, SUM(s.amount) AS amount " +
+            "FROM Bill b JOIN b.splits s " +
+            "WHERE b.status <> 'paid' AND s.paid = false " +
+            "AND b.paidBy IS NOT NULL AND s.member IS NOT NULL AND s.member <> b.paidBy " +
+            "GROUP BY s.member, b.paidBy")
+    List<OpenDebt> sumOpenDebts();
+
+    /** Same as sumOpenDebts but limited to one bill, read before the bill is paid or deleted. */
+    @Query("SELECT s.member AS debtor, b.paidBy AS creditor, SUM(s.amount) AS amount " +
+            "FROM Bill b JOIN b.splits s " +
+            "WHERE b.id = :id AND b.status <> 'paid' AND s.paid = false " +
+            "AND b.paidBy IS NOT NULL AND s.member IS NOT NULL AND s.member <> b.paidBy " +
+            "GROUP BY s.member, b.paidBy")
+    List<OpenDebt> sumOpenDebts(@Param("id") UUID id);
+
+    /** The debt carried by a single split, whatever its current state. */
+    @Query("SELECT s.member AS debtor, b.paidBy AS creditor, s.amount AS amount " +
+            "FROM BillSplit s JOIN s.bill b WHERE s.id = :splitId")
+    OpenDebt findSplitDebt(@Param("splitId") UUID splitId);
+
+    /** One export line per split, bill columns repeated; a bill without splits gets one line with empty split columns. */
+    interface ExportRow {
+        UUID getId();
+        String getTitle();
+        BigDecimal getAmount();
+        LocalDate getDueDate();
+        String getCategory();
+        String getStatus();
+        String getPaidBy();
+        LocalDateTime getCreatedAt();
+        UUID getSplitId();
+        String getMember();
+        BigDecimal getSplitAmount();
+        Boolean getPaid();
+    }
+
+    /** Bills with their splits for export, a bill's lines together, streamed from the driver (see StreamingQuery). */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    @Query("SELECT b.id AS id, b.title AS title, b.amount AS amount, b.dueDate AS dueDate, b.category AS category, " +
+            "b.status AS status, b.paidBy AS paidBy, b.createdAt AS createdAt, s.id AS splitId, s.member AS member, " +
+            "s.amount AS splitAmount, s.paid AS paid FROM Bill b LEFT JOIN b.splits s ORDER BY b.id")
+    Stream<ExportRow> streamForExport();
+}
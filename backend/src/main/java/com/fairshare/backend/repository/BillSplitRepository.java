@@ -0,0 +1,22 @@
+package com.fairshare.backend.repository;
+
+import com.fairshare.backend.model.BillSplit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface BillSplitRepository extends JpaRepository<BillSplit, UUID> {
+
+    @Modifying
+    @Query("UPDATE BillSplit s SET s.paid = :paid WHERE s.id = :id AND s.bill.id = :billId AND s.paid <> :paid")
+    int setPaid(@Param("billId") UUID billId, @Param("id") UUID id, @Param("paid") boolean paid);
+
+    @Modifying
+    @Query("UPDATE BillSplit s SET s.paid = true WHERE s.bill.id = :billId AND s.paid = false")
+    int markAllPaid(@Param("billId") UUID billId);
+}
@@ -0,0 +1,52 @@
+package com.fairshare.backend.repository;
+
+import com.fairshare.backend.model.Booking;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Plain JDBC batch writes for bookings. Booking ids are IDENTITY, which
+ * stops Hibernate from batching inserts, so bulk paths go through here.
+ */
+@Repository
+public class BookingBatchRepository {
+
+    private static final String INSERT =
+            "INSERT INTO booking (resource_id, start_time, end_time, status) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookingBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Inserts all bookings in one batch and writes the generated ids back. */
+    @Transactional
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) return;
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (Booking b : bookings) {
+                    ps.setLong(1, b.getResourceId());
+                    ps.setObject(2, b.getStartTime());
+                    ps.setObject(3, b.getEndTime());
+                    ps.setString(4, b.getStatus());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < bookings.size()) bookings.get(i++).setId(keys.getLong(1));
+                }
+            }
+            return null;
+        });
+    }
+}
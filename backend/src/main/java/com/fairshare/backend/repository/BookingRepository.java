@@ -1,11 +1,74 @@
 package com.fairshare.backend.repository;
 
 import com.fairshare.backend.model.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByResourceId(Long resourceId);
+
+    /** Every booking that still holds its slot; a NULL status counts as active. */
+    @Query("SELECT b FROM Booking b WHERE b.status IS NULL OR b.status <> 'cancelled'")
+    List<Booking> findActive();
+
+    /** Longest booking in seconds, or null when there are none. */
+    @Query(value = "SELECT MAX(TIMESTAMPDIFF(SECOND, start_time, end_time)) FROM booking", nativeQuery = true)
+    Long findMaxDurationSeconds();
+
+    /** Current resource of a booking, read without loading (and caching) the entity. */
+    @Query("SELECT b.resourceId FROM Booking b WHERE b.id = :id")
+    Optional<Long> findResourceIdById(@Param("id") Long id);
+
+    // Bookings overlapping [from, to) in (startTime, id) order after the keyset cursor.
+    // minStart is from minus the longest booking, so the start_time range is bounded on both sides.
+    String WINDOW = "SELECT b FROM Booking b " +
+            "WHERE b.startTime >= :minStart AND b.startTime < :to AND b.endTime > :from " +
+            "AND (b.startTime > :afterStart OR (b.startTime = :afterStart AND b.id > :afterId)) ";
+    String WINDOW_ORDER = "ORDER BY b.startTime, b.id";
+
+    /** Window over all resources, on idx_booking_start. */
+    @Query(WINDOW + WINDOW_ORDER)
+    List<Booking> findWindow(@Param("from") LocalDateTime from,
+                             @Param("to") LocalDateTime to,
+                             @Param("minStart") LocalDateTime minStart,
+                             @Param("afterStart") LocalDateTime afterStart,
+                             @Param("afterId") Long afterId,
+                             Pageable page);
+
+    /** Window of one resource, on idx_booking_resource_start. */
+    @Query(WINDOW + "AND b.resourceId = :resourceId " + WINDOW_ORDER)
+    List<Booking> findWindowByResource(@Param("resourceId") Long resourceId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       @Param("minStart") LocalDateTime minStart,
+                                       @Param("afterStart") LocalDateTime afterStart,
+                                       @Param("afterId") Long afterId,
+                                       Pageable page);
+
+    @Query(WINDOW + "AND b.status = :status " + WINDOW_ORDER)
+    List<Booking> findWindowByStatus(@Param("status") String status,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     @Param("minStart") LocalDateTime minStart,
+                                     @Param("afterStart") LocalDateTime afterStart,
+                                     @Param("afterId") Long afterId,
+                                     Pageable page);
+
+    @Query(WINDOW + "AND b.resourceId = :resourceId AND b.status = :status " + WINDOW_ORDER)
+    List<Booking> findWindowByResourceAndStatus(@Param("resourceId") Long resourceId,
+                                                @Param("status") String status,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                @Param("minStart") LocalDateTime minStart,
+                                                @Param("afterStart") LocalDateTime afterStart,
+                                                @Param("afterId") Long afterId,
+                                                Pageable page);
 }
@@ -1,10 +1,36 @@
 package com.fairshare.backend.repository;
 
 import com.fairshare.backend.model.Chore;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface ChoreRepository extends JpaRepository<Chore, UUID> { }
+public interface ChoreRepository extends JpaRepository<Chore, UUID> {
+
+    interface ExportRow {
+        UUID getId();
+        String getTitle();
+        String getDescription();
+        LocalDate getDueDate();
+        String getFrequency();
+        String getStatus();
+        String getAssignedTo();
+        LocalDateTime getCreatedAt();
+    }
+
+    /** Chores for export, streamed from the driver (see StreamingQuery). */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    @Query("SELECT c.id AS id, c.title AS title, c.description AS description, c.dueDate AS dueDate, " +
+            "c.frequency AS frequency, c.status AS status, c.assignedTo AS assignedTo, c.createdAt AS createdAt " +
+            "FROM Chore c ORDER BY c.id")
+    Stream<ExportRow> streamForExport();
+}
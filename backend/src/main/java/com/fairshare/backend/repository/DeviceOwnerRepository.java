@@ -0,0 +1,9 @@
+package com.fairshare.backend.repository;
+
+import com.fairshare.backend.model.DeviceOwner;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DeviceOwnerRepository extends JpaRepository<DeviceOwner, String> {
+}
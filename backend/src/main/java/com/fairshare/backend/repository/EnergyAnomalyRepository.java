@@ -0,0 +1,18 @@
+package com.fairshare.backend.repository;
+
+import com.fairshare.backend.model.EnergyAnomaly;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EnergyAnomalyRepository extends JpaRepository<EnergyAnomaly, Long> {
+
+    /** Newest first; device may be null for all devices. */
+    @Query("SELECT a FROM EnergyAnomaly a WHERE (:device IS NULL OR a.device = :device) ORDER BY a.id DESC")
+    List<EnergyAnomaly> findRecent(@Param("device") String device, Pageable page);
+}
@@ -0,0 +1,56 @@
+package com.fairshare.backend.repository;
+
+import com.fairshare.backend.model.EnergyReading;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Plain JDBC batch writes for energy readings. Reading ids are IDENTITY,
+ * which stops Hibernate from batching inserts, so bulk paths go through here.
+ */
+@Repository
+public class EnergyBatchRepository {
+
+    private static final String INSERT =
+            "INSERT INTO energy_reading (device, category, units, cost_per_unit, total_cost, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EnergyBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Inserts all readings in one batch and writes the generated ids back. */
+    @Transactional
+    public void insertAll(List<EnergyReading> readings) {
+        if (readings.isEmpty()) return;
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (EnergyReading r : readings) {
+                    ps.setString(1, r.getDevice());
+                    ps.setString(2, r.getCategory());
+                    ps.setObject(3, r.getUnits());
+                    ps.setObject(4, r.getCostPerUnit());
+                    ps.setObject(5, r.getTotalCost());
+                    ps.setTimestamp(6, new Timestamp(r.getCreatedAt().getTime()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < readings.size()) readings.get(i++).setId(keys.getLong(1));
+                }
+            }
+            return null;
+        });
+    }
+}
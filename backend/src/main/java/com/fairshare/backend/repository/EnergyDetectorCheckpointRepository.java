@@ -0,0 +1,9 @@
+package com.fairshare.backend.repository;
+
+import com.fairshare.backend.model.EnergyDetectorCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EnergyDetectorCheckpointRepository extends JpaRepository<EnergyDetectorCheckpoint, String> {
+}
@@ -1,9 +1,130 @@
 package com.fairshare.backend.repository;
 
 import com.fairshare.backend.model.EnergyReading;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface EnergyReadingRepository extends JpaRepository<EnergyReading, Long> {
+
+    interface GroupTotal {
+        String getKey();
+        long getReadings();
+        Double getUnits();
+        Double getCost();
+    }
+
+    interface MonthlyGroup {
+        Integer getMonth();
+        String getDevice();
+        String getCategory();
+        long getReadings();
+        Double getUnits();
+        Double getCost();
+    }
+
+    interface ExportRow {
+        Long getId();
+        String getDevice();
+        String getCategory();
+        Double getUnits();
+        Double getCostPerUnit();
+        Double getTotalCost();
+        Date getCreatedAt();
+    }
+
+    // Each filter comes in two shapes, with and without a device, so MySQL can use
+    // idx_energy_created or idx_energy_device_created (a catch-all "(:x IS NULL OR ...)"
+    // condition can use neither). A null from / to is widened to the DATETIME range
+    // (from the first full Gregorian year, where java.util.Date and MySQL agree).
+    String IN_RANGE = "e.createdAt >= :from AND e.createdAt < :to";
+    String OF_DEVICE = "e.device = :device AND " + IN_RANGE;
+    long OPEN_FROM = -12_212_553_600_000L; // 1583-01-01T00:00:00Z
+    long OPEN_TO = 253_402_128_000_000L;   // 9999-12-30T00:00:00Z
+
+    private static Date from(Date from) {
+        return from != null ? from : new Date(OPEN_FROM);
+    }
+
+    private static Date to(Date to) {
+        return to != null ? to : new Date(OPEN_TO);
+    }
+
+    /** Totals per device, units desc; every filter may be null. */
+    default List<GroupTotal> byDevice(Date from, Date to, String device) {
+        return device == null ? byDeviceInRange(from(from), to(to)) : byDeviceOfDevice(device, from(from), to(to));
+    }
+
+    String BY_DEVICE = "SELECT COALESCE(e.device, 'unknown') AS key, COUNT(e) AS readings, " +
+            "COALESCE(SUM(e.units), 0) AS units, COALESCE(SUM(e.totalCost), 0) AS cost FROM EnergyReading e WHERE ";
+    String BY_DEVICE_GROUP = " GROUP BY COALESCE(e.device, 'unknown') ORDER BY units DESC";
+
+    @Query(BY_DEVICE + IN_RANGE + BY_DEVICE_GROUP)
+    List<GroupTotal> byDeviceInRange(@Param("from") Date from, @Param("to") Date to);
+
+    @Query(BY_DEVICE + OF_DEVICE + BY_DEVICE_GROUP)
+    List<GroupTotal> byDeviceOfDevice(@Param("device") String device, @Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Totals per calendar month, device and category for readings with id > afterId,
+     * in order of each group's first reading; the raw side of rollup-routed analytics.
+     */
+    default List<MonthlyGroup> monthlyGroups(Date from, Date to, String device, long afterId) {
+        return device == null ? monthlyGroupsInRange(from(from), to(to), afterId)
+                : monthlyGroupsOfDevice(device, from(from), to(to), afterId);
+    }
+
+    String MONTHLY = "SELECT MONTH(e.createdAt) AS month, COALESCE(e.device, 'unknown') AS device, " +
+            "COALESCE(e.category, 'other') AS category, COUNT(e) AS readings, COALESCE(SUM(e.units), 0) AS units, " +
+            "COALESCE(SUM(e.totalCost), 0) AS cost FROM EnergyReading e WHERE ";
+    String MONTHLY_GROUP = " AND e.id > :afterId GROUP BY MONTH(e.createdAt), COALESCE(e.device, 'unknown'), " +
+            "COALESCE(e.category, 'other') ORDER BY MIN(e.id)";
+
+    @Query(MONTHLY + IN_RANGE + MONTHLY_GROUP)
+    List<MonthlyGroup> monthlyGroupsInRange(@Param("from") Date from, @Param("to") Date to,
+                                            @Param("afterId") long afterId);
+
+    @Query(MONTHLY + OF_DEVICE + MONTHLY_GROUP)
+    List<MonthlyGroup> monthlyGroupsOfDevice(@Param("device") String device, @Param("from") Date from,
+                                             @Param("to") Date to, @Param("afterId") long afterId);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM EnergyReading e")
+    long maxId();
+
+    /**
+     * Readings older than the cutoff that are already rolled up (id <= maxId),
+     * in id order after afterId (keyset paging for the archiver).
+     */
+    @Query("SELECT e FROM EnergyReading e WHERE e.createdAt < :cutoff AND e.id > :afterId AND e.id <= :maxId ORDER BY e.id")
+    List<EnergyReading> findArchivable(@Param("cutoff") Date cutoff, @Param("afterId") long afterId,
+                                       @Param("maxId") long maxId, Pageable page);
+
+    /** Readings for export in id order, streamed from the driver (see StreamingQuery); every filter may be null. */
+    default Stream<ExportRow> streamForExport(Date from, Date to, String device) {
+        return device == null ? streamInRangeForExport(from(from), to(to))
+                : streamOfDeviceForExport(device, from(from), to(to));
+    }
+
+    String EXPORT = "SELECT e.id AS id, e.device AS device, e.category AS category, e.units AS units, " +
+            "e.costPerUnit AS costPerUnit, e.totalCost AS totalCost, e.createdAt AS createdAt " +
+            "FROM EnergyReading e WHERE ";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    @Query(EXPORT + IN_RANGE + " ORDER BY e.id")
+    Stream<ExportRow> streamInRangeForExport(@Param("from") Date from, @Param("to") Date to);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    @Query(EXPORT + OF_DEVICE + " ORDER BY e.id")
+    Stream<ExportRow> streamOfDeviceForExport(@Param("device") String device, @Param("from") Date from,
+                                              @Param("to") Date to);
 }
@@ -0,0 +1,135 @@
+package com.fairshare.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * JDBC access to the hourly and daily energy rollup tables. Every write is an
+ * additive upsert on (bucket_start, device, category), so rolling up the same
+ * bucket in several passes sums up instead of overwriting.
+ */
+@Repository
+public class EnergyRollupRepository {
+
+    public enum Granularity {
+        HOUR("energy_rollup_hourly", "TIMESTAMPADD(HOUR, HOUR(created_at), CAST(created_at AS DATE))"),
+        DAY("energy_rollup_daily", "CAST(created_at AS DATE)");
+
+        private final String table;
+        private final String bucket;
+
+        Granularity(String table, String bucket) {
+            this.table = table;
+            this.bucket = bucket;
+        }
+    }
+
+    /** One rollup row to upsert. */
+    public record Row(LocalDateTime bucket, String device, String category, long readings,
+                      double unitsSum, double unitsMin, double unitsMax, double costSum) { }
+
+    /** Rollup rows summed per calendar month (1-12), device and category. */
+    public record Group(int month, String device, String category, long readings, double units, double cost) { }
+
+    private static final String COLUMNS =
+            " (bucket_start, device, category, readings, units_sum, units_min, units_max, cost_sum) ";
+
+    private static final String MERGE = " ON DUPLICATE KEY UPDATE readings = readings + VALUES(readings), " +
+            "units_sum = units_sum + VALUES(units_sum), units_min = LEAST(units_min, VALUES(units_min)), " +
+            "units_max = GREATEST(units_max, VALUES(units_max)), cost_sum = cost_sum + VALUES(cost_sum)";
+
+    private static final int DELETE_CHUNK = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EnergyRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the readings with afterId < id <= upToId to the rollup table: grouped
+     * in the database, then upserted as one batch.
+     */
+    public void rollUp(Granularity g, long afterId, long upToId) {
+        List<Row> rows = jdbcTemplate.query("SELECT " + g.bucket + " AS b, COALESCE(device, 'unknown') AS d, " +
+                "COALESCE(category, 'other') AS c, COUNT(*) AS n, COALESCE(SUM(units), 0) AS u, " +
+                "COALESCE(MIN(units), 0) AS lo, COALESCE(MAX(units), 0) AS hi, COALESCE(SUM(total_cost), 0) AS cost " +
+                "FROM energy_reading WHERE id > ? AND id <= ? AND created_at IS NOT NULL " +
+                "GROUP BY " + g.bucket + ", COALESCE(device, 'unknown'), COALESCE(category, 'other')",
+                (rs, i) -> new Row(rs.getTimestamp("b").toLocalDateTime(), rs.getString("d"), rs.getString("c"),
+                        rs.getLong("n"), rs.getDouble("u"), rs.getDouble("lo"), rs.getDouble("hi"), rs.getDouble("cost")),
+                afterId, upToId);
+        upsertAll(g, rows);
+    }
+
+    public void upsertAll(Granularity g, List<Row> rows) {
+        if (rows.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (Row r : rows) {
+            args.add(new Object[]{Timestamp.valueOf(r.bucket()), r.device(), r.category(), r.readings(),
+                    r.unitsSum(), r.unitsMin(), r.unitsMax(), r.costSum()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO " + g.table + COLUMNS + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)" + MERGE, args);
+    }
+
+    /**
+     * Takes one reading back out of its bucket. Min/max cannot be undone and are
+     * left as they are; a bucket whose last reading goes is deleted.
+     */
+    public void retract(Granularity g, LocalDateTime bucket, String device, String category, double units, double cost) {
+        Timestamp at = Timestamp.valueOf(bucket);
+        String d = device == null ? "unknown" : device;
+        String c = category == null ? "other" : category;
+        jdbcTemplate.update("UPDATE " + g.table + " SET readings = readings - 1, units_sum = units_sum - ?, " +
+                "cost_sum = cost_sum - ? WHERE bucket_start = ? AND device = ? AND category = ?", units, cost, at, d, c);
+        jdbcTemplate.update("DELETE FROM " + g.table +
+                " WHERE bucket_start = ? AND device = ? AND category = ? AND readings <= 0", at, d, c);
+    }
+
+    /**
+     * Rollup totals for buckets starting in [from, to) (either bound may be
+     * null), optionally for one device, in order of each month's first bucket.
+     */
+    public List<Group> monthlyGroups(Granularity g, Date from, Date to, String device) {
+        StringBuilder sql = new StringBuilder("SELECT MONTH(bucket_start) AS m, device, category, SUM(readings) AS n, " +
+                "SUM(units_sum) AS u, SUM(cost_sum) AS c FROM " + g.table + " WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND bucket_start >= ?");
+            args.add(new Timestamp(from.getTime()));
+        }
+        if (to != null) {
+            sql.append(" AND bucket_start < ?");
+            args.add(new Timestamp(to.getTime()));
+        }
+        if (device != null) {
+            sql.append(" AND device = ?");
+            args.add(device);
+        }
+        sql.append(" GROUP BY MONTH(bucket_start), device, category ORDER BY MIN(bucket_start)");
+        return jdbcTemplate.query(sql.toString(), (rs, i) -> new Group(rs.getInt("m"), rs.getString("device"),
+                rs.getString("category"), rs.getLong("n"), rs.getDouble("u"), rs.getDouble("c")), args.toArray());
+    }
+
+    /**
+     * Deletes raw readings older than cutoff with id <= maxId, DELETE_CHUNK rows
+     * per statement so no single delete holds locks for long. Returns the count.
+     */
+    public long deleteRawBefore(Date cutoff, long maxId) {
+        Timestamp at = new Timestamp(cutoff.getTime());
+        long deleted = 0;
+        int n;
+        do {
+            n = jdbcTemplate.update("DELETE FROM energy_reading WHERE created_at < ? AND id <= ? LIMIT " + DELETE_CHUNK,
+                    at, maxId);
+            deleted += n;
+        } while (n == DELETE_CHUNK);
+        return deleted;
+    }
+}
@@ -0,0 +1,20 @@
+package com.fairshare.backend.repository;
+
+import com.fairshare.backend.model.EnergyRollupState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EnergyRollupStateRepository extends JpaRepository<EnergyRollupState, Integer> {
+
+    /** Row-locks the state so a rollup run and a delete of a rolled-up reading never interleave. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM EnergyRollupState s WHERE s.id = :id")
+    Optional<EnergyRollupState> lockById(@Param("id") Integer id);
+}
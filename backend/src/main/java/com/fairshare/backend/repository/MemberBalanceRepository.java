@@ -0,0 +1,19 @@
+package com.fairshare.backend.repository;
+
+import com.fairshare.backend.model.MemberBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MemberBalanceRepository extends JpaRepository<MemberBalance, String> {
+
+    /** Atomically adds deltas to a member's row, creating it on first use. */
+    @Modifying
+    @Query(value = "INSERT INTO member_balances (member, owed_cents, owing_cents) VALUES (:member, :owed, :owing) " +
+            "ON DUPLICATE KEY UPDATE owed_cents = owed_cents + VALUES(owed_cents), " +
+            "owing_cents = owing_cents + VALUES(owing_cents)", nativeQuery = true)
+    void addDelta(@Param("member") String member, @Param("owed") long owedDelta, @Param("owing") long owingDelta);
+}
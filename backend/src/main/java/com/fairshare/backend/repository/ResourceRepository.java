@@ -4,6 +4,9 @@ import com.fairshare.backend.model.Resource;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ResourceRepository extends JpaRepository<Resource, Long> {
+    List<Resource> findByCategory(String category);
 }
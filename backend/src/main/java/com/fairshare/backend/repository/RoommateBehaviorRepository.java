@@ -1,13 +1,40 @@
 package com.fairshare.backend.repository;
 
 import com.fairshare.backend.model.RoommateBehavior;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+// Scores decay, so rankings sort on the time-invariant rankKey (index on rank_key, id)
 @Repository
-public interface RoommateBehaviorRepository extends JpaRepository<RoommateBehavior, UUID> {
+public interface RoommateBehaviorRepository extends BehaviorScoreRepository<RoommateBehavior> {
     Optional<RoommateBehavior> findByEmail(String email);
+
+    List<RoommateBehavior> findByRankKeyIsNull();
+
+    Optional<RoommateBehavior> findFirstByOrderByRankKeyDesc();
+
+    Optional<RoommateBehavior> findFirstByOrderByRankKeyAsc();
+
+    @Override
+    @Query("SELECT e FROM RoommateBehavior e ORDER BY e.rankKey DESC, e.id DESC")
+    List<RoommateBehavior> findRanked(Pageable page);
+
+    @Override
+    @Query("SELECT e FROM RoommateBehavior e WHERE e.rankKey < :score OR (e.rankKey = :score AND e.id < :id) " +
+            "ORDER BY e.rankKey DESC, e.id DESC")
+    List<RoommateBehavior> findRankedAfter(@Param("score") double rankKey, @Param("id") UUID id, Pageable page);
+
+    @Override
+    @Query("SELECT COUNT(e) FROM RoommateBehavior e WHERE e.rankKey > :score OR (e.rankKey = :score AND e.id > :id)")
+    long countRankedAhead(@Param("score") double rankKey, @Param("id") UUID id);
+
+    @Override
+    @Query("SELECT e FROM RoommateBehavior e ORDER BY e.rankKey ASC, e.id ASC")
+    List<RoommateBehavior> findRankedAscending();
 }
@@ -0,0 +1,14 @@
+package com.fairshare.backend.repository;
+
+/**
+ * Fetch size hint for repository methods returning Stream&lt;T&gt;. MySQL
+ * Connector/J only streams a result set row by row when the fetch size is
+ * Integer.MIN_VALUE; any other value buffers the whole result in memory.
+ * Such streams must be consumed (and closed) inside a transaction.
+ */
+public final class StreamingQuery {
+
+    public static final String FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    private StreamingQuery() {}
+}
@@ -0,0 +1,101 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.dsa.tree.IntervalTree;
+import com.fairshare.backend.model.Resource;
+import com.fairshare.backend.repository.ResourceRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Free-slot search over resource calendars.
+ *
+ * Each resource gets a lazy gap cursor that hops from busy block to busy block
+ * through the interval index; a min-heap merges the cursors by gap start, so
+ * only as many bookings are visited as are needed to produce the first N windows.
+ */
+@Service
+public class AvailabilityService {
+
+    public static final int MAX_SLOTS = 100;
+
+    public record FreeSlot(Long resourceId, String resourceName, LocalDateTime start, LocalDateTime end) { }
+
+    private final BookingIndex bookingIndex;
+    private final ResourceRepository resourceRepository;
+
+    public AvailabilityService(BookingIndex bookingIndex, ResourceRepository resourceRepository) {
+        this.bookingIndex = bookingIndex;
+        this.resourceRepository = resourceRepository;
+    }
+
+    public List<FreeSlot> findFreeSlots(String category, Long resourceId, LocalDateTime from, LocalDateTime to,
+                                        Duration minLength, int limit) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        List<Resource> resources;
+        if (resourceId != null) {
+            resources = resourceRepository.findById(resourceId).map(List::of).orElse(List.of());
+        } else if (category != null) {
+            resources = resourceRepository.findByCategory(category);
+        } else {
+            resources = resourceRepository.findAll();
+        }
+
+        long min = Math.max(1, minLength.getSeconds());
+        long end = BookingIndex.toKey(to);
+        PriorityQueue<GapCursor> heap = new PriorityQueue<>(
+                Comparator.comparingLong((GapCursor c) -> c.gapStart).thenComparingLong(c -> c.resource.getId()));
+        for (Resource r : resources) {
+            GapCursor c = new GapCursor(r, BookingIndex.toKey(from), end, min);
+            if (c.advance()) heap.add(c);
+        }
+
+        List<FreeSlot> slots = new ArrayList<>();
+        int n = Math.min(Math.max(limit, 1), MAX_SLOTS);
+        while (slots.size() < n && !heap.isEmpty()) {
+            GapCursor c = heap.poll();
+            slots.add(new FreeSlot(c.resource.getId(), c.resource.getName(),
+                    BookingIndex.fromKey(c.gapStart), BookingIndex.fromKey(c.gapEnd)));
+            if (c.advance()) heap.add(c);
+        }
+        return slots;
+    }
+
+    /** Produces the free gaps of one resource in time order, one index lookup per busy block. */
+    private class GapCursor {
+        final Resource resource;
+        final long windowEnd, minLength;
+        long cursor, gapStart, gapEnd;
+        boolean done;
+
+        GapCursor(Resource resource, long windowStart, long windowEnd, long minLength) {
+            this.resource = resource;
+            this.cursor = windowStart;
+            this.windowEnd = windowEnd;
+            this.minLength = minLength;
+        }
+
+        boolean advance() {
+            while (!done && cursor < windowEnd) {
+                IntervalTree.Interval busy = bookingIndex.firstEndingAfter(resource.getId(), cursor);
+                long freeUntil = busy == null ? windowEnd : Math.min(busy.start(), windowEnd);
+                long start = cursor;
+                if (busy == null || busy.start() >= windowEnd) done = true;
+                else cursor = busy.end();
+                if (freeUntil - start >= minLength) {
+                    gapStart = start;
+                    gapEnd = freeUntil;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
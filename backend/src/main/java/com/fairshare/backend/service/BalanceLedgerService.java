@@ -0,0 +1,109 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.dsa.dp.FairSplitDP;
+import com.fairshare.backend.model.Bill;
+import com.fairshare.backend.model.BillSplit;
+import com.fairshare.backend.model.MemberBalance;
+import com.fairshare.backend.repository.BillRepository;
+import com.fairshare.backend.repository.MemberBalanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Per-member balance ledger kept in member_balances.
+ *
+ * BillService applies deltas inside its own transactions, so a balance read is a
+ * primary-key lookup instead of a scan over every bill. rebuild() recomputes the
+ * whole table from the open splits; it runs at startup and nightly as reconciliation.
+ */
+@Service
+public class BalanceLedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceLedgerService.class);
+
+    /** debtor owes creditor this many cents. */
+    public record Debt(String debtor, String creditor, long cents) {
+        public static Debt of(BillRepository.OpenDebt d) {
+            return new Debt(d.getDebtor(), d.getCreditor(), FairSplitDP.toCents(d.getAmount()));
+        }
+    }
+
+    private final MemberBalanceRepository balanceRepository;
+    private final BillRepository billRepository;
+
+    public BalanceLedgerService(MemberBalanceRepository balanceRepository, BillRepository billRepository) {
+        this.balanceRepository = balanceRepository;
+        this.billRepository = billRepository;
+    }
+
+    public List<MemberBalance> getAll() {
+        return balanceRepository.findAll();
+    }
+
+    public Optional<MemberBalance> get(String member) {
+        return balanceRepository.findById(member);
+    }
+
+    /** sign = +1 when the debts appear, -1 when they are paid off or deleted. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Collection<Debt> debts, int sign) {
+        Map<String, long[]> deltas = new TreeMap<>(); // sorted: stable lock order across transactions
+        for (Debt d : debts) {
+            long cents = sign * d.cents();
+            deltas.computeIfAbsent(d.creditor(), k -> new long[2])[0] += cents;
+            deltas.computeIfAbsent(d.debtor(), k -> new long[2])[1] += cents;
+        }
+        deltas.forEach((member, d) -> balanceRepository.addDelta(member, d[0], d[1]));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyOpenDebts(List<BillRepository.OpenDebt> debts, int sign) {
+        apply(debts.stream().map(Debt::of).toList(), sign);
+    }
+
+    /** Debts created by a freshly built bill (before or after it is saved). */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyNewBill(Bill bill) {
+        applyNewBills(List.of(bill));
+    }
+
+    /** Same for a whole import batch, with one upsert per member for the batch. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyNewBills(Collection<Bill> bills) {
+        List<Debt> debts = new ArrayList<>();
+        for (Bill bill : bills) {
+            if (bill.getPaidBy() == null || "paid".equalsIgnoreCase(bill.getStatus())) continue;
+            for (BillSplit s : bill.getSplits()) {
+                if (!s.isPaid() && s.getMember() != null && !s.getMember().equals(bill.getPaidBy())) {
+                    debts.add(new Debt(s.getMember(), bill.getPaidBy(), FairSplitDP.toCents(s.getAmount())));
+                }
+            }
+        }
+        if (!debts.isEmpty()) apply(debts, +1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${fairshare.ledger.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public void rebuild() {
+        balanceRepository.deleteAllInBatch();
+        Map<String, MemberBalance> rows = new HashMap<>();
+        for (BillRepository.OpenDebt open : billRepository.sumOpenDebts()) {
+            Debt d = Debt.of(open);
+            MemberBalance creditor = rows.computeIfAbsent(d.creditor(), m -> new MemberBalance(m, 0, 0));
+            creditor.setOwedCents(creditor.getOwedCents() + d.cents());
+            MemberBalance debtor = rows.computeIfAbsent(d.debtor(), m -> new MemberBalance(m, 0, 0));
+            debtor.setOwingCents(debtor.getOwingCents() + d.cents());
+        }
+        balanceRepository.saveAll(rows.values());
+        log.info("Rebuilt balance ledger for {} members", rows.size());
+    }
+}
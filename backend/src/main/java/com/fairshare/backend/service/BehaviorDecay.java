@@ -0,0 +1,64 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.RoommateBehavior;
+
+import java.time.Instant;
+
+/**
+ * Exponential decay of behavior scores toward the neutral 50, applied lazily:
+ * a record stores (score, scoreUpdatedAt) and the score at time t is
+ * 50 + (score - 50) * 2^(-(t - scoreUpdatedAt) / halfLife), O(1) on read or
+ * write; nothing is recomputed on a schedule.
+ *
+ * Every deviation shrinks by the same factor over the same time, so the order
+ * of current scores equals the order of d * e^(λ(updatedAt - EPOCH)), which
+ * never changes until the record is written again. rankKey is that value in
+ * log space (sign(d) * (OFFSET + ln|d| + λ(updatedAt - EPOCH))) so it cannot
+ * overflow; the leaderboard and the rank_key index sort on it.
+ */
+class BehaviorDecay {
+
+    static final double NEUTRAL = 50;
+    private static final long EPOCH_MS = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+    // Deviations below MIN_DEVIATION count as neutral; OFFSET keeps every other key's magnitude positive
+    private static final double MIN_DEVIATION = 1e-6, OFFSET = 20;
+
+    private final double lambdaPerMs;
+
+    /** halfLifeDays <= 0 turns decay off; scores then rank as stored. */
+    BehaviorDecay(double halfLifeDays) {
+        this.lambdaPerMs = halfLifeDays > 0 ? Math.log(2) / (halfLifeDays * 86_400_000d) : 0;
+    }
+
+    /** The score at time now. */
+    double scoreAt(RoommateBehavior b, Instant now) {
+        Instant at = b.getScoreUpdatedAt();
+        if (at == null || lambdaPerMs == 0) return b.getBehaviorScore();
+        long elapsed = Math.max(0, now.toEpochMilli() - at.toEpochMilli());
+        return NEUTRAL + (b.getBehaviorScore() - NEUTRAL) * Math.exp(-lambdaPerMs * elapsed);
+    }
+
+    /** Re-anchors the record at now, for display; the rank key is invariant and left as is. */
+    void settle(RoommateBehavior b, Instant now) {
+        b.setBehaviorScore(scoreAt(b, now));
+        b.setScoreUpdatedAt(now);
+    }
+
+    /** Applies delta to the current score, clamped to 0–100. */
+    void add(RoommateBehavior b, double delta, Instant now) {
+        set(b, Math.min(100, Math.max(0, scoreAt(b, now) + delta)), now);
+    }
+
+    void set(RoommateBehavior b, double score, Instant now) {
+        b.setBehaviorScore(score);
+        b.setScoreUpdatedAt(now);
+        b.setRankKey(rankKey(score, now));
+    }
+
+    double rankKey(double score, Instant at) {
+        double d = score - NEUTRAL;
+        if (Math.abs(d) < MIN_DEVIATION) return 0;
+        double magnitude = OFFSET + Math.log(Math.abs(d)) + lambdaPerMs * (at.toEpochMilli() - EPOCH_MS);
+        return Math.copySign(magnitude, d);
+    }
+}
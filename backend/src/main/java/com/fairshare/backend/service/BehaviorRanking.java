@@ -0,0 +1,122 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.dsa.tree.Leaderboard;
+import com.fairshare.backend.dsa.tree.Leaderboard.Ranked;
+import com.fairshare.backend.model.BehaviorScored;
+import com.fairshare.backend.repository.BehaviorScoreRepository;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+/**
+ * Ranking reads for one behavior-scored table, from one of two sources:
+ * - in memory (default): a Leaderboard loaded once and kept current by the
+ *   owning service's writes; no DB reads, but writes from other instances or
+ *   straight to the table are not seen;
+ * - the database: index-backed top-k and keyset queries, O(k) rows per page,
+ *   for deployments where that is not acceptable.
+ * Both rank by rank key DESC, id DESC, with ids compared the way MySQL
+ * compares the BINARY(16) column (unsigned bytes); keyset cursors are
+ * (rankKey, id, rank) of the last row seen, and database pages number their
+ * rows on from that rank instead of counting the rows ahead.
+ * Every record returned is first mapped through onRead, which may bring a
+ * decaying score up to date on a copy; stored records are not changed.
+ */
+class BehaviorRanking<T extends BehaviorScored> {
+
+    /** UUID order of a BINARY(16) column: both halves as unsigned, high half first. */
+    static final Comparator<UUID> ID_ORDER = (a, b) -> {
+        int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    private final BehaviorScoreRepository<T> repo;
+    private final Leaderboard<UUID, T> board;
+    private final UnaryOperator<T> onRead;
+
+    BehaviorRanking(BehaviorScoreRepository<T> repo, boolean inMemory) {
+        this(repo, inMemory, UnaryOperator.identity());
+    }
+
+    BehaviorRanking(BehaviorScoreRepository<T> repo, boolean inMemory, UnaryOperator<T> onRead) {
+        this.repo = repo;
+        this.board = inMemory ? new Leaderboard<>(ID_ORDER) : null;
+        this.onRead = onRead;
+    }
+
+    void load() {
+        if (board != null) board.load(repo.findAll(), BehaviorScored::getId, BehaviorScored::getRankKey);
+    }
+
+    void put(T item) {
+        if (board != null) board.put(item.getId(), item.getRankKey(), item);
+    }
+
+    void remove(UUID id) {
+        if (board != null) board.remove(id);
+    }
+
+    List<T> ascending() {
+        return read(board != null ? board.ascending() : repo.findRankedAscending());
+    }
+
+    List<T> top(int k) {
+        if (k <= 0) return List.of();
+        return read(board != null ? board.top(k) : repo.findRanked(PageRequest.of(0, k)));
+    }
+
+    List<Ranked<T>> page(int page, int size) {
+        if (board != null) return reread(board.page(page * size, size));
+        return ranked(repo.findRanked(PageRequest.of(page, size)), page * size);
+    }
+
+    List<Ranked<T>> pageAfter(double rankKey, UUID id, int rank, int size) {
+        if (board != null) return reread(board.pageAfter(rankKey, id, size));
+        return ranked(repo.findRankedAfter(rankKey, id, PageRequest.of(0, size)), rank);
+    }
+
+    /**
+     * A page of the leaderboard endpoints: after the keyset cursor (afterKey,
+     * afterId, afterRank) when one is given, else by page number. Throws
+     * IllegalArgumentException for an out-of-range page or size or a partial cursor.
+     */
+    List<Ranked<T>> leaderboard(int page, int size, Double afterKey, UUID afterId, Integer afterRank) {
+        if (page < 0 || size < 1 || size > 100) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and 100");
+        }
+        if ((afterKey == null) != (afterId == null) || (afterId == null) != (afterRank == null)) {
+            throw new IllegalArgumentException("afterKey, afterId and afterRank go together");
+        }
+        if (afterRank != null && afterRank < 1) throw new IllegalArgumentException("afterRank must be >= 1");
+        return afterId != null ? pageAfter(afterKey, afterId, afterRank, size) : page(page, size);
+    }
+
+    Optional<Ranked<T>> rank(UUID id) {
+        if (board != null) return board.rank(id).map(r -> ranked(r.rank(), r.value()));
+        return repo.findById(id).map(t -> ranked((int) repo.countRankedAhead(t.getRankKey(), t.getId()) + 1, t));
+    }
+
+    private List<T> read(List<T> rows) {
+        List<T> out = new ArrayList<>(rows.size());
+        for (T t : rows) out.add(onRead.apply(t));
+        return out;
+    }
+
+    private List<Ranked<T>> reread(List<Ranked<T>> rows) {
+        List<Ranked<T>> out = new ArrayList<>(rows.size());
+        for (Ranked<T> r : rows) out.add(ranked(r.rank(), r.value()));
+        return out;
+    }
+
+    private List<Ranked<T>> ranked(List<T> rows, int ahead) {
+        List<Ranked<T>> out = new ArrayList<>(rows.size());
+        for (T t : rows) out.add(ranked(ahead + out.size() + 1, t));
+        return out;
+    }
+
+    private Ranked<T> ranked(int rank, T t) {
+        T read = onRead.apply(t);
+        return new Ranked<>(rank, read.getBehaviorScore(), read);
+    }
+}
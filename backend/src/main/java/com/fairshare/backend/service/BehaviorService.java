@@ -1,48 +1,265 @@
 package com.fairshare.backend.service;
 
-import com.fairshare.backend.dsa.heap.BehaviorMaxHeap;
-import com.fairshare.backend.dsa.tree.AVLTree;
+import com.fairshare.backend.dsa.tree.Leaderboard.Ranked;
 import com.fairshare.backend.model.RoommateBehavior;
+import com.fairshare.backend.repository.BehaviorScoreBatchRepository;
+import com.fairshare.backend.repository.BehaviorScoreBatchRepository.ScoreState;
 import com.fairshare.backend.repository.RoommateBehaviorRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
+/**
+ * Behavior scores, decaying toward 50 with a half-life of half-life-days
+ * (BehaviorDecay): stored as (score, scoreUpdatedAt) and brought up to date
+ * lazily on read and write, ranked by a rank key that does not change while
+ * the score decays, so no periodic recompute is needed. Rankings come from
+ * BehaviorRanking: an in-memory leaderboard kept current by the flushes here,
+ * or with fairshare.leaderboard.in-memory=false the indexed ranking queries.
+ *
+ * Score updates are write-behind: an update adds its delta to the record's
+ * LongAdder (millionths of a point), so concurrent updates never wait on each
+ * other. flush() applies each record's summed delta to its stored score once,
+ * clamped to 0–100, and writes the results as one JDBC batch every flush-ms,
+ * when flush-batch updates are waiting, before getAll() and on shutdown.
+ * Each write only lands if the row is unchanged since the flush read it
+ * (BehaviorScoreBatchRepository), so writes from other instances add up.
+ * Rankings show scores as of the last flush; addOrUpdate returns the record
+ * with everything buffered for it applied.
+ *
+ * In-memory mode assumes a single instance: records are cached by email as
+ * snapshots that only a flush replaces, never changed in place. With
+ * in-memory=false nothing outlives an update, so every update looks its
+ * member up by email and sees writes from other instances.
+ */
 @Service
 public class BehaviorService {
 
+    private static final Logger log = LoggerFactory.getLogger(BehaviorService.class);
+    private static final double MICROS = 1_000_000;
+    private static final int WRITE_ATTEMPTS = 3;
+    private static final double KEY_TOLERANCE = 1e-9;
+
     private final RoommateBehaviorRepository repo;
+    private final BehaviorScoreBatchRepository batchRepo;
+    private final BehaviorDecay decay;
+    private final BehaviorRanking<RoommateBehavior> ranking;
+    private final boolean cacheRecords;
+    private final int flushBatch;
+
+    // In-memory mode: every member seen, as of the last flush. Otherwise only
+    // lookups in flight, so two first updates for one email create one record.
+    private final ConcurrentHashMap<String, CompletableFuture<RoommateBehavior>> byEmail = new ConcurrentHashMap<>();
+    // Unflushed score changes per record id, in millionths of a point
+    private final ConcurrentHashMap<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final Object flushLock = new Object();
 
-    public BehaviorService(RoommateBehaviorRepository repo) {
+    public BehaviorService(RoommateBehaviorRepository repo, BehaviorScoreBatchRepository batchRepo,
+                           @Value("${fairshare.leaderboard.in-memory:true}") boolean inMemoryRanking,
+                           @Value("${fairshare.behavior.flush-batch:1000}") int flushBatch,
+                           @Value("${fairshare.behavior.half-life-days:90}") double halfLifeDays) {
         this.repo = repo;
+        this.batchRepo = batchRepo;
+        this.decay = new BehaviorDecay(halfLifeDays);
+        this.ranking = new BehaviorRanking<>(repo, inMemoryRanking, this::current);
+        this.cacheRecords = inMemoryRanking;
+        this.flushBatch = flushBatch;
+    }
+
+    // Rows from before decay have no rank key; anchor their score at startup, once.
+    // Keys also depend on the half-life, so after it changes every key is rewritten.
+    @PostConstruct
+    public void loadLeaderboard() {
+        List<RoommateBehavior> unanchored = repo.findByRankKeyIsNull();
+        if (!unanchored.isEmpty()) {
+            Instant now = Instant.now();
+            unanchored.forEach(b -> decay.set(b, b.getBehaviorScore(), now));
+            repo.saveAll(unanchored);
+            log.info("Anchored {} behavior scores for decay", unanchored.size());
+        }
+        // every key was written under one half-life, and the highest and lowest are
+        // neutral only if all are, so those two show whether it has changed since
+        if (Stream.of(repo.findFirstByOrderByRankKeyDesc(), repo.findFirstByOrderByRankKeyAsc())
+                .flatMap(Optional::stream).anyMatch(this::hasStaleKey)) {
+            rekey();
+        }
+        ranking.load();
+    }
+
+    private boolean hasStaleKey(RoommateBehavior b) {
+        return b.getScoreUpdatedAt() != null
+                && Math.abs(decay.rankKey(b.getBehaviorScore(), b.getScoreUpdatedAt()) - b.getRankKey()) > KEY_TOLERANCE;
     }
 
+    // One transaction, so a crash part way leaves the old keys for the next startup to find.
+    // Rows written in between are skipped: their writer keyed them already.
+    private void rekey() {
+        List<ScoreState> states = new ArrayList<>();
+        for (RoommateBehavior b : repo.findAll()) {
+            if (!hasStaleKey(b)) continue;
+            states.add(new ScoreState(b.getId(), b.getScoreVersion(), b.getBehaviorScore(), b.getScoreUpdatedAt(),
+                    decay.rankKey(b.getBehaviorScore(), b.getScoreUpdatedAt())));
+        }
+        int skipped = batchRepo.saveScores(states).size();
+        log.info("Re-keyed {} behavior scores for a new half-life", states.size() - skipped);
+    }
+
+    /** A copy of the record with its score brought up to now. */
+    private RoommateBehavior current(RoommateBehavior stored) {
+        RoommateBehavior b = new RoommateBehavior(stored);
+        decay.settle(b, Instant.now());
+        return b;
+    }
+
+    /** Everyone, scores as of now. */
     public List<RoommateBehavior> getAll() {
-        return repo.findAll();
+        flush();
+        return repo.findAll().stream().map(this::current).toList();
     }
 
+    /**
+     * Adds scoreDelta to the member's score. Deltas buffered together are summed
+     * and the sum is clamped to 0–100 when it is applied.
+     */
     public RoommateBehavior addOrUpdate(String name, String email, double scoreDelta) {
-        var behavior = repo.findByEmail(email).orElse(new RoommateBehavior(name, email, 50));
-        double newScore = Math.min(100, Math.max(0, behavior.getBehaviorScore() + scoreDelta));
-        behavior.setBehaviorScore(newScore);
-        return repo.save(behavior);
+        if (email == null) throw new IllegalArgumentException("email is required");
+        RoommateBehavior stored = find(name, email);
+        LongAdder delta = scoreDelta == 0 ? pending.get(stored.getId())
+                : pending.computeIfAbsent(stored.getId(), id -> new LongAdder());
+        if (scoreDelta != 0) delta.add(Math.round(scoreDelta * MICROS));
+
+        RoommateBehavior b = new RoommateBehavior(stored);
+        decay.add(b, delta == null ? 0 : delta.sum() / MICROS, Instant.now());
+        if (scoreDelta != 0 && buffered.incrementAndGet() >= flushBatch) flush();
+        return b;
     }
 
-    public List<RoommateBehavior> getRanked() {
-        List<RoommateBehavior> all = repo.findAll();
-        AVLTree<RoommateBehavior> tree = new AVLTree<>();
-        all.forEach(tree::insert);
-        return tree.inOrder(); // return sorted order by behaviorScore
+    // The member's stored record, created at neutral if new. The lookup runs outside
+    // the map's lock; concurrent callers for the same email wait for its result.
+    private RoommateBehavior find(String name, String email) {
+        if (!cacheRecords) {
+            Optional<RoommateBehavior> found = repo.findByEmail(email);
+            if (found.isPresent()) return found.get();
+        }
+        CompletableFuture<RoommateBehavior> mine = new CompletableFuture<>();
+        CompletableFuture<RoommateBehavior> existing = byEmail.putIfAbsent(email, mine);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException r ? r : e;
+            }
+        }
+        try {
+            RoommateBehavior b = repo.findByEmail(email).orElseGet(() -> {
+                RoommateBehavior created = new RoommateBehavior(name, email, BehaviorDecay.NEUTRAL);
+                decay.set(created, BehaviorDecay.NEUTRAL, Instant.now());
+                return repo.save(created);
+            });
+            ranking.put(b);
+            mine.complete(b);
+            if (!cacheRecords) byEmail.remove(email, mine);
+            return b;
+        } catch (RuntimeException e) {
+            byEmail.remove(email, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
     }
 
+    /**
+     * Applies the buffered deltas to the stored scores and writes them. Rows
+     * another instance wrote in between are read again and the same deltas
+     * re-applied, up to WRITE_ATTEMPTS times; whatever is still unwritten, or
+     * was not written because the database failed, is put back for the next
+     * flush. Returns the rows written.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${fairshare.behavior.flush-ms:1000}")
+    public int flush() {
+        synchronized (flushLock) {
+            buffered.set(0);
+            Map<UUID, Long> left = new HashMap<>();
+            pending.forEach((id, adder) -> {
+                // take exactly what was read: adds racing with this stay in the adder
+                long micros = adder.sum();
+                if (micros == 0) return;
+                adder.add(-micros);
+                left.put(id, micros);
+            });
+            if (left.isEmpty()) return 0;
+
+            int written = 0;
+            try {
+                for (int attempt = 0; attempt < WRITE_ATTEMPTS && !left.isEmpty(); attempt++) {
+                    Instant now = Instant.now();
+                    List<RoommateBehavior> updated = new ArrayList<>(left.size());
+                    List<ScoreState> states = new ArrayList<>(left.size());
+                    for (RoommateBehavior row : repo.findAllById(left.keySet())) {
+                        RoommateBehavior b = new RoommateBehavior(row);
+                        decay.add(b, left.get(b.getId()) / MICROS, now);
+                        updated.add(b);
+                        states.add(new ScoreState(b.getId(), row.getScoreVersion(),
+                                b.getBehaviorScore(), b.getScoreUpdatedAt(), b.getRankKey()));
+                    }
+                    Set<UUID> stale = batchRepo.saveScores(states);
+                    left.keySet().retainAll(stale); // deleted members drop out here too
+                    for (RoommateBehavior b : updated) {
+                        if (stale.contains(b.getId())) continue;
+                        if (cacheRecords) byEmail.put(b.getEmail(), CompletableFuture.completedFuture(b));
+                        ranking.put(b);
+                        written++;
+                    }
+                }
+                if (!left.isEmpty()) log.warn("{} behavior scores kept changing while being written, will retry", left.size());
+            } catch (RuntimeException e) {
+                log.error("Could not write {} behavior score updates, will retry", left.size(), e);
+            }
+            left.forEach((id, micros) -> pending.computeIfAbsent(id, k -> new LongAdder()).add(micros));
+            return written;
+        }
+    }
+
+    /** Everyone, lowest score first. */
+    public List<RoommateBehavior> getRanked() {
+        return ranking.ascending();
+    }
 
+    /** The k best scores, highest first. */
     public List<RoommateBehavior> getTopPerformers(int k) {
-        BehaviorMaxHeap<RoommateBehavior> heap = new BehaviorMaxHeap<>();
-        repo.findAll().forEach(r -> heap.insert(r, r.getBehaviorScore()));
-        return heap.getTopK(k);
+        return ranking.top(k);
+    }
+
+    /** One page of the ranking, highest first; see BehaviorRanking.leaderboard. */
+    public List<Ranked<RoommateBehavior>> getLeaderboard(int page, int size, Double afterKey, UUID afterId,
+                                                         Integer afterRank) {
+        return ranking.leaderboard(page, size, afterKey, afterId, afterRank);
+    }
+
+    public Optional<Ranked<RoommateBehavior>> getRank(UUID id) {
+        return ranking.rank(id);
     }
 
     public void delete(UUID id) {
-        repo.deleteById(id);
+        synchronized (flushLock) {
+            repo.findById(id).ifPresent(b -> byEmail.remove(b.getEmail()));
+            pending.remove(id);
+            repo.deleteById(id);
+            ranking.remove(id);
+        }
     }
 }
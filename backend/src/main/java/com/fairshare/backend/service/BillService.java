@@ -1,51 +1,268 @@
 package com.fairshare.backend.service;
 
 import com.fairshare.backend.dsa.dp.FairSplitDP;
+import com.fairshare.backend.dsa.heap.CashFlowMinimizer;
 import com.fairshare.backend.model.Bill;
 import com.fairshare.backend.model.BillSplit;
+import com.fairshare.backend.repository.BillBatchRepository;
 import com.fairshare.backend.repository.BillRepository;
+import com.fairshare.backend.repository.BillSplitRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 public class BillService {
 
+    public static final int IMPORT_BATCH_SIZE = 1000;
+
     private final BillRepository billRepository;
+    private final BillSplitRepository billSplitRepository;
+    private final BillBatchRepository billBatchRepository;
+    private final BalanceLedgerService ledger;
+    private final TransactionTemplate tx;
 
-    public BillService(BillRepository billRepository) {
+    public BillService(BillRepository billRepository, BillSplitRepository billSplitRepository,
+                       BillBatchRepository billBatchRepository, BalanceLedgerService ledger,
+                       TransactionTemplate tx) {
         this.billRepository = billRepository;
+        this.billSplitRepository = billSplitRepository;
+        this.billBatchRepository = billBatchRepository;
+        this.ledger = ledger;
+        this.tx = tx;
     }
 
     public List<Bill> getAll() {
         return billRepository.findAll();
     }
 
-    public Bill create(String title, BigDecimal amount, LocalDate dueDate, String category, Integer splitCount) {
-        int n = (splitCount == null || splitCount <= 0) ? 3 : splitCount; // default 3 equal splits
+    /**
+     * Saves a bill split splitCount ways. When members are given each one gets
+     * a named split (their count overrides splitCount) and paidBy records who
+     * fronted the bill.
+     * Optional weights/caps (one per split) switch to a weighted, capped split.
+     */
+    @Transactional
+    public Bill create(String title, BigDecimal amount, LocalDate dueDate, String category, Integer splitCount,
+                       String paidBy, List<String> members, long[] weights, long[] caps) {
+        Bill saved = billRepository.save(buildBill(title, amount, dueDate, category, splitCount, paidBy, members, weights, caps));
+        ledger.applyNewBill(saved);
+        return saved;
+    }
+
+    /** Builds an unsaved bill with its splits; shared by create() and bulk import. */
+    static Bill buildBill(String title, BigDecimal amount, LocalDate dueDate, String category, Integer splitCount,
+                          String paidBy, List<String> members, long[] weights, long[] caps) {
+        boolean named = members != null && !members.isEmpty();
+        int n = named ? members.size()
+                : weights != null ? weights.length
+                : (splitCount == null || splitCount <= 0) ? 3 : splitCount; // default 3 equal splits
         Bill bill = new Bill(title, amount, dueDate, category);
+        bill.setPaidBy(paidBy);
+
+        List<BigDecimal> parts;
+        if (weights == null && caps == null) {
+            parts = FairSplitDP.split(amount, n);
+        } else {
+            long[] w = weights != null ? weights : equalWeights(n);
+            if (w.length != n) throw new IllegalArgumentException("need one weight per split");
+            long[] cents = FairSplitDP.splitWeighted(FairSplitDP.toCents(amount), w, caps);
+            parts = new ArrayList<>(n);
+            for (long c : cents) parts.add(BigDecimal.valueOf(c, 2));
+        }
 
-        var parts = FairSplitDP.split(amount, n);
         bill.getSplits().clear();
-        parts.forEach(p -> bill.getSplits().add(new BillSplit(p, false)));
+        for (int i = 0; i < n; i++) {
+            String member = named ? members.get(i) : null;
+            // the payer's own share is settled the moment they pay
+            boolean paid = member != null && member.equals(paidBy);
+            bill.addSplit(new BillSplit(member, parts.get(i), paid));
+        }
+        return bill;
+    }
 
-        return billRepository.save(bill);
+    /**
+     * Writes every bill as CSV or NDJSON, one line per split, row by row from a
+     * streamed query. Returns the line count.
+     */
+    @Transactional(readOnly = true)
+    public long exportBills(OutputStream out, String format) {
+        try (Stream<BillRepository.ExportRow> rows = billRepository.streamForExport();
+             ExportWriter writer = new ExportWriter(out, format, "id", "title", "amount", "dueDate", "category",
+                     "status", "paidBy", "createdAt", "splitId", "member", "splitAmount", "paid")) {
+            rows.forEach(r -> writer.row(r.getId(), r.getTitle(), r.getAmount(), r.getDueDate(), r.getCategory(),
+                    r.getStatus(), r.getPaidBy(), r.getCreatedAt(), r.getSplitId(), r.getMember(),
+                    r.getSplitAmount(), r.getPaid()));
+            return writer.rows();
+        }
     }
 
+    /**
+     * Streams bills from a CSV, NDJSON or JSON array upload (same fields as
+     * POST /api/bills, plus an optional status). Valid rows are written
+     * IMPORT_BATCH_SIZE at a time, each batch in its own transaction together
+     * with its ledger deltas, so a failed batch never leaves half-applied
+     * balances behind.
+     */
+    public ImportReport importBills(InputStream in, String format) throws IOException {
+        ImportReport report = new ImportReport();
+        List<Bill> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        List<Long> lines = new ArrayList<>(IMPORT_BATCH_SIZE);
+        try (ImportRowReader reader = new ImportRowReader(in, format)) {
+            for (Map<String, Object> row = reader.next(); row != null; row = reader.next()) {
+                try {
+                    batch.add(parseBillRow(row));
+                    lines.add(reader.lineNumber());
+                } catch (RuntimeException e) {
+                    report.fail(reader.lineNumber(), e.getMessage());
+                }
+                if (batch.size() == IMPORT_BATCH_SIZE) flushImport(batch, lines, report);
+            }
+        }
+        flushImport(batch, lines, report);
+        return report;
+    }
+
+    private void flushImport(List<Bill> batch, List<Long> lines, ImportReport report) {
+        if (batch.isEmpty()) return;
+        try {
+            tx.executeWithoutResult(status -> {
+                billBatchRepository.insertAll(batch);
+                ledger.applyNewBills(batch);
+            });
+            report.success(batch.size());
+        } catch (RuntimeException e) {
+            for (long line : lines) report.fail(line, "Batch write failed: " + e.getMessage());
+        }
+        batch.clear();
+        lines.clear();
+    }
+
+    private static Bill parseBillRow(Map<String, Object> row) {
+        if (row.containsKey(ImportRowReader.ERROR)) throw new IllegalArgumentException(ImportRowReader.text(row, ImportRowReader.ERROR));
+        String title = ImportRowReader.text(row, "title");
+        if (title == null || title.isBlank()) throw new IllegalArgumentException("title is required");
+        BigDecimal amount = parseAmount(ImportRowReader.text(row, "amount"), "amount");
+        if (amount == null || amount.signum() < 0) throw new IllegalArgumentException("amount must be >= 0");
+        String due = ImportRowReader.text(row, "dueDate");
+        if (due == null) throw new IllegalArgumentException("dueDate is required");
+        LocalDate dueDate;
+        try {
+            dueDate = LocalDate.parse(due);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("dueDate must be yyyy-MM-dd");
+        }
+
+        String splitText = ImportRowReader.text(row, "splitCount");
+        Integer splitCount;
+        try {
+            splitCount = splitText == null ? null : Integer.parseInt(splitText);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("splitCount must be a number");
+        }
+
+        List<String> members = ImportRowReader.toList(row.get("members"));
+        long[] weights = null;
+        List<String> w = ImportRowReader.toList(row.get("weights"));
+        if (w != null) {
+            weights = new long[w.size()];
+            try {
+                for (int i = 0; i < weights.length; i++) weights[i] = Long.parseLong(w.get(i));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("weights must be whole numbers");
+            }
+        }
+        long[] caps = null;
+        List<String> c = ImportRowReader.toList(row.get("caps"));
+        if (c != null) {
+            caps = new long[c.size()];
+            for (int i = 0; i < caps.length; i++) {
+                caps[i] = c.get(i) == null ? Long.MAX_VALUE : FairSplitDP.toCents(parseAmount(c.get(i), "caps"));
+            }
+        }
+
+        Bill bill = buildBill(title, amount, dueDate, ImportRowReader.text(row, "category"), splitCount,
+                ImportRowReader.text(row, "paidBy"), members, weights, caps);
+        if ("paid".equalsIgnoreCase(ImportRowReader.text(row, "status"))) {
+            bill.setStatus("paid");
+            bill.getSplits().forEach(s -> s.setPaid(true));
+        }
+        return bill;
+    }
+
+    private static BigDecimal parseAmount(String text, String field) {
+        if (text == null) return null;
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " must be a number");
+        }
+    }
+
+    private static long[] equalWeights(int n) {
+        long[] w = new long[n];
+        Arrays.fill(w, 1);
+        return w;
+    }
+
+    @Transactional
     public Bill updateStatus(UUID id, String status) {
         Bill b = billRepository.findById(id).orElseThrow(() -> new RuntimeException("Bill not found"));
-        b.setStatus(status);
-        // If status marked paid => mark all splits paid
+        // If status marked paid => mark all splits paid (one UPDATE, the collection is never rewritten).
+        // The open debts are read first: once the new status is flushed, sumOpenDebts skips the bill.
         if ("paid".equalsIgnoreCase(status)) {
-            b.getSplits().forEach(s -> s.setPaid(true));
+            ledger.applyOpenDebts(billRepository.sumOpenDebts(id), -1);
+            billSplitRepository.markAllPaid(id);
         }
+        b.setStatus(status);
         return billRepository.save(b);
     }
 
+    /**
+     * Marks one share paid or unpaid with a single-row UPDATE and keeps the bill
+     * status in step: paid once every share is paid, pending again otherwise.
+     * Returns false when the split does not exist or already had that state.
+     */
+    @Transactional
+    public boolean setSplitPaid(UUID billId, UUID splitId, boolean paid) {
+        int changed = billSplitRepository.setPaid(billId, splitId, paid);
+        if (changed == 0) return false;
+        if (paid) billRepository.markPaidIfSettled(billId);
+        else billRepository.reopen(billId);
+
+        BillRepository.OpenDebt debt = billRepository.findSplitDebt(splitId);
+        if (debt.getCreditor() != null && debt.getDebtor() != null && !debt.getDebtor().equals(debt.getCreditor())) {
+            ledger.apply(List.of(BalanceLedgerService.Debt.of(debt)), paid ? -1 : +1);
+        }
+        return true;
+    }
+
+    /**
+     * Who should pay whom to clear every open split. Net balances come straight
+     * from the ledger (one row per member) and are reduced with the cash-flow heaps.
+     */
+    public List<CashFlowMinimizer.Transfer> getSettlements() {
+        Map<String, Long> net = new HashMap<>();
+        ledger.getAll().forEach(b -> net.put(b.getMember(), b.getNetCents()));
+        return CashFlowMinimizer.settle(net);
+    }
+
+    @Transactional
     public void delete(UUID id) {
+        ledger.applyOpenDebts(billRepository.sumOpenDebts(id), -1);
         billRepository.deleteById(id);
     }
 }
@@ -0,0 +1,83 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.dsa.tree.IntervalTree;
+import com.fairshare.backend.model.Booking;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory per-resource interval index of active (non-cancelled) bookings.
+ * Warmed once by BookingService at startup and kept in sync on every write,
+ * so conflict checks never read the bookings table.
+ */
+@Component
+public class BookingIndex {
+
+    private final Map<Long, IntervalTree> trees = new ConcurrentHashMap<>();
+
+    public static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime fromKey(long key) {
+        return LocalDateTime.ofEpochSecond(key, 0, ZoneOffset.UTC);
+    }
+
+    public static boolean isIndexable(Booking b) {
+        return b.getId() != null && b.getResourceId() != null
+                && b.getStartTime() != null && b.getEndTime() != null
+                && !"cancelled".equalsIgnoreCase(b.getStatus());
+    }
+
+    public void clear() {
+        trees.clear();
+    }
+
+    public void add(Booking b) {
+        if (!isIndexable(b)) return;
+        IntervalTree tree = trees.computeIfAbsent(b.getResourceId(), id -> new IntervalTree());
+        synchronized (tree) {
+            tree.insert(toKey(b.getStartTime()), toKey(b.getEndTime()), b.getId());
+        }
+    }
+
+    public void remove(Booking b) {
+        if (b.getId() == null || b.getResourceId() == null || b.getStartTime() == null) return;
+        IntervalTree tree = trees.get(b.getResourceId());
+        if (tree == null) return;
+        synchronized (tree) {
+            tree.remove(toKey(b.getStartTime()), b.getId());
+        }
+    }
+
+    public boolean hasConflict(Long resourceId, LocalDateTime start, LocalDateTime end) {
+        IntervalTree tree = trees.get(resourceId);
+        if (tree == null) return false;
+        synchronized (tree) {
+            return tree.overlaps(toKey(start), toKey(end));
+        }
+    }
+
+    /** Earliest-starting active booking of a resource that ends after the given time, or null. */
+    public IntervalTree.Interval firstEndingAfter(Long resourceId, long time) {
+        IntervalTree tree = trees.get(resourceId);
+        if (tree == null) return null;
+        synchronized (tree) {
+            return tree.firstEndingAfter(time);
+        }
+    }
+
+    /** Active bookings of a resource overlapping [from, to), ordered by start. */
+    public List<IntervalTree.Interval> overlapping(Long resourceId, LocalDateTime from, LocalDateTime to) {
+        IntervalTree tree = trees.get(resourceId);
+        if (tree == null) return List.of();
+        synchronized (tree) {
+            return tree.findOverlapping(toKey(from), toKey(to));
+        }
+    }
+}
@@ -1,64 +1,429 @@
 package com.fairshare.backend.service;
 
+import com.fairshare.backend.dsa.graph.GraphColoring;
+import com.fairshare.backend.dsa.tree.IntervalTree;
 import com.fairshare.backend.model.Booking;
+import com.fairshare.backend.model.Resource;
+import com.fairshare.backend.repository.BookingBatchRepository;
 import com.fairshare.backend.repository.BookingRepository;
+import com.fairshare.backend.repository.ResourceRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class BookingService {
 
+    // Check-and-insert is serialized per resource through a fixed set of lock stripes,
+    // so two requests for the same slot cannot both pass the conflict check.
+    private static final int LOCK_STRIPES = 64;
+    private static final int MAX_OCCURRENCES = 520; // ten years of weekly bookings
+    private static final int MAX_POOL_REQUESTS = 5000;
+
+    private static final int MAX_PAGE_SIZE = 500;
+    // Used when the window end is left open; fits MySQL DATETIME.
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    /** Outcome of one occurrence in a batch: created, conflict or invalid. */
+    public record BatchResult(int index, Booking booking, String status) { }
+
+    /** One keyset page; nextCursor is null on the last page. */
+    public record BookingPage(List<Booking> bookings, String nextCursor) { }
+
     private final BookingRepository bookingRepository;
+    private final BookingBatchRepository bookingBatchRepository;
+    private final ResourceRepository resourceRepository;
+    private final BookingIndex bookingIndex;
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+    // Longest booking ever written, cancelled ones included; only grows, so window
+    // queries can bound start_time from below by from - maxLengthSeconds.
+    private final AtomicLong maxLengthSeconds = new AtomicLong();
 
-    public BookingService(BookingRepository bookingRepository) {
+    public BookingService(BookingRepository bookingRepository,
+                          BookingBatchRepository bookingBatchRepository,
+                          ResourceRepository resourceRepository,
+                          BookingIndex bookingIndex) {
         this.bookingRepository = bookingRepository;
+        this.bookingBatchRepository = bookingBatchRepository;
+        this.resourceRepository = resourceRepository;
+        this.bookingIndex = bookingIndex;
+        for (int i = 0; i < LOCK_STRIPES; i++) stripes[i] = new ReentrantLock();
+    }
+
+    private int stripeOf(Long resourceId) {
+        return Math.floorMod(resourceId == null ? 0 : resourceId.hashCode(), LOCK_STRIPES);
+    }
+
+    private ReentrantLock lockFor(Long resourceId) {
+        return stripes[stripeOf(resourceId)];
+    }
+
+    /**
+     * Warm the per-resource interval index once so conflict checks
+     * no longer re-read every booking of a resource.
+     */
+    @PostConstruct
+    public void warmIndex() {
+        bookingIndex.clear();
+        bookingRepository.findActive().forEach(bookingIndex::add);
+        Long longest = bookingRepository.findMaxDurationSeconds();
+        maxLengthSeconds.accumulateAndGet(longest == null ? 0 : longest, Math::max);
+    }
+
+    private void indexed(Booking b) {
+        bookingIndex.add(b);
+        if (b.getStartTime() != null && b.getEndTime() != null) {
+            maxLengthSeconds.accumulateAndGet(Duration.between(b.getStartTime(), b.getEndTime()).getSeconds(), Math::max);
+        }
     }
 
     public List<Booking> getAllBookings() {
         return bookingRepository.findAll();
     }
 
+    /**
+     * Bookings overlapping [from, to) ordered by (startTime, id), one page at a time.
+     * The cursor is "startTime_id" of the last row of the previous page. from is
+     * required: together with the longest booking it bounds the start_time range.
+     */
+    public BookingPage getBookings(LocalDateTime from, LocalDateTime to, Long resourceId,
+                                   String status, String cursor, int limit) {
+        if (from == null) throw new IllegalArgumentException("from is required");
+        if (to == null) to = MAX_TIME;
+        int size = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        LocalDateTime minStart = from.minusSeconds(maxLengthSeconds.get());
+        LocalDateTime afterStart = minStart;
+        long afterId = Long.MIN_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            int sep = cursor.lastIndexOf('_');
+            if (sep < 0) throw new IllegalArgumentException("Malformed cursor");
+            afterStart = LocalDateTime.parse(cursor.substring(0, sep));
+            afterId = Long.parseLong(cursor.substring(sep + 1));
+            if (afterStart.isAfter(minStart)) minStart = afterStart;
+        }
+        PageRequest page = PageRequest.of(0, size);
+        List<Booking> rows;
+        if (resourceId != null && status != null) {
+            rows = bookingRepository.findWindowByResourceAndStatus(resourceId, status, from, to, minStart, afterStart, afterId, page);
+        } else if (resourceId != null) {
+            rows = bookingRepository.findWindowByResource(resourceId, from, to, minStart, afterStart, afterId, page);
+        } else if (status != null) {
+            rows = bookingRepository.findWindowByStatus(status, from, to, minStart, afterStart, afterId, page);
+        } else {
+            rows = bookingRepository.findWindow(from, to, minStart, afterStart, afterId, page);
+        }
+        String next = null;
+        if (rows.size() == size) {
+            Booking last = rows.get(rows.size() - 1);
+            next = last.getStartTime() + "_" + last.getId();
+        }
+        return new BookingPage(rows, next);
+    }
+
     public boolean hasConflict(Booking newBooking) {
         if (newBooking.getResourceId() == null || newBooking.getStartTime() == null || newBooking.getEndTime() == null) {
             return false;
         }
+        return bookingIndex.hasConflict(newBooking.getResourceId(), newBooking.getStartTime(), newBooking.getEndTime());
+    }
+
+
+    /**
+     * Atomically checks for a conflict and creates the booking.
+     * Returns empty when the slot is already taken.
+     */
+    public Optional<Booking> reserve(Booking booking) {
+        ReentrantLock lock = lockFor(booking.getResourceId());
+        lock.lock();
+        try {
+            if (hasConflict(booking)) return Optional.empty();
+            return Optional.of(createBooking(booking));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Booking createBooking(Booking booking) {
+        ReentrantLock lock = lockFor(booking.getResourceId());
+        lock.lock();
+        try {
+            booking.setStatus("pending");
+            Booking saved = bookingRepository.save(booking);
+            indexed(saved);
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        List<Booking> existingBookings = bookingRepository.findByResourceId(newBooking.getResourceId());
+    /**
+     * Expands a recurring slot into occurrences.
+     * frequency: daily | weekly | monthly; stops at count or until, whichever comes first.
+     * A series longer than MAX_OCCURRENCES is rejected rather than cut short.
+     */
+    public static List<Booking> expandRecurrence(Long resourceId, LocalDateTime start, LocalDateTime end,
+                                                 String frequency, int interval, Integer count, LocalDateTime until) {
+        if (start == null || end == null) throw new IllegalArgumentException("startTime and endTime are required");
+        if (interval <= 0) throw new IllegalArgumentException("interval must be > 0");
+        if (count == null && until == null) throw new IllegalArgumentException("recurrence needs count or until");
+        if (count != null && (count <= 0 || count > MAX_OCCURRENCES)) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_OCCURRENCES);
+        }
+        int limit = count == null ? MAX_OCCURRENCES + 1 : count;
 
-        for (Booking existing : existingBookings) {
-            if ("cancelled".equalsIgnoreCase(existing.getStatus())) continue;
+        List<Booking> occurrences = new ArrayList<>();
+        for (int i = 0; i < limit; i++) {
+            long step = (long) i * interval;
+            LocalDateTime s = switch (frequency == null ? "weekly" : frequency.toLowerCase()) {
+                case "daily" -> start.plusDays(step);
+                case "weekly" -> start.plusWeeks(step);
+                case "monthly" -> start.plusMonths(step);
+                default -> throw new IllegalArgumentException("Unknown frequency: " + frequency);
+            };
+            if (until != null && s.isAfter(until)) break;
+            LocalDateTime e = s.plus(Duration.between(start, end));
+            occurrences.add(Booking.builder().resourceId(resourceId).startTime(s).endTime(e).build());
+        }
+        if (occurrences.size() > MAX_OCCURRENCES) {
+            throw new IllegalArgumentException("recurrence expands to more than " + MAX_OCCURRENCES + " occurrences");
+        }
+        return occurrences;
+    }
 
-            boolean overlap =
-                    newBooking.getStartTime().isBefore(existing.getEndTime()) &&
-                            newBooking.getEndTime().isAfter(existing.getStartTime());
+    /**
+     * Books many slots of one resource at once. Every occurrence is checked against
+     * the existing bookings and the other accepted occurrences in a single sorted sweep;
+     * the accepted ones are persisted in one JDBC batch. Results keep the request order.
+     * With allOrNothing, one invalid or conflicting occurrence rejects the whole batch:
+     * nothing is persisted and the occurrences that were free are reported as skipped.
+     */
+    public List<BatchResult> createBatch(Long resourceId, List<Booking> occurrences, boolean allOrNothing) {
+        if (resourceId == null) throw new IllegalArgumentException("resourceId is required");
+        if (occurrences.size() > MAX_OCCURRENCES) {
+            throw new IllegalArgumentException("At most " + MAX_OCCURRENCES + " occurrences per batch");
+        }
 
-            if (overlap) return true;
+        BatchResult[] results = new BatchResult[occurrences.size()];
+        List<Integer> valid = new ArrayList<>();
+        LocalDateTime windowStart = null, windowEnd = null;
+        for (int i = 0; i < occurrences.size(); i++) {
+            Booking b = occurrences.get(i);
+            b.setResourceId(resourceId);
+            b.setStatus("pending");
+            if (b.getStartTime() == null || b.getEndTime() == null || !b.getStartTime().isBefore(b.getEndTime())) {
+                results[i] = new BatchResult(i, b, "invalid");
+                continue;
+            }
+            valid.add(i);
+            if (windowStart == null || b.getStartTime().isBefore(windowStart)) windowStart = b.getStartTime();
+            if (windowEnd == null || b.getEndTime().isAfter(windowEnd)) windowEnd = b.getEndTime();
         }
-        return false;
+
+        ReentrantLock lock = lockFor(resourceId);
+        lock.lock();
+        try {
+            List<Booking> accepted = new ArrayList<>();
+            if (!valid.isEmpty()) {
+                List<IntervalTree.Interval> existing = bookingIndex.overlapping(resourceId, windowStart, windowEnd);
+                boolean[] ok = sweep(occurrences, valid, existing);
+                for (int k = 0; k < valid.size(); k++) {
+                    int i = valid.get(k);
+                    Booking b = occurrences.get(i);
+                    results[i] = new BatchResult(i, b, ok[k] ? "created" : "conflict");
+                    if (ok[k]) accepted.add(b);
+                }
+            }
+            if (allOrNothing && accepted.size() < occurrences.size()) {
+                for (BatchResult r : results) {
+                    if ("created".equals(r.status())) results[r.index()] = new BatchResult(r.index(), r.booking(), "skipped");
+                }
+                accepted.clear();
+            }
+            bookingBatchRepository.insertAll(accepted);
+            accepted.forEach(this::indexed);
+        } finally {
+            lock.unlock();
+        }
+        return Arrays.asList(results);
     }
 
+    /**
+     * Visits occurrences by end time while a pointer walks the existing bookings
+     * (sorted by start). An occurrence is free iff no existing booking that starts
+     * before its end, and no occurrence accepted so far, ends after its start.
+     * Taking earliest-ending occurrences first also accepts the largest possible set.
+     */
+    private static boolean[] sweep(List<Booking> occurrences, List<Integer> valid,
+                                   List<IntervalTree.Interval> existing) {
+        int m = valid.size();
+        long[] starts = new long[m], ends = new long[m];
+        Integer[] order = new Integer[m];
+        for (int k = 0; k < m; k++) {
+            Booking b = occurrences.get(valid.get(k));
+            starts[k] = BookingIndex.toKey(b.getStartTime());
+            ends[k] = BookingIndex.toKey(b.getEndTime());
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> ends[a] != ends[b] ? Long.compare(ends[a], ends[b]) : Long.compare(starts[a], starts[b]));
 
-    public Booking createBooking(Booking booking) {
-        booking.setStatus("pending");
-        return bookingRepository.save(booking);
+        boolean[] ok = new boolean[m];
+        int j = 0;
+        long existingMaxEnd = Long.MIN_VALUE, acceptedMaxEnd = Long.MIN_VALUE;
+        for (int k : order) {
+            while (j < existing.size() && existing.get(j).start() < ends[k]) {
+                existingMaxEnd = Math.max(existingMaxEnd, existing.get(j).end());
+                j++;
+            }
+            if (existingMaxEnd <= starts[k] && acceptedMaxEnd <= starts[k]) {
+                ok[k] = true;
+                acceptedMaxEnd = ends[k];
+            }
+        }
+        return ok;
     }
 
+    /**
+     * "Any machine" booking: assigns each request to one of the interchangeable
+     * resources of a category by coloring the interval graph of the requests,
+     * one color per resource, while respecting each resource's existing bookings.
+     * Requests that cannot be placed are reported as conflicts.
+     */
+    public List<BatchResult> reservePooled(String category, List<Booking> requests) {
+        if (requests.size() > MAX_POOL_REQUESTS) {
+            throw new IllegalArgumentException("At most " + MAX_POOL_REQUESTS + " requests per batch");
+        }
+        List<Resource> pool = new ArrayList<>(resourceRepository.findByCategory(category));
+        pool.sort(Comparator.comparing(Resource::getId));
+
+        BatchResult[] results = new BatchResult[requests.size()];
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Booking b = requests.get(i);
+            b.setStatus("pending");
+            if (b.getStartTime() == null || b.getEndTime() == null || !b.getStartTime().isBefore(b.getEndTime())) {
+                results[i] = new BatchResult(i, b, "invalid");
+            } else {
+                valid.add(i);
+            }
+        }
+
+        // Lock every stripe of the pool in ascending order so concurrent pooled
+        // batches and single reservations cannot deadlock.
+        TreeSet<Integer> held = new TreeSet<>();
+        pool.forEach(r -> held.add(stripeOf(r.getId())));
+        held.forEach(i -> stripes[i].lock());
+        try {
+            long[] starts = new long[valid.size()], ends = new long[valid.size()];
+            for (int k = 0; k < valid.size(); k++) {
+                Booking b = requests.get(valid.get(k));
+                starts[k] = BookingIndex.toKey(b.getStartTime());
+                ends[k] = BookingIndex.toKey(b.getEndTime());
+            }
+            int[] color = GraphColoring.colorIntervals(starts, ends, pool.size(), (c, start, end) ->
+                    !bookingIndex.hasConflict(pool.get(c).getId(), BookingIndex.fromKey(start), BookingIndex.fromKey(end)));
+
+            List<Booking> accepted = new ArrayList<>();
+            for (int k = 0; k < valid.size(); k++) {
+                int i = valid.get(k);
+                Booking b = requests.get(i);
+                if (color[k] >= 0) {
+                    b.setResourceId(pool.get(color[k]).getId());
+                    accepted.add(b);
+                }
+                results[i] = new BatchResult(i, b, color[k] >= 0 ? "created" : "conflict");
+            }
+            bookingBatchRepository.insertAll(accepted);
+            accepted.forEach(this::indexed);
+        } finally {
+            held.descendingSet().forEach(i -> stripes[i].unlock());
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Re-times, re-statuses or moves a booking; null fields keep their value.
+     * The row is re-read under the stripe locks of its current and target resource
+     * (taken in ascending order) and the new slot goes through the same conflict
+     * check as create. Throws IllegalStateException when the slot is taken.
+     */
     public Optional<Booking> updateBooking(Long id, Booking updated) {
-        return bookingRepository.findById(id).map(existing -> {
-            existing.setStartTime(updated.getStartTime());
-            existing.setEndTime(updated.getEndTime());
-            existing.setStatus(updated.getStatus());
-            return bookingRepository.save(existing);
-        });
+        while (true) {
+            Long current = bookingRepository.findResourceIdById(id).orElse(null);
+            Long target = updated.getResourceId() != null ? updated.getResourceId() : current;
+            TreeSet<Integer> held = new TreeSet<>(Arrays.asList(stripeOf(current), stripeOf(target)));
+            held.forEach(i -> stripes[i].lock());
+            try {
+                // another update may have moved the booking before the locks were taken
+                if (!Objects.equals(current, bookingRepository.findResourceIdById(id).orElse(null))) continue;
+                return bookingRepository.findById(id).map(existing -> applyUpdate(existing, updated));
+            } finally {
+                held.descendingSet().forEach(i -> stripes[i].unlock());
+            }
+        }
+    }
+
+    private Booking applyUpdate(Booking existing, Booking updated) {
+        Booking before = Booking.builder()
+                .id(existing.getId())
+                .resourceId(existing.getResourceId())
+                .startTime(existing.getStartTime())
+                .build();
+        Booking after = Booking.builder()
+                .id(existing.getId())
+                .resourceId(updated.getResourceId() != null ? updated.getResourceId() : existing.getResourceId())
+                .startTime(updated.getStartTime() != null ? updated.getStartTime() : existing.getStartTime())
+                .endTime(updated.getEndTime() != null ? updated.getEndTime() : existing.getEndTime())
+                .status(updated.getStatus() != null ? updated.getStatus() : existing.getStatus())
+                .build();
+        if (after.getStartTime() == null || after.getEndTime() == null || !after.getStartTime().isBefore(after.getEndTime())) {
+            throw new IllegalArgumentException("startTime must be before endTime");
+        }
+        if (BookingIndex.isIndexable(after) && bookingIndex.overlapping(after.getResourceId(), after.getStartTime(), after.getEndTime())
+                .stream().anyMatch(iv -> iv.id() != after.getId())) {
+            throw new IllegalStateException("Resource already booked for this time slot");
+        }
+        existing.setResourceId(after.getResourceId());
+        existing.setStartTime(after.getStartTime());
+        existing.setEndTime(after.getEndTime());
+        existing.setStatus(after.getStatus());
+        Booking saved = bookingRepository.save(existing);
+        bookingIndex.remove(before);
+        indexed(saved); // the index skips it when the update cancels the booking
+        return saved;
     }
 
+    /**
+     * Deletes a booking. As in updateBooking, the row is re-read under the stripe
+     * lock of its resource, so the interval removed from the index is the current one.
+     */
     public boolean deleteBooking(Long id) {
-        if (bookingRepository.existsById(id)) {
-            bookingRepository.deleteById(id);
-            return true;
+        while (true) {
+            Long current = bookingRepository.findResourceIdById(id).orElse(null);
+            ReentrantLock lock = lockFor(current);
+            lock.lock();
+            try {
+                Optional<Booking> existing = bookingRepository.findById(id);
+                if (existing.isEmpty()) return false;
+                // an update may have moved the booking before the lock was taken
+                if (!Objects.equals(current, existing.get().getResourceId())) continue;
+                bookingRepository.deleteById(id);
+                bookingIndex.remove(existing.get());
+                return true;
+            } finally {
+                lock.unlock();
+            }
         }
-        return false;
     }
 }
@@ -4,9 +4,12 @@ import com.fairshare.backend.dsa.linkedlist.CircularLinkedList;
 import com.fairshare.backend.model.Chore;
 import com.fairshare.backend.repository.ChoreRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Stream;
 
 @Service
 public class ChoreService {
@@ -25,6 +28,18 @@ public class ChoreService {
         return choreRepository.findAll();
     }
 
+    /** Writes every chore as CSV or NDJSON, row by row from a streamed query. Returns the row count. */
+    @Transactional(readOnly = true)
+    public long export(OutputStream out, String format) {
+        try (Stream<ChoreRepository.ExportRow> rows = choreRepository.streamForExport();
+             ExportWriter writer = new ExportWriter(out, format, "id", "title", "description", "dueDate",
+                     "frequency", "status", "assignedTo", "createdAt")) {
+            rows.forEach(r -> writer.row(r.getId(), r.getTitle(), r.getDescription(), r.getDueDate(),
+                    r.getFrequency(), r.getStatus(), r.getAssignedTo(), r.getCreatedAt()));
+            return writer.rows();
+        }
+    }
+
     public Chore create(String title, String description, LocalDate dueDate, String frequency) {
         String assignedTo = assignmentList.getCurrent();
         Chore chore = new Chore(title, description, dueDate, frequency, assignedTo);
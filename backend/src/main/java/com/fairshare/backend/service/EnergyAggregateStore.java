@@ -0,0 +1,200 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.EnergyReading;
+import org.springframework.stereotype.Component;
+
+import java.time.Month;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running energy totals kept in primitive arrays: overall, per calendar month,
+ * per device and per category. EnergyService loads it from the energy rollups
+ * at startup and applies every save, delete and import
+ * to it, so the unfiltered analytics never touch the database. A throwaway
+ * instance doubles as the accumulator for filtered analytics.
+ *
+ * The analytics map is built once per change and handed out until the next
+ * write, so a burst of dashboard polls costs one volatile read each.
+ * Like BookingIndex, this is per instance: writes from another instance only
+ * show up after a restart.
+ */
+@Component
+public class EnergyAggregateStore {
+
+    private static final String UNKNOWN_DEVICE = "unknown";
+    private static final String OTHER_CATEGORY = "other";
+
+    // overall
+    private long count;
+    private double units;
+    private double cost;
+
+    // per calendar month (0 = JAN), plus months in order of first appearance
+    private final long[] monthCount = new long[12];
+    private final double[] monthUnits = new double[12];
+    private final int[] monthOrder = new int[12];
+    private int monthOrderLength;
+
+    private final Group devices = new Group();
+    private final Group categories = new Group();
+
+    private volatile Map<String, Object> snapshot;
+
+    /** Per-key counters in parallel arrays; keys map to a slot that is never freed. */
+    private static class Group {
+        final Map<String, Integer> slots = new HashMap<>();
+        String[] keys = new String[8];
+        long[] count = new long[8];
+        double[] units = new double[8];
+        double[] cost = new double[8];
+
+        void clear() {
+            slots.clear();
+            Arrays.fill(count, 0);
+            Arrays.fill(units, 0);
+            Arrays.fill(cost, 0);
+        }
+
+        void add(String key, long n, double u, double c) {
+            int slot = slots.computeIfAbsent(key, k -> {
+                int s = slots.size();
+                if (s == keys.length) grow();
+                keys[s] = k;
+                return s;
+            });
+            count[slot] += n;
+            units[slot] += u;
+            cost[slot] += c;
+        }
+
+        private void grow() {
+            int n = keys.length * 2;
+            keys = Arrays.copyOf(keys, n);
+            count = Arrays.copyOf(count, n);
+            units = Arrays.copyOf(units, n);
+            cost = Arrays.copyOf(cost, n);
+        }
+
+        // same shape and order (units desc) as the byDevice/byCategory queries
+        Map<String, Map<String, Double>> toMap() {
+            Integer[] order = new Integer[slots.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(units[b], units[a]));
+            Map<String, Map<String, Double>> out = new LinkedHashMap<>();
+            for (int s : order) {
+                if (count[s] > 0) out.put(keys[s], Map.of("units", units[s], "cost", cost[s]));
+            }
+            return out;
+        }
+    }
+
+    public synchronized void reset() {
+        count = 0;
+        units = 0;
+        cost = 0;
+        Arrays.fill(monthCount, 0);
+        Arrays.fill(monthUnits, 0);
+        monthOrderLength = 0;
+        devices.clear();
+        categories.clear();
+        snapshot = null;
+    }
+
+    public synchronized void add(EnergyReading r) {
+        apply(r, 1);
+    }
+
+    public synchronized void addAll(List<EnergyReading> readings) {
+        for (EnergyReading r : readings) apply(r, 1);
+    }
+
+    public synchronized void remove(EnergyReading r) {
+        apply(r, -1);
+    }
+
+    /**
+     * Adds n readings that share device, category and month (0-11, or -1 when
+     * they have no date); used for pre-aggregated sources such as the rollups.
+     */
+    public synchronized void add(String device, String category, int month, long n, double u, double c) {
+        count += n;
+        units += u;
+        cost += c;
+        if (month >= 0) addMonth(month, n, u);
+        devices.add(device == null ? UNKNOWN_DEVICE : device, n, u, c);
+        categories.add(category == null ? OTHER_CATEGORY : category, n, u, c);
+        snapshot = null;
+    }
+
+    private void apply(EnergyReading r, int sign) {
+        int month = r.getCreatedAt() == null ? -1
+                : r.getCreatedAt().toInstant().atZone(ZoneId.systemDefault()).getMonthValue() - 1;
+        add(r.getDevice(), r.getCategory(), month, sign,
+                sign * (r.getUnits() == null ? 0 : r.getUnits()),
+                sign * (r.getTotalCost() == null ? 0 : r.getTotalCost()));
+    }
+
+    private void addMonth(int month, long n, double u) {
+        if (monthCount[month] == 0 && n > 0) monthOrder[monthOrderLength++] = month;
+        monthCount[month] += n;
+        monthUnits[month] += u;
+        if (monthCount[month] == 0) {
+            monthUnits[month] = 0; // drop accumulated rounding error with the last reading
+            dropFromOrder(month);
+        }
+    }
+
+    private void dropFromOrder(int month) {
+        for (int i = 0; i < monthOrderLength; i++) {
+            if (monthOrder[i] == month) {
+                System.arraycopy(monthOrder, i + 1, monthOrder, i, monthOrderLength - i - 1);
+                monthOrderLength--;
+                return;
+            }
+        }
+    }
+
+    /** Units per device (null devices under "unknown"), devices without readings left out. */
+    public synchronized Map<String, Double> unitsByDevice() {
+        Map<String, Double> out = new HashMap<>();
+        for (int s = 0; s < devices.slots.size(); s++) {
+            if (devices.count[s] > 0) out.put(devices.keys[s], devices.units[s]);
+        }
+        return out;
+    }
+
+    /** Same map as EnergyService.getAnalytics(null, null, null); read-only. */
+    public Map<String, Object> analytics() {
+        Map<String, Object> s = snapshot;
+        if (s != null) return s;
+        synchronized (this) {
+            if (snapshot == null) snapshot = buildSnapshot();
+            return snapshot;
+        }
+    }
+
+    private Map<String, Object> buildSnapshot() {
+        Map<String, Double> monthly = new LinkedHashMap<>();
+        for (int i = 0; i < monthOrderLength; i++) {
+            int m = monthOrder[i];
+            monthly.put(Month.of(m + 1).name().substring(0, 3), monthUnits[m]);
+        }
+
+        Map<String, Object> analytics = new LinkedHashMap<>();
+        analytics.put("totalReadings", count);
+        analytics.put("totalUnits", units);
+        analytics.put("totalCost", cost);
+        analytics.put("avgUnits", count == 0 ? 0.0 : units / count);
+        analytics.put("avgCost", count == 0 ? 0.0 : cost / count);
+        analytics.put("monthlyConsumption", Collections.unmodifiableMap(monthly));
+        analytics.put("deviceConsumption", Collections.unmodifiableMap(devices.toMap()));
+        analytics.put("categoryConsumption", Collections.unmodifiableMap(categories.toMap()));
+        return Collections.unmodifiableMap(analytics);
+    }
+}
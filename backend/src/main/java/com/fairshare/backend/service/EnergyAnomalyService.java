@@ -0,0 +1,146 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.dsa.stats.SeasonalAnomalyDetector;
+import com.fairshare.backend.model.EnergyAnomaly;
+import com.fairshare.backend.model.EnergyDetectorCheckpoint;
+import com.fairshare.backend.model.EnergyReading;
+import com.fairshare.backend.repository.EnergyAnomalyRepository;
+import com.fairshare.backend.repository.EnergyDetectorCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Flags per-device consumption spikes as readings arrive (SeasonalAnomalyDetector).
+ * Baselines live in memory and are checkpointed to energy_detector_checkpoint
+ * every checkpoint-ms and on shutdown, so a restart loses at most that window.
+ * Flagged readings are stored in energy_anomaly.
+ */
+@Service
+public class EnergyAnomalyService {
+
+    private static final Logger log = LoggerFactory.getLogger(EnergyAnomalyService.class);
+
+    @Autowired
+    private EnergyAnomalyRepository anomalyRepository;
+
+    @Autowired
+    private EnergyDetectorCheckpointRepository checkpointRepository;
+
+    @Value("${fairshare.energy.anomaly.alpha:0.05}")
+    private double alpha;
+
+    @Value("${fairshare.energy.anomaly.seasonal-alpha:0.1}")
+    private double seasonalAlpha;
+
+    @Value("${fairshare.energy.anomaly.threshold:4.0}")
+    private double threshold;
+
+    @Value("${fairshare.energy.anomaly.min-relative-sd:0.1}")
+    private double minRelativeSd;
+
+    @Value("${fairshare.energy.anomaly.warmup:20}")
+    private int warmup;
+
+    @Value("${fairshare.energy.anomaly.seasonal-warmup:5}")
+    private int seasonalWarmup;
+
+    private SeasonalAnomalyDetector detector;
+
+    @PostConstruct
+    public void restore() {
+        detector = new SeasonalAnomalyDetector(alpha, seasonalAlpha, threshold, minRelativeSd, warmup, seasonalWarmup);
+        for (EnergyDetectorCheckpoint c : checkpointRepository.findAll()) {
+            try {
+                detector.restore(c.getDevice(), c.getState());
+            } catch (RuntimeException e) {
+                log.warn("Discarding unreadable detector checkpoint for {}", c.getDevice(), e);
+            }
+        }
+    }
+
+    public void observe(EnergyReading reading) {
+        observeAll(List.of(reading));
+    }
+
+    /** Scores the readings in order and stores the ones flagged; never fails the caller's write. */
+    public void observeAll(List<EnergyReading> readings) {
+        List<EnergyAnomaly> flagged = new ArrayList<>();
+        ZoneId zone = ZoneId.systemDefault();
+        synchronized (detector) {
+            for (EnergyReading r : readings) {
+                if (r.getUnits() == null) continue;
+                String device = r.getDevice() == null ? "unknown" : r.getDevice();
+                Date at = r.getCreatedAt() == null ? new Date() : r.getCreatedAt();
+                int hour = at.toInstant().atZone(zone).getHour();
+                SeasonalAnomalyDetector.Score score = detector.observe(device, hour, r.getUnits());
+                if (score.anomaly()) flagged.add(toAnomaly(r, device, at, score));
+            }
+        }
+        if (flagged.isEmpty()) return;
+        try {
+            anomalyRepository.saveAll(flagged);
+        } catch (RuntimeException e) {
+            log.error("Could not store {} energy anomalies", flagged.size(), e);
+        }
+    }
+
+    private static EnergyAnomaly toAnomaly(EnergyReading r, String device, Date at, SeasonalAnomalyDetector.Score score) {
+        EnergyAnomaly a = new EnergyAnomaly();
+        a.setReadingId(r.getId());
+        a.setDevice(device);
+        a.setUnits(r.getUnits());
+        a.setExpectedUnits(score.expected());
+        a.setSigmas(score.z());
+        a.setReadingAt(at);
+        return a;
+    }
+
+    /**
+     * Saves the baselines of devices that changed since the last checkpoint.
+     * Returns how many; on a failed save they stay dirty for the next run.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${fairshare.energy.anomaly.checkpoint-ms:60000}")
+    public int checkpoint() {
+        List<EnergyDetectorCheckpoint> changed = new ArrayList<>();
+        Date now = new Date();
+        synchronized (detector) {
+            for (String device : detector.takeDirty()) {
+                EnergyDetectorCheckpoint c = new EnergyDetectorCheckpoint();
+                c.setDevice(device);
+                c.setState(detector.snapshot(device));
+                c.setSavedAt(now);
+                changed.add(c);
+            }
+        }
+        if (changed.isEmpty()) return 0;
+        try {
+            checkpointRepository.saveAll(changed);
+        } catch (RuntimeException e) {
+            // keep them dirty so the next checkpoint retries
+            synchronized (detector) {
+                for (EnergyDetectorCheckpoint c : changed) detector.markDirty(c.getDevice());
+            }
+            log.error("Could not checkpoint detector baselines of {} devices", changed.size(), e);
+            return 0;
+        }
+        return changed.size();
+    }
+
+    /** Most recent anomalies first, optionally for one device. */
+    public List<EnergyAnomaly> recent(String device, int limit) {
+        return anomalyRepository.findRecent(device, PageRequest.of(0, limit));
+    }
+}
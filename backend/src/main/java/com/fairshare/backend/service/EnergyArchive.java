@@ -0,0 +1,276 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.dsa.compress.DeltaLongCodec;
+import com.fairshare.backend.dsa.compress.DoubleColumnCodec;
+import com.fairshare.backend.model.EnergyReading;
+import com.fairshare.backend.model.EnergyRollupState;
+import com.fairshare.backend.repository.EnergyReadingRepository;
+import com.fairshare.backend.repository.EnergyRollupStateRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier for energy readings. Readings older than ageDays are moved out of
+ * the energy_reading table into per-device columnar segment files:
+ * ids and timestamps delta-of-delta varints, units/cost as scaled decimals or
+ * XOR-compressed doubles (DoubleColumnCodec), categories dictionary-coded. Segments are memory-mapped and only read
+ * to backfill the rollups. Only rows already in the rollup tables are moved, so archived
+ * rows still count in analytics but no longer show up in GET /api/energy.
+ *
+ * Off by default (fairshare.energy.archive.enabled): the files must live on a
+ * persistent disk, which the free hosting tier does not have.
+ *
+ * A move writes the segment as .tmp, deletes the rows in one transaction, then
+ * renames it to .seg. On startup a leftover .tmp is kept when its rows are gone
+ * from the table (the delete committed) and discarded otherwise.
+ */
+@Component
+public class EnergyArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(EnergyArchive.class);
+
+    private static final int MAGIC = 0x46534731; // "FSG1"
+    private static final int CHUNK = 10_000;
+
+    public record Stats(boolean enabled, int segments, long readings, long bytes) { }
+
+    /** Receives archived readings one at a time; category is null when the reading had none. */
+    public interface ReadingVisitor {
+        void accept(String device, String category, long time, double units, double cost);
+    }
+
+    /** Header of one mapped segment; columns are decoded on demand. */
+    private record Segment(Path path, String device, int count, long minTime, long maxTime, long firstId,
+                           String[] categories, MappedByteBuffer data, int[] columnOffsets) {
+        ByteBuffer column(int i) {
+            return data.duplicate().position(columnOffsets[i]);
+        }
+    }
+
+    // column order inside a segment
+    private static final int IDS = 0, TIMES = 1, UNITS = 2, COST_PER_UNIT = 3, TOTAL_COST = 4, CATEGORY = 5;
+
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private EnergyReadingRepository energyRepository;
+
+    @Autowired
+    private EnergyRollupStateRepository rollupStateRepository;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Value("${fairshare.energy.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${fairshare.energy.archive.dir:energy-archive}")
+    private String dir;
+
+    @Value("${fairshare.energy.archive.age-days:180}")
+    private int ageDays;
+
+    public EnergyArchive() {}
+
+    /** For tests and tools: an archive over dir with no database behind it. */
+    public EnergyArchive(String dir) {
+        this.enabled = true;
+        this.dir = dir;
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        if (!enabled) return;
+        Path root = Files.createDirectories(Path.of(dir));
+        try (Stream<Path> files = Files.list(root)) {
+            for (Path p : files.sorted().toList()) {
+                String name = p.getFileName().toString();
+                if (name.endsWith(".tmp")) recoverTmp(p);
+                else if (name.endsWith(".seg")) segments.add(open(p));
+            }
+        }
+        log.info("Loaded {} energy archive segments ({} readings)", segments.size(), stats().readings());
+    }
+
+    private void recoverTmp(Path tmp) throws IOException {
+        Segment s = open(tmp);
+        boolean committed = energyRepository == null || !energyRepository.existsById(s.firstId());
+        if (committed) {
+            Path seg = tmp.resolveSibling(tmp.getFileName().toString().replace(".tmp", ".seg"));
+            Files.move(tmp, seg, StandardCopyOption.ATOMIC_MOVE);
+            segments.add(open(seg));
+        } else {
+            Files.delete(tmp);
+        }
+    }
+
+    public Stats stats() {
+        long rows = 0, bytes = 0;
+        for (Segment s : segments) {
+            rows += s.count();
+            bytes += s.data().capacity();
+        }
+        return new Stats(enabled, segments.size(), rows, bytes);
+    }
+
+    /** Decodes every archived reading in segment order; used to backfill the rollup tables. */
+    public void forEachReading(ReadingVisitor visitor) {
+        for (Segment s : segments) {
+            DeltaLongCodec.Decoder times = new DeltaLongCodec.Decoder(s.column(TIMES));
+            DoubleColumnCodec.Decoder u = new DoubleColumnCodec.Decoder(s.column(UNITS));
+            DoubleColumnCodec.Decoder c = new DoubleColumnCodec.Decoder(s.column(TOTAL_COST));
+            DeltaLongCodec.Decoder category = new DeltaLongCodec.Decoder(s.column(CATEGORY));
+            for (int i = 0; i < s.count(); i++) {
+                long t = times.next();
+                double unitsValue = u.next(), costValue = c.next();
+                visitor.accept(s.device(), s.categories()[(int) category.next()], t, unitsValue, costValue);
+            }
+        }
+    }
+
+    /**
+     * Moves readings older than ageDays into segments, CHUNK rows at a time.
+     * Readings the rollup stage has not reached yet stay in the table until it
+     * has. Returns how many were archived.
+     */
+    @Scheduled(cron = "${fairshare.energy.archive.cron:0 0 4 * * *}")
+    public long archiveOld() {
+        if (!enabled) return 0;
+        Date cutoff = Date.from(Instant.now().minus(ageDays, ChronoUnit.DAYS));
+        long rolledUpTo = rollupStateRepository.findById(EnergyRollupState.ID)
+                .map(EnergyRollupState::getRolledUpToId).orElse(0L);
+        long afterId = 0, moved = 0;
+        while (true) {
+            List<EnergyReading> chunk = energyRepository.findArchivable(cutoff, afterId, rolledUpTo, PageRequest.of(0, CHUNK));
+            if (chunk.isEmpty()) break;
+            afterId = chunk.get(chunk.size() - 1).getId();
+
+            Map<String, List<EnergyReading>> byDevice = new LinkedHashMap<>();
+            for (EnergyReading r : chunk) {
+                byDevice.computeIfAbsent(r.getDevice() == null ? "unknown" : r.getDevice(), d -> new ArrayList<>()).add(r);
+            }
+            List<Path> written = new ArrayList<>();
+            try {
+                for (Map.Entry<String, List<EnergyReading>> e : byDevice.entrySet()) {
+                    written.add(write(e.getKey(), e.getValue()));
+                }
+                List<Long> ids = chunk.stream().map(EnergyReading::getId).toList();
+                tx.executeWithoutResult(status -> energyRepository.deleteAllByIdInBatch(ids));
+            } catch (IOException | RuntimeException e) {
+                log.error("Energy archiving stopped; chunk after id {} left in the table", afterId, e);
+                for (Path p : written) p.toFile().delete();
+                break;
+            }
+            try {
+                for (Path tmp : written) {
+                    Path seg = tmp.resolveSibling(tmp.getFileName().toString().replace(".tmp", ".seg"));
+                    Files.move(tmp, seg, StandardCopyOption.ATOMIC_MOVE);
+                    segments.add(open(seg));
+                }
+            } catch (IOException e) {
+                log.error("Could not finish energy segments; they are recovered on next start", e);
+                break;
+            }
+            moved += chunk.size();
+        }
+        if (moved > 0) log.info("Archived {} energy readings", moved);
+        return moved;
+    }
+
+    /** Writes one device's readings (in id order) to a .tmp segment and returns its path. */
+    Path write(String device, List<EnergyReading> rows) throws IOException {
+        int n = rows.size();
+        long[] ids = new long[n], times = new long[n], categoryIndex = new long[n];
+        double[] units = new double[n], costPerUnit = new double[n], totalCost = new double[n];
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        long minTime = Long.MAX_VALUE, maxTime = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            EnergyReading r = rows.get(i);
+            ids[i] = r.getId();
+            times[i] = r.getCreatedAt().getTime();
+            minTime = Math.min(minTime, times[i]);
+            maxTime = Math.max(maxTime, times[i]);
+            units[i] = r.getUnits() == null ? 0 : r.getUnits();
+            costPerUnit[i] = r.getCostPerUnit() == null ? 0 : r.getCostPerUnit();
+            totalCost[i] = r.getTotalCost() == null ? 0 : r.getTotalCost();
+            String category = r.getCategory() == null ? "" : r.getCategory();
+            categoryIndex[i] = dictionary.computeIfAbsent(category, k -> dictionary.size());
+        }
+        byte[][] columns = {
+                DeltaLongCodec.encode(ids, n), DeltaLongCodec.encode(times, n),
+                DoubleColumnCodec.encode(units, n), DoubleColumnCodec.encode(costPerUnit, n),
+                DoubleColumnCodec.encode(totalCost, n), DeltaLongCodec.encode(categoryIndex, n)
+        };
+
+        Path tmp = Files.createDirectories(Path.of(dir)).resolve(String.format("%019d.tmp", ids[0]));
+        try (FileOutputStream fos = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(MAGIC);
+            out.writeInt(n);
+            out.writeLong(minTime);
+            out.writeLong(maxTime);
+            out.writeUTF(device);
+            out.writeShort(dictionary.size());
+            for (String c : dictionary.keySet()) out.writeUTF(c);
+            for (byte[] col : columns) {
+                out.writeInt(col.length);
+                out.write(col);
+            }
+            out.flush();
+            fos.getFD().sync();
+        }
+        return tmp;
+    }
+
+    private static Segment open(Path path) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        ByteBuffer in = data.duplicate();
+        if (in.getInt() != MAGIC) throw new IOException("Not an energy segment: " + path);
+        int count = in.getInt();
+        long minTime = in.getLong(), maxTime = in.getLong();
+        String device = readUTF(in);
+        String[] categories = new String[in.getShort()];
+        for (int i = 0; i < categories.length; i++) {
+            String c = readUTF(in);
+            categories[i] = c.isEmpty() ? null : c;
+        }
+        int[] offsets = new int[6];
+        for (int i = 0; i < offsets.length; i++) {
+            int length = in.getInt();
+            offsets[i] = in.position();
+            in.position(in.position() + length);
+        }
+        long firstId = new DeltaLongCodec.Decoder(data.duplicate().position(offsets[IDS])).next();
+        return new Segment(path, device, count, minTime, maxTime, firstId, categories, data, offsets);
+    }
+
+    private static String readUTF(ByteBuffer in) throws IOException {
+        int length = in.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length + 2];
+        bytes[0] = (byte) (length >>> 8);
+        bytes[1] = (byte) length;
+        in.get(bytes, 2, length);
+        return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+    }
+}
@@ -0,0 +1,157 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.EnergyReading;
+import com.fairshare.backend.repository.EnergyBatchRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers meter readings in a bounded queue and writes them from one flusher
+ * thread in multi-row JDBC batches of whatever is queued, up to batchSize rows
+ * (an idle flusher wakes every flushMillis). Producers never block: when the
+ * queue is full, offer() reports how many readings fit and the caller pushes
+ * back on the client.
+ *
+ * EnergyReading keeps its IDENTITY id: the rows go out through
+ * EnergyBatchRepository, which the driver rewrites into multi-row INSERTs and
+ * MySQL numbers in one go, so Hibernate's IDENTITY batching limit never applies.
+ *
+ * Readings are acknowledged once queued, so anything still buffered when the
+ * process dies is lost; shutdown drains the queue first.
+ */
+@Component
+public class EnergyIngestPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(EnergyIngestPipeline.class);
+
+    /** Where a drained batch goes; the production sink is the JDBC batch insert. */
+    public interface Sink {
+        void write(List<EnergyReading> batch);
+    }
+
+    public record Stats(long queued, long capacity, long accepted, long rejected, long written, long failed) { }
+
+    private final Sink sink;
+    private final BlockingQueue<EnergyReading> queue;
+    private final int batchSize;
+    private final long flushMillis;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    @Autowired
+    public EnergyIngestPipeline(EnergyBatchRepository energyBatchRepository,
+                                EnergyAggregateStore aggregates,
+                                EnergyAnomalyService anomalies,
+                                @Value("${fairshare.energy.ingest.capacity:50000}") int capacity,
+                                @Value("${fairshare.energy.ingest.batch-size:1000}") int batchSize,
+                                @Value("${fairshare.energy.ingest.flush-millis:200}") long flushMillis) {
+        this(batch -> {
+            energyBatchRepository.insertAll(batch);
+            aggregates.addAll(batch);
+            anomalies.observeAll(batch);
+        }, capacity, batchSize, flushMillis);
+    }
+
+    public EnergyIngestPipeline(Sink sink, int capacity, int batchSize, long flushMillis) {
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushMillis = flushMillis;
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        flusher = new Thread(this::runFlusher, "energy-ingest-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread t;
+        synchronized (this) {
+            running = false;
+            t = flusher;
+        }
+        if (t == null) return;
+        try {
+            t.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Queues readings in order until the queue is full. Returns how many were
+     * taken: always a prefix of the list, so the caller can resend the rest.
+     * Holds the monitor stop() takes, so nothing is queued after the flusher
+     * has seen the pipeline stopped and drained.
+     */
+    public synchronized int offer(List<EnergyReading> readings) {
+        if (!running) return 0;
+        int n = 0;
+        for (EnergyReading r : readings) {
+            if (!queue.offer(r)) break;
+            n++;
+        }
+        accepted.addAndGet(n);
+        rejected.addAndGet(readings.size() - n);
+        return n;
+    }
+
+    public Stats stats() {
+        return new Stats(queue.size(), queue.size() + queue.remainingCapacity(),
+                accepted.get(), rejected.get(), written.get(), failed.get());
+    }
+
+    private void runFlusher() {
+        List<EnergyReading> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                EnergyReading first = queue.poll(flushMillis, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush(List<EnergyReading> batch) {
+        try {
+            sink.write(batch);
+            written.addAndGet(batch.size());
+        } catch (Throwable e) { // an Error too: a dead flusher would reject every later offer
+            failed.addAndGet(batch.size());
+            log.error("Dropped {} energy readings: batch write failed", batch.size(), e);
+        }
+        batch.clear();
+    }
+}
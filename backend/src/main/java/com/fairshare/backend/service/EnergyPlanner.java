@@ -0,0 +1,75 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.dsa.dp.KnapsackEnergyDP;
+import com.fairshare.backend.repository.EnergyReadingRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Energy-budget planner: which appliances to run under a unit or cost budget.
+ *
+ * Each device seen in the last `days` of readings becomes one knapsack item:
+ * - weight: its average units (or cost) per reading, i.e. one typical run,
+ *   in milli-units or cents
+ * - value:  how often it was used in that window, times an optional priority
+ */
+@Service
+public class EnergyPlanner {
+
+    /** DP width cap; larger budgets are scaled down (see KnapsackEnergyDP.solveScaled). */
+    static final int MAX_CAPACITY = 200_000;
+
+    public record PlanItem(String device, double units, double cost, long value) { }
+
+    public record Plan(String by, double budget, List<PlanItem> selected,
+                       double totalUnits, double totalCost, long totalValue) { }
+
+    private final EnergyReadingRepository energyRepository;
+
+    public EnergyPlanner(EnergyReadingRepository energyRepository) {
+        this.energyRepository = energyRepository;
+    }
+
+    public Plan plan(double budget, String by, int days, Map<String, Integer> priorities) {
+        boolean byCost = "cost".equalsIgnoreCase(by);
+        if (budget < 0 || Double.isNaN(budget)) throw new IllegalArgumentException("budget must be >= 0");
+        if (days <= 0) throw new IllegalArgumentException("days must be > 0");
+
+        Date from = Date.from(Instant.now().minus(days, ChronoUnit.DAYS));
+        List<EnergyReadingRepository.GroupTotal> devices = energyRepository.byDevice(from, null, null);
+
+        int n = devices.size();
+        long[] weights = new long[n];
+        int[] values = new int[n];
+        double scale = byCost ? 100 : 1000; // cents, milli-units
+        for (int i = 0; i < n; i++) {
+            EnergyReadingRepository.GroupTotal d = devices.get(i);
+            double perRun = (byCost ? d.getCost() : d.getUnits()) / d.getReadings();
+            weights[i] = Math.round(perRun * scale);
+            int priority = priorities == null ? 1 : priorities.getOrDefault(d.getKey(), 1);
+            values[i] = (int) Math.min(Integer.MAX_VALUE, Math.max(0L, d.getReadings() * priority));
+        }
+
+        List<Integer> chosen = KnapsackEnergyDP.solveScaled(weights, values, Math.round(budget * scale), MAX_CAPACITY);
+
+        List<PlanItem> selected = new ArrayList<>();
+        double totalUnits = 0, totalCost = 0;
+        long totalValue = 0;
+        for (int k = chosen.size() - 1; k >= 0; k--) { // back to device order
+            int i = chosen.get(k);
+            EnergyReadingRepository.GroupTotal d = devices.get(i);
+            PlanItem item = new PlanItem(d.getKey(), d.getUnits() / d.getReadings(), d.getCost() / d.getReadings(), values[i]);
+            selected.add(item);
+            totalUnits += item.units();
+            totalCost += item.cost();
+            totalValue += item.value();
+        }
+        return new Plan(byCost ? "cost" : "units", budget, selected, totalUnits, totalCost, totalValue);
+    }
+}
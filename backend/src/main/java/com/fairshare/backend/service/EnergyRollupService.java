@@ -0,0 +1,252 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.EnergyReading;
+import com.fairshare.backend.model.EnergyRollupState;
+import com.fairshare.backend.repository.EnergyReadingRepository;
+import com.fairshare.backend.repository.EnergyRollupRepository;
+import com.fairshare.backend.repository.EnergyRollupRepository.Granularity;
+import com.fairshare.backend.repository.EnergyRollupStateRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Compacts energy readings into hourly and daily rollups (count, sum, min, max
+ * per device and category) and answers analytics from them.
+ *
+ * Each run rolls up the ids seen by the previous run, not the current ones, so
+ * a batch whose lower ids commit a little after higher ones is never skipped.
+ * Raw readings older than raw-retention-days (0 keeps everything) are deleted
+ * once rolled up, so a sub-hour edge older than that is read from the hourly
+ * rollups instead and counts its whole hour.
+ */
+@Service
+public class EnergyRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(EnergyRollupService.class);
+
+    enum Source { RAW, HOURLY, DAILY }
+
+    /** One piece of a query range and where to read it from; null bounds are open. */
+    record Span(Source source, Date from, Date to) { }
+
+    @Autowired
+    private EnergyRollupRepository rollupRepository;
+
+    @Autowired
+    private EnergyRollupStateRepository stateRepository;
+
+    @Autowired
+    private EnergyReadingRepository energyRepository;
+
+    @Autowired
+    private EnergyArchive archive;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Value("${fairshare.energy.raw-retention-days:0}")
+    private int retentionDays;
+
+    private TransactionTemplate readOnlyTx;
+
+    // Archived readings left the table before rollups existed; fold them in once.
+    @PostConstruct
+    public void init() {
+        readOnlyTx = new TransactionTemplate(tx.getTransactionManager());
+        readOnlyTx.setReadOnly(true);
+        if (!archive.stats().enabled()) return;
+        tx.executeWithoutResult(status -> {
+            EnergyRollupState state = lockState();
+            if (state.isArchiveBackfilled()) return;
+            Map<Granularity, Map<List<Object>, EnergyRollupRepository.Row>> rows = new EnumMap<>(Granularity.class);
+            rows.put(Granularity.HOUR, new HashMap<>());
+            rows.put(Granularity.DAY, new HashMap<>());
+            ZoneId zone = ZoneId.systemDefault();
+            archive.forEachReading((device, category, time, units, cost) -> {
+                LocalDateTime at = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), zone);
+                String c = category == null ? "other" : category;
+                add(rows.get(Granularity.HOUR), at.truncatedTo(ChronoUnit.HOURS), device, c, units, cost);
+                add(rows.get(Granularity.DAY), at.truncatedTo(ChronoUnit.DAYS), device, c, units, cost);
+            });
+            rows.forEach((g, byKey) -> rollupRepository.upsertAll(g, new ArrayList<>(byKey.values())));
+            state.setArchiveBackfilled(true);
+            stateRepository.save(state);
+            log.info("Backfilled energy rollups with {} hourly buckets from the archive", rows.get(Granularity.HOUR).size());
+        });
+    }
+
+    private static void add(Map<List<Object>, EnergyRollupRepository.Row> rows, LocalDateTime bucket,
+                            String device, String category, double units, double cost) {
+        rows.merge(List.of(bucket, device, category),
+                new EnergyRollupRepository.Row(bucket, device, category, 1, units, units, units, cost),
+                (a, b) -> new EnergyRollupRepository.Row(bucket, device, category, a.readings() + b.readings(),
+                        a.unitsSum() + b.unitsSum(), Math.min(a.unitsMin(), b.unitsMin()),
+                        Math.max(a.unitsMax(), b.unitsMax()), a.costSum() + b.costSum()));
+    }
+
+    /** Rolls up the readings seen on the previous run. Returns the new watermark. */
+    @Scheduled(fixedDelayString = "${fairshare.energy.rollup.interval-ms:300000}",
+            initialDelayString = "${fairshare.energy.rollup.interval-ms:300000}")
+    public long rollUp() {
+        return tx.execute(status -> {
+            EnergyRollupState state = lockState();
+            long from = state.getRolledUpToId(), to = state.getPendingUpToId();
+            if (to > from) {
+                rollupRepository.rollUp(Granularity.HOUR, from, to);
+                rollupRepository.rollUp(Granularity.DAY, from, to);
+                state.setRolledUpToId(to);
+            }
+            state.setPendingUpToId(Math.max(to, energyRepository.maxId()));
+            stateRepository.save(state);
+            return state.getRolledUpToId();
+        });
+    }
+
+    /** Deletes rolled-up raw readings older than the retention window. Returns the count. */
+    @Scheduled(cron = "${fairshare.energy.retention.cron:0 30 4 * * *}")
+    public long applyRetention() {
+        if (retentionDays <= 0) return 0;
+        Date cutoff = Date.from(Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+        long deleted = rollupRepository.deleteRawBefore(cutoff, watermark());
+        if (deleted > 0) log.info("Deleted {} raw energy readings older than {} days", deleted, retentionDays);
+        return deleted;
+    }
+
+    public long watermark() {
+        return stateRepository.findById(EnergyRollupState.ID).map(EnergyRollupState::getRolledUpToId).orElse(0L);
+    }
+
+    /**
+     * Deletes a reading and, when it is already rolled up, takes it back out of
+     * its hourly and daily buckets.
+     */
+    public void delete(EnergyReading r) {
+        tx.executeWithoutResult(status -> {
+            EnergyRollupState state = lockState();
+            energyRepository.delete(r);
+            if (r.getId() > state.getRolledUpToId() || r.getCreatedAt() == null) return;
+            LocalDateTime at = LocalDateTime.ofInstant(r.getCreatedAt().toInstant(), ZoneId.systemDefault());
+            double units = r.getUnits() == null ? 0 : r.getUnits();
+            double cost = r.getTotalCost() == null ? 0 : r.getTotalCost();
+            rollupRepository.retract(Granularity.HOUR, at.truncatedTo(ChronoUnit.HOURS), r.getDevice(), r.getCategory(), units, cost);
+            rollupRepository.retract(Granularity.DAY, at.truncatedTo(ChronoUnit.DAYS), r.getDevice(), r.getCategory(), units, cost);
+        });
+    }
+
+    /**
+     * Adds readings in [from, to) (either bound may be null), optionally for one
+     * device, to the store. Whole days come from the daily rollups, whole hours
+     * from the hourly ones and the sub-hour edges from raw rows, or from their
+     * whole hour once raw retention has deleted them; readings not rolled up
+     * yet are added from the raw table. Runs in one read-only transaction so
+     * the watermark and the tables agree.
+     */
+    public void collect(EnergyAggregateStore store, Date from, Date to, String device) {
+        Date rawFrom = retentionDays <= 0 ? null : Date.from(Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+        readOnlyTx.executeWithoutResult(status -> {
+            long watermark = watermark();
+            Date rolledFrom = null, rolledTo = null;
+            boolean rolled = false;
+            for (Span s : plan(from, to, ZoneId.systemDefault(), rawFrom)) {
+                switch (s.source()) {
+                    case RAW -> addRaw(store, s.from(), s.to(), device, 0);
+                    case HOURLY, DAILY -> {
+                        Granularity g = s.source() == Source.DAILY ? Granularity.DAY : Granularity.HOUR;
+                        for (EnergyRollupRepository.Group r : rollupRepository.monthlyGroups(g, s.from(), s.to(), device)) {
+                            store.add(r.device(), r.category(), r.month() - 1, r.readings(), r.units(), r.cost());
+                        }
+                        if (!rolled) rolledFrom = s.from();
+                        rolledTo = s.to();
+                        rolled = true;
+                    }
+                }
+            }
+            if (rolled) addRaw(store, rolledFrom, rolledTo, device, watermark);
+        });
+    }
+
+    /** Units per device in [from, to), from the same rollup routing as collect(). */
+    public Map<String, Double> unitsByDevice(Date from, Date to) {
+        EnergyAggregateStore store = new EnergyAggregateStore();
+        collect(store, from, to, null);
+        return store.unitsByDevice();
+    }
+
+    private void addRaw(EnergyAggregateStore store, Date from, Date to, String device, long afterId) {
+        for (EnergyReadingRepository.MonthlyGroup r : energyRepository.monthlyGroups(from, to, device, afterId)) {
+            int month = r.getMonth() == null ? -1 : r.getMonth() - 1;
+            store.add(r.getDevice(), r.getCategory(), month, r.getReadings(), r.getUnits(), r.getCost());
+        }
+    }
+
+    /**
+     * Splits [from, to) into the coarsest pieces that tile it exactly: raw edges
+     * up to the first and from the last whole hour, hourly pieces up to the
+     * first and from the last whole day, daily in between. A range inside one
+     * hour is read raw.
+     */
+    static List<Span> plan(Date from, Date to, ZoneId zone) {
+        return plan(from, to, zone, null);
+    }
+
+    /**
+     * As plan(from, to, zone), but a raw edge starting before rawFrom (where raw
+     * retention may have deleted the rows) is widened to its whole hours and
+     * read hourly. A null rawFrom keeps every raw edge.
+     */
+    static List<Span> plan(Date from, Date to, ZoneId zone, Date rawFrom) {
+        List<Span> spans = tile(from, to, zone);
+        if (rawFrom == null) return spans;
+        List<Span> out = new ArrayList<>(spans.size());
+        for (Span s : spans) {
+            boolean expired = s.source() == Source.RAW && s.from().before(rawFrom);
+            out.add(expired ? new Span(Source.HOURLY, floor(s.from(), ChronoUnit.HOURS, zone), ceil(s.to(), ChronoUnit.HOURS, zone)) : s);
+        }
+        return out;
+    }
+
+    private static List<Span> tile(Date from, Date to, ZoneId zone) {
+        Date h1 = from == null ? null : ceil(from, ChronoUnit.HOURS, zone);
+        Date h2 = to == null ? null : floor(to, ChronoUnit.HOURS, zone);
+        if (h1 != null && h2 != null && !h1.before(h2)) return List.of(new Span(Source.RAW, from, to));
+
+        List<Span> spans = new ArrayList<>();
+        if (from != null && from.before(h1)) spans.add(new Span(Source.RAW, from, h1));
+        Date d1 = h1 == null ? null : ceil(h1, ChronoUnit.DAYS, zone);
+        Date d2 = h2 == null ? null : floor(h2, ChronoUnit.DAYS, zone);
+        if (d1 != null && d2 != null && !d1.before(d2)) {
+            spans.add(new Span(Source.HOURLY, h1, h2));
+        } else {
+            if (h1 != null && h1.before(d1)) spans.add(new Span(Source.HOURLY, h1, d1));
+            spans.add(new Span(Source.DAILY, d1, d2));
+            if (h2 != null && d2.before(h2)) spans.add(new Span(Source.HOURLY, d2, h2));
+        }
+        if (to != null && h2.before(to)) spans.add(new Span(Source.RAW, h2, to));
+        return spans;
+    }
+
+    private static Date floor(Date t, ChronoUnit unit, ZoneId zone) {
+        return Date.from(t.toInstant().atZone(zone).truncatedTo(unit).toInstant());
+    }
+
+    private static Date ceil(Date t, ChronoUnit unit, ZoneId zone) {
+        ZonedDateTime f = t.toInstant().atZone(zone).truncatedTo(unit);
+        if (!f.toInstant().isBefore(t.toInstant())) return t;
+        ZonedDateTime next = unit == ChronoUnit.DAYS ? f.toLocalDate().plusDays(1).atStartOfDay(zone) : f.plusHours(1);
+        return Date.from(next.toInstant());
+    }
+
+    private EnergyRollupState lockState() {
+        return stateRepository.lockById(EnergyRollupState.ID).orElseGet(() -> stateRepository.save(new EnergyRollupState()));
+    }
+}
@@ -1,74 +1,253 @@
 package com.fairshare.backend.service;
 
+import com.fairshare.backend.model.DeviceOwner;
 import com.fairshare.backend.model.EnergyReading;
+import com.fairshare.backend.repository.DeviceOwnerRepository;
+import com.fairshare.backend.repository.EnergyBatchRepository;
 import com.fairshare.backend.repository.EnergyReadingRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.Month;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class EnergyService {
 
+    public static final int IMPORT_BATCH_SIZE = 1000;
+
     @Autowired
     private EnergyReadingRepository energyRepository;
 
+    @Autowired
+    private EnergyBatchRepository energyBatchRepository;
+
+    @Autowired
+    private EnergyAggregateStore aggregates;
+
+    @Autowired
+    private EnergyIngestPipeline ingestPipeline;
+
+    @Autowired
+    private EnergyArchive archive;
+
+    @Autowired
+    private EnergyRollupService rollups;
+
+    @Autowired
+    private EnergyAnomalyService anomalies;
+
+    @Autowired
+    private DeviceOwnerRepository deviceOwnerRepository;
+
+    // Load the running totals once from the daily rollups plus the readings not
+    // rolled up yet; every write below keeps them current.
+    @PostConstruct
+    public void warmAggregates() {
+        aggregates.reset();
+        rollups.collect(aggregates, null, null, null);
+    }
+
     public EnergyReading saveReading(EnergyReading reading) {
         if (reading.getCreatedAt() == null) {
             reading.setCreatedAt(new Date());
         }
         double totalCost = (reading.getUnits() * reading.getCostPerUnit());
         reading.setTotalCost(totalCost);
-        return energyRepository.save(reading);
+        EnergyReading saved = energyRepository.save(reading);
+        aggregates.add(saved);
+        anomalies.observe(saved);
+        return saved;
+    }
+
+    /**
+     * Streams readings from a CSV, NDJSON or JSON array upload (device, category,
+     * units, costPerUnit, optional createdAt) and writes valid rows in JDBC
+     * batches of IMPORT_BATCH_SIZE, scoring them for anomalies like any other
+     * write. Rejected rows are listed in the report by line number.
+     */
+    public ImportReport importReadings(InputStream in, String format) throws IOException {
+        ImportReport report = new ImportReport();
+        List<EnergyReading> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        List<Long> lines = new ArrayList<>(IMPORT_BATCH_SIZE);
+        try (ImportRowReader reader = new ImportRowReader(in, format)) {
+            for (Map<String, Object> row = reader.next(); row != null; row = reader.next()) {
+                try {
+                    batch.add(parseReadingRow(row));
+                    lines.add(reader.lineNumber());
+                } catch (RuntimeException e) {
+                    report.fail(reader.lineNumber(), e.getMessage());
+                }
+                if (batch.size() == IMPORT_BATCH_SIZE) flushImport(batch, lines, report);
+            }
+        }
+        flushImport(batch, lines, report);
+        return report;
+    }
+
+    private void flushImport(List<EnergyReading> batch, List<Long> lines, ImportReport report) {
+        if (batch.isEmpty()) return;
+        try {
+            energyBatchRepository.insertAll(batch);
+            aggregates.addAll(batch);
+            anomalies.observeAll(batch);
+            report.success(batch.size());
+        } catch (RuntimeException e) {
+            for (long line : lines) report.fail(line, "Batch write failed: " + e.getMessage());
+        }
+        batch.clear();
+        lines.clear();
+    }
+
+    /**
+     * Validates and normalizes a batch from the ingest endpoint (same rules as
+     * import), then hands it to the pipeline. Returns how many were queued;
+     * fewer than readings.size() means the queue is full.
+     */
+    public int ingest(List<EnergyReading> readings) {
+        for (int i = 0; i < readings.size(); i++) {
+            EnergyReading r = readings.get(i);
+            if (r == null || r.getDevice() == null || r.getDevice().isBlank()) {
+                throw new IllegalArgumentException("reading " + i + ": device is required");
+            }
+            if (!isNonNegative(r.getUnits()) || !isNonNegative(r.getCostPerUnit())) {
+                throw new IllegalArgumentException("reading " + i + ": units and costPerUnit must be >= 0");
+            }
+            r.setId(null);
+            r.setTotalCost(r.getUnits() * r.getCostPerUnit());
+            if (r.getCreatedAt() == null) r.setCreatedAt(new Date());
+        }
+        return ingestPipeline.offer(readings);
+    }
+
+    public boolean isIngestRunning() {
+        return ingestPipeline.isRunning();
+    }
+
+    public EnergyIngestPipeline.Stats getIngestStats() {
+        return ingestPipeline.stats();
+    }
+
+    private static boolean isNonNegative(Double v) {
+        return v != null && v >= 0 && !v.isInfinite();
+    }
+
+    private static EnergyReading parseReadingRow(Map<String, Object> row) {
+        if (row.containsKey(ImportRowReader.ERROR)) throw new IllegalArgumentException(ImportRowReader.text(row, ImportRowReader.ERROR));
+        String device = ImportRowReader.text(row, "device");
+        if (device == null || device.isBlank()) throw new IllegalArgumentException("device is required");
+
+        EnergyReading r = new EnergyReading();
+        r.setDevice(device);
+        r.setCategory(ImportRowReader.text(row, "category"));
+        r.setUnits(parseNonNegative(row, "units"));
+        r.setCostPerUnit(parseNonNegative(row, "costPerUnit"));
+        r.setTotalCost(r.getUnits() * r.getCostPerUnit());
+        String createdAt = ImportRowReader.text(row, "createdAt");
+        r.setCreatedAt(createdAt == null ? new Date() : parseDate(createdAt));
+        return r;
+    }
+
+    private static double parseNonNegative(Map<String, Object> row, String field) {
+        String text = ImportRowReader.text(row, field);
+        if (text == null) throw new IllegalArgumentException(field + " is required");
+        double v;
+        try {
+            v = Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " must be a number");
+        }
+        if (!(v >= 0) || Double.isInfinite(v)) throw new IllegalArgumentException(field + " must be >= 0");
+        return v;
+    }
+
+    // accepts an instant (2025-01-31T10:00:00Z), a local date-time or a plain date
+    public static Date parseDate(String text) {
+        try {
+            return Date.from(Instant.parse(text));
+        } catch (DateTimeParseException ignored) { }
+        try {
+            return Date.from(LocalDateTime.parse(text).atZone(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException ignored) { }
+        try {
+            return Date.from(LocalDate.parse(text).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("createdAt must be an ISO date or date-time");
+        }
     }
 
     public List<EnergyReading> getAllReadings() {
         return energyRepository.findAll();
     }
 
+    /**
+     * Writes readings in [from, to) (any filter may be null) as CSV or NDJSON in
+     * the import column layout, row by row from a streamed query. Returns the row count.
+     */
+    @Transactional(readOnly = true)
+    public long exportReadings(OutputStream out, String format, Date from, Date to, String device) {
+        try (Stream<EnergyReadingRepository.ExportRow> rows = energyRepository.streamForExport(from, to, device);
+             ExportWriter writer = new ExportWriter(out, format,
+                     "id", "device", "category", "units", "costPerUnit", "totalCost", "createdAt")) {
+            rows.forEach(r -> writer.row(r.getId(), r.getDevice(), r.getCategory(), r.getUnits(),
+                    r.getCostPerUnit(), r.getTotalCost(), r.getCreatedAt()));
+            return writer.rows();
+        }
+    }
+
     public void deleteReading(Long id) {
-        energyRepository.deleteById(id);
+        energyRepository.findById(id).ifPresent(r -> {
+            rollups.delete(r);
+            aggregates.remove(r);
+        });
     }
 
+    /** Unfiltered analytics, served from the in-memory aggregates. */
     public Map<String, Object> getAnalytics() {
-        List<EnergyReading> readings = energyRepository.findAll();
-
-        double totalUnits = readings.stream()
-                .mapToDouble(r -> Optional.ofNullable(r.getUnits()).orElse(0.0))
-                .sum();
-
-        double totalCost = readings.stream()
-                .mapToDouble(r -> Optional.ofNullable(r.getTotalCost()).orElse(0.0))
-                .sum();
-
-        double avgUnits = readings.isEmpty() ? 0 : totalUnits / readings.size();
-        double avgCost = readings.isEmpty() ? 0 : totalCost / readings.size();
-
-        Map<String, Double> monthlyConsumption = readings.stream()
-                .filter(r -> r.getCreatedAt() != null)
-                .collect(Collectors.groupingBy(
-                        r -> {
-                            LocalDate date = r.getCreatedAt().toInstant()
-                                    .atZone(ZoneId.systemDefault()).toLocalDate();
-                            Month month = date.getMonth();
-                            return month.name().substring(0, 3);
-                        },
-                        LinkedHashMap::new,
-                        Collectors.summingDouble(r -> Optional.ofNullable(r.getUnits()).orElse(0.0))
-                ));
-
-        Map<String, Object> analytics = new LinkedHashMap<>();
-        analytics.put("totalReadings", readings.size());
-        analytics.put("totalUnits", totalUnits);
-        analytics.put("totalCost", totalCost);
-        analytics.put("avgUnits", avgUnits);
-        analytics.put("avgCost", avgCost);
-        analytics.put("monthlyConsumption", monthlyConsumption);
-
-        return analytics;
+        return aggregates.analytics();
+    }
+
+    /**
+     * Totals, averages and monthly/device/category breakdowns, read from the
+     * coarsest rollups that cover the range and merged in a throwaway store.
+     * from is inclusive, to exclusive; any filter may be null.
+     */
+    public Map<String, Object> getAnalytics(Date from, Date to, String device) {
+        EnergyAggregateStore result = new EnergyAggregateStore();
+        rollups.collect(result, from, to, device);
+        return result.analytics();
+    }
+
+    public List<DeviceOwner> getDeviceOwners() {
+        return deviceOwnerRepository.findAll();
+    }
+
+    /** Attributes a device to a member for usage-based bill splits (replaces any previous owner). */
+    public DeviceOwner setDeviceOwner(String device, String member) {
+        if (member == null || member.isBlank()) throw new IllegalArgumentException("member is required");
+        return deviceOwnerRepository.save(new DeviceOwner(device, member));
+    }
+
+    public void removeDeviceOwner(String device) {
+        deviceOwnerRepository.deleteById(device);
+    }
+
+    /** Moves old readings to the archive now instead of waiting for the nightly run. */
+    public long archiveOldReadings() {
+        return archive.archiveOld();
+    }
+
+    public EnergyArchive.Stats getArchiveStats() {
+        return archive.stats();
     }
 }
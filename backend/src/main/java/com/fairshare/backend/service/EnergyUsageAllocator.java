@@ -0,0 +1,78 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.DeviceOwner;
+import com.fairshare.backend.repository.DeviceOwnerRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Turns metered usage over a bill period into split weights: each member's
+ * own devices, plus an equal share of devices that are unowned or owned by
+ * someone outside the bill. Usage comes from the rollup tables (one grouped
+ * query for whole-day periods), never from a scan of raw readings.
+ */
+@Service
+public class EnergyUsageAllocator {
+
+    /** Weights are milli-units so FairSplitDP can split the bill in exact cents. */
+    static final double WEIGHT_SCALE = 1000;
+
+    public record Allocation(LocalDate from, LocalDate to, List<String> members, long[] weights,
+                             Map<String, Double> unitsByMember, double sharedUnits) { }
+
+    private final EnergyRollupService rollups;
+    private final DeviceOwnerRepository ownerRepository;
+
+    public EnergyUsageAllocator(EnergyRollupService rollups, DeviceOwnerRepository ownerRepository) {
+        this.rollups = rollups;
+        this.ownerRepository = ownerRepository;
+    }
+
+    /** The usage period for a bill due on dueDate: the whole calendar month before it. */
+    public static LocalDate[] defaultPeriod(LocalDate dueDate) {
+        LocalDate to = dueDate.withDayOfMonth(1);
+        return new LocalDate[]{to.minusMonths(1), to};
+    }
+
+    /**
+     * Usage in [from, to) split among members; with no members given, everyone
+     * who owns a device. Weights line up with members and are all equal when
+     * nothing was metered.
+     */
+    public Allocation allocate(List<String> members, LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) throw new IllegalArgumentException("usage period must end after it starts");
+        Map<String, String> owners = new HashMap<>();
+        for (DeviceOwner o : ownerRepository.findAll()) owners.put(o.getDevice(), o.getMember());
+        if (members == null || members.isEmpty()) members = new ArrayList<>(new TreeSet<>(owners.values()));
+        if (members.isEmpty()) throw new IllegalArgumentException("no members: pass members or assign device owners");
+
+        ZoneId zone = ZoneId.systemDefault();
+        Map<String, Double> usage = rollups.unitsByDevice(Date.from(from.atStartOfDay(zone).toInstant()),
+                Date.from(to.atStartOfDay(zone).toInstant()));
+
+        Map<String, Double> own = new LinkedHashMap<>();
+        for (String m : members) own.put(m, 0.0);
+        double shared = 0;
+        for (Map.Entry<String, Double> e : usage.entrySet()) {
+            String owner = owners.get(e.getKey());
+            if (owner != null && own.containsKey(owner)) own.merge(owner, e.getValue(), Double::sum);
+            else shared += e.getValue();
+        }
+
+        double perMember = shared / members.size();
+        long[] weights = new long[members.size()];
+        long total = 0;
+        Map<String, Double> unitsByMember = new LinkedHashMap<>();
+        for (int i = 0; i < weights.length; i++) {
+            double units = own.get(members.get(i)) + perMember;
+            unitsByMember.put(members.get(i), units);
+            weights[i] = Math.max(0, Math.round(units * WEIGHT_SCALE));
+            total += weights[i];
+        }
+        if (total == 0) Arrays.fill(weights, 1);
+        return new Allocation(from, to, List.copyOf(members), weights, unitsByMember, shared);
+    }
+}
@@ -0,0 +1,125 @@
+package com.fairshare.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.http.MediaType;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+
+/**
+ * Writes export rows as CSV (header row, RFC 4180 quoting) or NDJSON (one
+ * object per line) straight to the response through a small buffer, so an
+ * export never holds more than one row. The output of an energy export reads
+ * back through ImportRowReader; dates are ISO strings, nulls empty / null.
+ */
+public class ExportWriter implements AutoCloseable {
+
+    private static final JsonFactory JSON = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final Writer out;
+    private final JsonGenerator json; // null for CSV
+    private final String[] columns;
+    private long rows;
+
+    public ExportWriter(OutputStream out, String format, String... columns) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.columns = columns;
+        try {
+            if (ImportRowReader.isNdjson(format)) {
+                json = JSON.createGenerator(this.out);
+                json.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                json = null;
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) this.out.write(',');
+                    this.out.write(columns[i]);
+                }
+                this.out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static MediaType mediaType(String format) {
+        return ImportRowReader.isNdjson(format) ? MediaType.parseMediaType("application/x-ndjson")
+                : MediaType.parseMediaType("text/csv;charset=UTF-8");
+    }
+
+    /** Download file name for an export of the given kind, e.g. "bills.csv". */
+    public static String fileName(String name, String format) {
+        return name + (ImportRowReader.isNdjson(format) ? ".ndjson" : ".csv");
+    }
+
+    /** Writes one row; values line up with the columns given to the constructor. */
+    public void row(Object... values) {
+        try {
+            if (json != null) writeJson(values);
+            else writeCsv(values);
+            rows++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    private void writeJson(Object[] values) throws IOException {
+        json.writeStartObject();
+        for (int i = 0; i < columns.length; i++) {
+            json.writeFieldName(columns[i]);
+            Object v = values[i];
+            if (v == null) json.writeNull();
+            else if (v instanceof BigDecimal d) json.writeNumber(d);
+            else if (v instanceof Long || v instanceof Integer) json.writeNumber(((Number) v).longValue());
+            else if (v instanceof Number n) json.writeNumber(n.doubleValue());
+            else if (v instanceof Boolean b) json.writeBoolean(b);
+            else json.writeString(text(v));
+        }
+        json.writeEndObject();
+    }
+
+    private void writeCsv(Object[] values) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) out.write(',');
+            if (values[i] == null) continue;
+            String s = text(values[i]);
+            if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(s.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(s);
+            }
+        }
+        out.write('\n');
+    }
+
+    private static String text(Object v) {
+        if (v instanceof Date d) return d.toInstant().toString();
+        if (v instanceof BigDecimal d) return d.toPlainString();
+        if (v instanceof TemporalAccessor) return v.toString();
+        return String.valueOf(v);
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (json != null) {
+                if (rows > 0) json.writeRaw('\n');
+                json.flush();
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
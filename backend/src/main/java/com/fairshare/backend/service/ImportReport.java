@@ -0,0 +1,33 @@
+package com.fairshare.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many rows were written and why the others
+ * were rejected (line numbers refer to the uploaded file). Only the first
+ * MAX_ERRORS rejections are listed; failed always has the full count.
+ */
+public class ImportReport {
+
+    public static final int MAX_ERRORS = 1000;
+
+    public record RowError(long line, String error) { }
+
+    private long imported;
+    private long failed;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void success(int rows) {
+        imported += rows;
+    }
+
+    public void fail(long line, String error) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) errors.add(new RowError(line, error));
+    }
+
+    public long getImported() { return imported; }
+    public long getFailed() { return failed; }
+    public List<RowError> getErrors() { return errors; }
+}
@@ -0,0 +1,213 @@
+package com.fairshare.backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads an upload one line at a time, so an import never holds more than the
+ * current row in memory.
+ *
+ * - csv: the first line is the header; fields may be double-quoted ("" escapes a quote),
+ *   and a quoted field may span lines (each line break reads back as '\n').
+ *   List columns (members, weights, caps) are ';'-separated inside one field.
+ * - ndjson: one JSON object per line (?format=ndjson|jsonl, or an NDJSON/JSON Lines content type).
+ * - json: a single JSON array of objects, read element by element with a streaming parser.
+ *
+ * Blank lines are skipped. A row that cannot be parsed is returned with an "_error" key;
+ * for json that is also where reading stops, since the rest of the array cannot be trusted.
+ */
+public class ImportRowReader implements AutoCloseable {
+
+    public static final String ERROR = "_error";
+    // A quoted field still open after this many characters is taken to be unterminated
+    private static final int MAX_RECORD_CHARS = 1 << 20;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> ROW = new TypeReference<>() {};
+
+    private static final Set<String> NDJSON = Set.of(
+            "ndjson", "jsonl", "application/x-ndjson", "application/ndjson", "application/jsonl", "application/x-jsonlines");
+    private static final Set<String> JSON = Set.of("json", "application/json");
+
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final JsonParser array; // json only
+    private boolean arrayDone;
+    private List<String> header;
+    private long line;
+    private long spanned; // lines after the first one of the last row, counted before the next
+
+    public ImportRowReader(InputStream in, String format) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.array = isJson(format) ? MAPPER.createParser(reader) : null;
+        this.csv = array == null && !isNdjson(format);
+    }
+
+    /** A ?format value or Content-Type naming newline-delimited JSON; parameters such as charset are ignored. */
+    public static boolean isNdjson(String format) {
+        return NDJSON.contains(baseType(format));
+    }
+
+    /** A ?format value or Content-Type naming plain JSON, i.e. one array of rows. */
+    public static boolean isJson(String format) {
+        return JSON.contains(baseType(format));
+    }
+
+    private static String baseType(String format) {
+        if (format == null) return "";
+        int semi = format.indexOf(';');
+        return (semi < 0 ? format : format.substring(0, semi)).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Line number of the row last returned by next(); for a json array, the element number. */
+    public long lineNumber() {
+        return line;
+    }
+
+    /** The next row, or null at end of input. */
+    public Map<String, Object> next() throws IOException {
+        if (array != null) return nextElement();
+        String text;
+        line += spanned;
+        spanned = 0;
+        do {
+            text = reader.readLine();
+            if (text == null) return null;
+            line++;
+        } while (text.isBlank());
+
+        if (!csv) {
+            if (text.trim().startsWith("[")) return Map.of(ERROR, "Expected one JSON object per line, not an array");
+            try {
+                return MAPPER.readValue(text, ROW);
+            } catch (IOException e) {
+                return Map.of(ERROR, "Invalid JSON");
+            }
+        }
+
+        int quotes = quotes(text);
+        if (quotes % 2 != 0) {
+            // a quoted field runs over the line break: read on until it closes
+            StringBuilder record = new StringBuilder(text);
+            while (quotes % 2 != 0) {
+                String more = reader.readLine();
+                if (more == null || record.length() > MAX_RECORD_CHARS) {
+                    return Map.of(ERROR, "Unterminated quoted field");
+                }
+                spanned++;
+                record.append('\n').append(more);
+                quotes += quotes(more);
+            }
+            text = record.toString();
+        }
+
+        if (header == null) {
+            header = parseCsvLine(text);
+            return next();
+        }
+        List<String> fields = parseCsvLine(text);
+        if (fields.size() > header.size()) return Map.of(ERROR, "Too many columns");
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            String value = fields.get(i).trim();
+            if (!value.isEmpty()) row.put(header.get(i).trim(), value);
+        }
+        return row;
+    }
+
+    private Map<String, Object> nextElement() {
+        if (arrayDone) return null;
+        try {
+            if (line == 0 && array.currentToken() == null) {
+                JsonToken first = array.nextToken();
+                if (first == null) return done(null);
+                if (first != JsonToken.START_ARRAY) return done(Map.of(ERROR, "Expected a JSON array of objects"));
+            }
+            JsonToken t = array.nextToken();
+            if (t == null || t == JsonToken.END_ARRAY) return done(null);
+            line++;
+            if (t != JsonToken.START_OBJECT) {
+                array.skipChildren();
+                return Map.of(ERROR, "Expected a JSON object");
+            }
+            return array.readValueAs(ROW);
+        } catch (IOException e) {
+            return done(Map.of(ERROR, "Invalid JSON"));
+        }
+    }
+
+    private Map<String, Object> done(Map<String, Object> last) {
+        arrayDone = true;
+        if (last != null) line++;
+        return last;
+    }
+
+    // "" inside a quoted field counts twice, so an odd count means a quote is still open
+    private static int quotes(String text) {
+        int n = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') n++;
+        }
+        return n;
+    }
+
+    static List<String> parseCsvLine(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') { cur.append('"'); i++; }
+                else if (c == '"') quoted = false;
+                else cur.append(c);
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        fields.add(cur.toString());
+        return fields;
+    }
+
+    /** List column: a JSON array as-is, or a ';'-separated CSV field. */
+    public static List<String> toList(Object value) {
+        if (value == null) return null;
+        List<String> out = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            for (Object o : list) out.add(o == null ? null : String.valueOf(o));
+        } else {
+            for (String s : String.valueOf(value).split(";")) out.add(s.trim().isEmpty() ? null : s.trim());
+        }
+        return out;
+    }
+
+    public static String text(Map<String, Object> row, String key) {
+        Object v = row.get(key);
+        return v == null ? null : String.valueOf(v);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (array != null) array.close();
+        reader.close();
+    }
+}
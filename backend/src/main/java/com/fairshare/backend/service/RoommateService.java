@@ -2,16 +2,27 @@ package com.fairshare.backend.service;
 
 import com.fairshare.backend.model.Roommate;
 import com.fairshare.backend.repository.RoommateRepository;
-import com.fairshare.backend.dsa.tree.AVLTree;
+import com.fairshare.backend.dsa.tree.Leaderboard.Ranked;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.util.*;
 
 @Service
 public class RoommateService {
     private final RoommateRepository repo;
+    // In memory it is kept current by add/delete, so roommates must be written through this service
+    private final BehaviorRanking<Roommate> ranking;
 
-    public RoommateService(RoommateRepository repo) {
+    public RoommateService(RoommateRepository repo,
+                           @Value("${fairshare.leaderboard.in-memory:true}") boolean inMemoryRanking) {
         this.repo = repo;
+        this.ranking = new BehaviorRanking<>(repo, inMemoryRanking);
+    }
+
+    @PostConstruct
+    public void loadLeaderboard() {
+        ranking.load();
     }
 
     public List<Roommate> getAll() {
@@ -20,32 +31,39 @@ public class RoommateService {
 
     public Roommate add(Roommate r) {
         r.calculateBehaviorScore();
-        return repo.save(r);
+        Roommate saved = repo.save(r);
+        ranking.put(saved);
+        return saved;
+    }
+
+    public boolean exists(UUID id) {
+        return repo.existsById(id);
     }
 
     public void delete(UUID id) {
         repo.deleteById(id);
+        ranking.remove(id);
     }
 
     /**
-     * ✅ Use AVL Tree for Sorted Order
+     * ✅ Ascending order by behavior score
      */
     public List<Roommate> getSortedByBehavior() {
-        AVLTree<Roommate> tree = new AVLTree<>();
-        repo.findAll().forEach(tree::insert);
-        return tree.inOrder(); // returns ascending order by behavior score
+        return ranking.ascending();
     }
 
     /**
-     * ✅ Use Max Heap to get Top N Roommates by Behavior Score
+     * ✅ Top N Roommates by Behavior Score, O(N) rows or entries
      */
     public List<Roommate> getTopPerformers(int n) {
-        PriorityQueue<Roommate> maxHeap =
-                new PriorityQueue<>((a, b) -> Double.compare(b.getBehaviorScore(), a.getBehaviorScore()));
-        maxHeap.addAll(repo.findAll());
+        return ranking.top(n);
+    }
+
+    public List<Ranked<Roommate>> getLeaderboard(int page, int size, Double afterKey, UUID afterId, Integer afterRank) {
+        return ranking.leaderboard(page, size, afterKey, afterId, afterRank);
+    }
 
-        List<Roommate> top = new ArrayList<>();
-        for (int i = 0; i < n && !maxHeap.isEmpty(); i++) top.add(maxHeap.poll());
-        return top;
+    public Optional<Ranked<Roommate>> getRank(UUID id) {
+        return ranking.rank(id);
     }
 }
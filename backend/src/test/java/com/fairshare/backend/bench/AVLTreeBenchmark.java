@@ -0,0 +1,104 @@
+package com.fairshare.backend.bench;
+
+import com.fairshare.backend.dsa.tree.AVLTree;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AVLTree against TreeMap on the leaderboard workload: random inserts, bulk
+ * load of sorted keys, rank/select (TreeMap has to walk a headMap) and
+ * bounded range scans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AVLTreeBenchmark {
+
+    @Param({"1000", "100000"})
+    int n;
+
+    private Long[] shuffled;
+    private List<Long> sorted;
+    private TreeMap<Long, Long> sortedMap;
+    private AVLTree<Long> tree;
+    private TreeMap<Long, Long> map;
+    private long[] probes;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(13);
+        shuffled = new Long[n];
+        for (int i = 0; i < n; i++) shuffled[i] = (long) i * 2;
+        Collections.shuffle(Arrays.asList(shuffled), rnd);
+        sorted = new ArrayList<>(Arrays.asList(shuffled));
+        Collections.sort(sorted);
+        sortedMap = new TreeMap<>();
+        for (Long k : sorted) sortedMap.put(k, k);
+
+        tree = AVLTree.fromSorted(sorted);
+        map = new TreeMap<>(sortedMap);
+        probes = new long[256];
+        for (int i = 0; i < probes.length; i++) probes[i] = rnd.nextInt(2 * n);
+    }
+
+    @Benchmark
+    public AVLTree<Long> avlInsertRandom() {
+        AVLTree<Long> t = new AVLTree<>();
+        for (Long k : shuffled) t.insert(k);
+        return t;
+    }
+
+    @Benchmark
+    public TreeMap<Long, Long> treeMapInsertRandom() {
+        TreeMap<Long, Long> m = new TreeMap<>();
+        for (Long k : shuffled) m.put(k, k);
+        return m;
+    }
+
+    @Benchmark
+    public AVLTree<Long> avlBulkBuild() {
+        return AVLTree.fromSorted(sorted);
+    }
+
+    @Benchmark
+    public TreeMap<Long, Long> treeMapBulkBuild() {
+        return new TreeMap<>(sortedMap); // buildFromSorted, also O(n)
+    }
+
+    @Benchmark
+    public void avlRankSelect(Blackhole bh) {
+        for (long p : probes) {
+            int rank = tree.rank(p);
+            bh.consume(rank);
+            bh.consume(tree.select(Math.min(rank, n - 1)));
+        }
+    }
+
+    @Benchmark
+    public void treeMapRankSelect(Blackhole bh) {
+        for (long p : probes) {
+            int rank = map.headMap(p).size(); // O(rank): the view has no size index
+            bh.consume(rank);
+            Iterator<Long> it = map.keySet().iterator();
+            for (int i = 0; i < Math.min(rank, n - 1); i++) it.next();
+            bh.consume(it.next());
+        }
+    }
+
+    @Benchmark
+    public long avlRange100() {
+        long sum = 0;
+        for (long p : probes) for (Long k : tree.range(p, p + 200)) sum += k;
+        return sum;
+    }
+
+    @Benchmark
+    public long treeMapRange100() {
+        long sum = 0;
+        for (long p : probes) for (Long k : map.subMap(p, p + 200).keySet()) sum += k;
+        return sum;
+    }
+}
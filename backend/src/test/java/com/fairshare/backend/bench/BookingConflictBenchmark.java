@@ -0,0 +1,98 @@
+package com.fairshare.backend.bench;
+
+import com.fairshare.backend.dsa.graph.GraphColoring;
+import com.fairshare.backend.dsa.tree.IntervalTree;
+import com.fairshare.backend.model.Booking;
+import com.fairshare.backend.service.BookingIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflict check for one busy resource: the old BookingService.hasConflict
+ * path (findByResourceId, map every row, then a linear scan) vs. the
+ * interval tree index.
+ *
+ * The old path runs against in-memory H2 with the booking table as it was
+ * (optionally with the later resource_id index), so it has no network
+ * round trip and understates what MySQL costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookingConflictBenchmark {
+
+    @Param({"1000", "10000"})
+    int bookings;
+
+    @Param({"false", "true"})
+    boolean resourceIndex;
+
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private Connection db;
+    private PreparedStatement byResource;
+    private IntervalTree tree;
+
+    @Setup
+    public void setup() throws SQLException {
+        db = DriverManager.getConnection("jdbc:h2:mem:conflict_" + bookings + "_" + resourceIndex);
+        try (Statement st = db.createStatement()) {
+            st.execute("CREATE TABLE booking (id BIGINT PRIMARY KEY, resource_id BIGINT, start_time TIMESTAMP(6), "
+                    + "end_time TIMESTAMP(6), status VARCHAR(255))");
+            if (resourceIndex) st.execute("CREATE INDEX idx_booking_resource_start ON booking (resource_id, start_time)");
+        }
+        tree = new IntervalTree();
+        try (PreparedStatement ins = db.prepareStatement("INSERT INTO booking VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < bookings; i++) {
+                // one-hour slot every three hours
+                LocalDateTime start = base.plusHours(3L * i);
+                ins.setLong(1, i);
+                ins.setLong(2, 1L);
+                ins.setTimestamp(3, Timestamp.valueOf(start));
+                ins.setTimestamp(4, Timestamp.valueOf(start.plusHours(1)));
+                ins.setString(5, "pending");
+                ins.addBatch();
+                tree.insert(BookingIndex.toKey(start), BookingIndex.toKey(start.plusHours(1)), i);
+            }
+            ins.executeBatch();
+        }
+        byResource = db.prepareStatement(
+                "SELECT id, resource_id, start_time, end_time, status FROM booking WHERE resource_id = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        db.close();
+    }
+
+    private LocalDateTime probe() {
+        return base.plusMinutes(ThreadLocalRandom.current().nextLong(3L * 60 * bookings));
+    }
+
+    @Benchmark
+    public boolean findByResourceIdScan() throws SQLException {
+        LocalDateTime start = probe();
+        List<Booking> existing = new ArrayList<>();
+        byResource.setLong(1, 1L);
+        try (ResultSet rs = byResource.executeQuery()) {
+            while (rs.next()) {
+                Booking b = Booking.builder().id(rs.getLong(1)).resourceId(rs.getLong(2))
+                        .startTime(rs.getTimestamp(3).toLocalDateTime()).endTime(rs.getTimestamp(4).toLocalDateTime())
+                        .status(rs.getString(5)).build();
+                if (!"cancelled".equalsIgnoreCase(b.getStatus())) existing.add(b);
+            }
+        }
+        return GraphColoring.isConflict(existing, start, start.plusMinutes(45));
+    }
+
+    @Benchmark
+    public boolean intervalTree() {
+        LocalDateTime start = probe();
+        return tree.overlaps(BookingIndex.toKey(start), BookingIndex.toKey(start.plusMinutes(45)));
+    }
+}
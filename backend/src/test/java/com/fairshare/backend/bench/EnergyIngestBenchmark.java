@@ -0,0 +1,64 @@
+package com.fairshare.backend.bench;
+
+import com.fairshare.backend.model.EnergyReading;
+import com.fairshare.backend.service.EnergyIngestPipeline;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustained readings/second through the ingest pipeline (queue hand-off,
+ * draining and batching) with a no-op sink, i.e. the ceiling before JDBC.
+ * Producers that hit a full queue resend the rest, as a client would after a 429.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EnergyIngestBenchmark {
+
+    private static final int REQUEST_SIZE = 100;
+
+    @Param({"1000"})
+    int batchSize;
+
+    private EnergyIngestPipeline pipeline;
+    private List<EnergyReading> request;
+
+    @Setup
+    public void setup() {
+        pipeline = new EnergyIngestPipeline(batch -> { }, 50_000, batchSize, 200);
+        pipeline.start();
+        request = new ArrayList<>(REQUEST_SIZE);
+        for (int i = 0; i < REQUEST_SIZE; i++) {
+            EnergyReading r = new EnergyReading();
+            r.setDevice("plug-" + (i % 8));
+            r.setUnits(0.01 * i);
+            r.setCostPerUnit(0.2);
+            r.setCreatedAt(new Date());
+            request.add(r);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.stop();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(REQUEST_SIZE)
+    public int ingest() {
+        List<EnergyReading> rest = request;
+        int total = 0;
+        while (!rest.isEmpty()) {
+            int n = pipeline.offer(rest);
+            total += n;
+            rest = rest.subList(n, rest.size());
+            if (!rest.isEmpty()) Thread.onSpinWait();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,79 @@
+package com.fairshare.backend.bench;
+
+import com.fairshare.backend.dsa.dp.FairSplitDP;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting a batch of bills: the original per-share BigDecimal arithmetic
+ * (copied here verbatim) vs. the long-cents engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FairSplitBenchmark {
+
+    @Param({"4"})
+    int members;
+
+    @Param({"1000", "10000"})
+    int bills;
+
+    private BigDecimal[] amounts;
+    private long[] cents, out, weights;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(11);
+        amounts = new BigDecimal[bills];
+        cents = new long[bills];
+        for (int i = 0; i < bills; i++) {
+            cents[i] = 100 + rnd.nextInt(500_000);
+            amounts[i] = BigDecimal.valueOf(cents[i], 2);
+        }
+        out = new long[bills * members];
+        weights = new long[members];
+        for (int i = 0; i < members; i++) weights[i] = 1 + i;
+    }
+
+    static List<BigDecimal> legacySplit(BigDecimal total, int n) {
+        total = total.setScale(2, RoundingMode.HALF_UP);
+        BigDecimal[] divRem = total.multiply(BigDecimal.valueOf(100)).divideAndRemainder(BigDecimal.valueOf(n));
+        int baseCents = divRem[0].intValue();
+        int remainder = divRem[1].intValue();
+        List<BigDecimal> result = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int c = baseCents + (i < remainder ? 1 : 0);
+            result.add(BigDecimal.valueOf(c).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void legacyBigDecimal(Blackhole bh) {
+        for (BigDecimal a : amounts) bh.consume(legacySplit(a, members));
+    }
+
+    @Benchmark
+    public long[] centsEqualBulk() {
+        FairSplitDP.splitAll(cents, members, out);
+        return out;
+    }
+
+    @Benchmark
+    public long[] centsWeighted() {
+        long[] share = new long[members];
+        for (int b = 0; b < cents.length; b++) {
+            FairSplitDP.splitWeightedInto(cents[b], weights, share);
+            System.arraycopy(share, 0, out, b * members, members);
+        }
+        return out;
+    }
+}
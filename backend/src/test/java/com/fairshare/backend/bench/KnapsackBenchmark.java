@@ -0,0 +1,66 @@
+package com.fairshare.backend.bench;
+
+import com.fairshare.backend.dsa.dp.KnapsackEnergyDP;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling 1-D knapsack with bit reconstruction against the previous full
+ * (n+1)x(C+1) table, for household-sized device lists and budgets in
+ * milli-units (10 kWh = 10,000; 100 kWh = 100,000).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KnapsackBenchmark {
+
+    @Param({"50", "200"})
+    int n;
+
+    @Param({"10000", "100000"})
+    int capacity;
+
+    private int[] weights, values;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(11);
+        weights = new int[n];
+        values = new int[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = 50 + rnd.nextInt(capacity / 10);
+            values[i] = 1 + rnd.nextInt(500);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> rolling() {
+        return KnapsackEnergyDP.solve(weights, values, capacity);
+    }
+
+    @Benchmark
+    public List<Integer> fullTable() {
+        int[][] dp = new int[n + 1][capacity + 1];
+        for (int i = 1; i <= n; i++) {
+            int w = weights[i - 1];
+            int v = values[i - 1];
+            for (int c = 0; c <= capacity; c++) {
+                dp[i][c] = dp[i - 1][c];
+                if (w <= c) dp[i][c] = Math.max(dp[i][c], dp[i - 1][c - w] + v);
+            }
+        }
+        List<Integer> chosen = new ArrayList<>();
+        int c = capacity;
+        for (int i = n; i >= 1; i--) {
+            if (dp[i][c] != dp[i - 1][c]) {
+                chosen.add(i - 1);
+                c -= weights[i - 1];
+            }
+        }
+        return chosen;
+    }
+}
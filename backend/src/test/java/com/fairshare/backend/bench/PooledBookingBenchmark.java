@@ -0,0 +1,57 @@
+package com.fairshare.backend.bench;
+
+import com.fairshare.backend.dsa.graph.GraphColoring;
+import com.fairshare.backend.dsa.tree.IntervalTree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assigning one batch of "any machine" requests to a pool of resources,
+ * each of which already carries its own bookings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PooledBookingBenchmark {
+
+    @Param({"1000", "5000"})
+    int requests;
+
+    @Param({"4", "16"})
+    int resources;
+
+    private long[] starts, ends;
+    private IntervalTree[] existing;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(42);
+        long week = 7L * 24 * 3600;
+        starts = new long[requests];
+        ends = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            starts[i] = rnd.nextLong(week);
+            ends[i] = starts[i] + 1800 + rnd.nextInt(5400); // 30 min .. 2 h
+        }
+        existing = new IntervalTree[resources];
+        for (int r = 0; r < resources; r++) {
+            existing[r] = new IntervalTree();
+            for (int k = 0; k < 200; k++) {
+                long s = rnd.nextLong(week);
+                existing[r].insert(s, s + 3600, k);
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] colorWithoutExisting() {
+        return GraphColoring.colorIntervals(starts, ends, resources, null);
+    }
+
+    @Benchmark
+    public int[] colorAgainstExisting() {
+        return GraphColoring.colorIntervals(starts, ends, resources, (c, s, e) -> !existing[c].overlaps(s, e));
+    }
+}
@@ -0,0 +1,54 @@
+package com.fairshare.backend.bench;
+
+import com.fairshare.backend.dsa.heap.CashFlowMinimizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Netting every open split of a household and reducing it to transfers,
+ * i.e. the in-JVM part of BillService.getSettlements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SettlementBenchmark {
+
+    @Param({"10", "100"})
+    int members;
+
+    @Param({"1000", "10000"})
+    int bills;
+
+    private String[] debtor, creditor;
+    private long[] cents;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(7);
+        int splitsPerBill = Math.min(members, 4);
+        int n = bills * splitsPerBill;
+        debtor = new String[n];
+        creditor = new String[n];
+        cents = new long[n];
+        for (int i = 0; i < n; i++) {
+            creditor[i] = "member" + rnd.nextInt(members);
+            debtor[i] = "member" + rnd.nextInt(members);
+            cents[i] = 100 + rnd.nextInt(20_000);
+        }
+    }
+
+    @Benchmark
+    public List<CashFlowMinimizer.Transfer> netAndSettle() {
+        Map<String, Long> net = new HashMap<>();
+        for (int i = 0; i < cents.length; i++) {
+            net.merge(creditor[i], cents[i], Long::sum);
+            net.merge(debtor[i], -cents[i], Long::sum);
+        }
+        return CashFlowMinimizer.settle(net);
+    }
+}
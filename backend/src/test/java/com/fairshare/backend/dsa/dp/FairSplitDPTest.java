@@ -0,0 +1,142 @@
+package com.fairshare.backend.dsa.dp;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairSplitDPTest {
+
+    // The BigDecimal engine FairSplitDP replaced, kept verbatim as the reference
+    private static List<BigDecimal> legacySplit(BigDecimal total, int n) {
+        if (n <= 0) throw new IllegalArgumentException("split count must be > 0");
+        total = total.setScale(2, RoundingMode.HALF_UP);
+
+        BigDecimal[] divRem = total.multiply(BigDecimal.valueOf(100)).divideAndRemainder(BigDecimal.valueOf(n));
+        int baseCents = divRem[0].intValue();
+        int remainder = divRem[1].intValue();
+
+        List<BigDecimal> result = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int cents = baseCents + (i < remainder ? 1 : 0);
+            result.add(BigDecimal.valueOf(cents).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP));
+        }
+        return result;
+    }
+
+    // Exact largest-remainder split in BigDecimal: floor of total * w / sum, then one cent
+    // each to the largest fractional parts, ties to the lower index
+    private static long[] referenceWeighted(long total, long[] weights) {
+        BigDecimal sum = BigDecimal.valueOf(Arrays.stream(weights).sum());
+        int n = weights.length;
+        long[] out = new long[n];
+        BigDecimal[] frac = new BigDecimal[n];
+        long assigned = 0;
+        for (int i = 0; i < n; i++) {
+            BigDecimal exact = BigDecimal.valueOf(total).multiply(BigDecimal.valueOf(weights[i])).divide(sum, 20, RoundingMode.DOWN);
+            out[i] = exact.setScale(0, RoundingMode.DOWN).longValueExact();
+            frac[i] = exact.subtract(BigDecimal.valueOf(out[i]));
+            assigned += out[i];
+        }
+        boolean[] bumped = new boolean[n];
+        for (long left = total - assigned; left > 0; left--) {
+            int best = -1;
+            for (int i = 0; i < n; i++) {
+                if (!bumped[i] && (best < 0 || frac[i].compareTo(frac[best]) > 0)) best = i;
+            }
+            bumped[best] = true;
+            out[best]++;
+        }
+        return out;
+    }
+
+    @Test
+    void equalSplitMatchesTheLegacyEngine() {
+        Random rnd = new Random(42);
+        for (int round = 0; round < 20_000; round++) {
+            BigDecimal total = BigDecimal.valueOf(rnd.nextLong(-1_000_000, 100_000_000), 3); // sub-cent amounts round HALF_UP
+            int n = 1 + rnd.nextInt(12);
+            assertEquals(legacySplit(total, n), FairSplitDP.split(total, n), total + " / " + n);
+        }
+        for (String edge : new String[]{"0", "0.01", "0.005", "0.004", "-0.01", "-10.00", "100", "21474836.47"}) {
+            for (int n = 1; n <= 7; n++) {
+                assertEquals(legacySplit(new BigDecimal(edge), n), FairSplitDP.split(new BigDecimal(edge), n), edge + " / " + n);
+            }
+        }
+        // past Integer.MAX_VALUE cents the legacy intValue() wrapped around; the cents engine stays exact
+        assertEquals(List.of(new BigDecimal("50000000.00"), new BigDecimal("49999999.99")),
+                FairSplitDP.split(new BigDecimal("99999999.99"), 2));
+        assertThrows(IllegalArgumentException.class, () -> FairSplitDP.split(BigDecimal.TEN, 0));
+    }
+
+    @Test
+    void weightedSplitMatchesExactLargestRemainder() {
+        Random rnd = new Random(8);
+        for (int round = 0; round < 5_000; round++) {
+            int n = 1 + rnd.nextInt(8);
+            long[] weights = new long[n];
+            for (int i = 0; i < n; i++) weights[i] = rnd.nextInt(4) == 0 ? 0 : rnd.nextInt(1_000);
+            if (Arrays.stream(weights).sum() == 0) weights[rnd.nextInt(n)] = 1;
+            long total = rnd.nextInt(1_000_000);
+
+            long[] share = FairSplitDP.splitWeighted(total, weights);
+
+            assertArrayEquals(referenceWeighted(total, weights), share, total + " by " + Arrays.toString(weights));
+            for (int i = 0; i < n; i++) if (weights[i] == 0) assertEquals(0, share[i]);
+        }
+    }
+
+    @Test
+    void remainderCentsGoToTheLargestFractionsThenTheLowerIndex() {
+        assertArrayEquals(new long[]{34, 33, 33}, FairSplitDP.splitWeighted(100, new long[]{1, 1, 1}));
+        assertArrayEquals(FairSplitDP.splitCents(1001, 4), FairSplitDP.splitWeighted(1001, new long[]{5, 5, 5, 5}));
+        // exact shares 33.3, 66.6: the second has the larger fraction
+        assertArrayEquals(new long[]{33, 67}, FairSplitDP.splitWeighted(100, new long[]{1, 2}));
+        assertArrayEquals(new long[]{0, 1, 0}, FairSplitDP.splitWeighted(1, new long[]{0, 1, 0}));
+    }
+
+    @Test
+    void zeroAndNegativeWeightsAreHandled() {
+        assertArrayEquals(new long[]{0, 1000, 0}, FairSplitDP.splitWeighted(1000, new long[]{0, 3, 0}));
+        assertThrows(IllegalArgumentException.class, () -> FairSplitDP.splitWeighted(1000, new long[]{0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> FairSplitDP.splitWeighted(1000, new long[]{2, -1}));
+        assertThrows(IllegalArgumentException.class, () -> FairSplitDP.splitWeighted(-1, new long[]{1}));
+    }
+
+    @Test
+    void bindingCapsMoveTheExcessToTheOthersByWeight() {
+        long none = Long.MAX_VALUE;
+        // equal shares would be 333/333/334; the 100 cap binds and the rest splits 1:1
+        assertArrayEquals(new long[]{100, 450, 450}, FairSplitDP.splitWeighted(1000, new long[]{1, 1, 1}, new long[]{100, none, none}));
+        // capping the first member pushes the second over its own cap: water-filling runs again
+        assertArrayEquals(new long[]{100, 300, 600}, FairSplitDP.splitWeighted(1000, new long[]{1, 1, 1}, new long[]{100, 300, none}));
+        // a cap that does not bind changes nothing
+        assertArrayEquals(FairSplitDP.splitWeighted(999, new long[]{2, 1}), FairSplitDP.splitWeighted(999, new long[]{2, 1}, new long[]{666, 333}));
+        assertArrayEquals(new long[]{500, 500}, FairSplitDP.splitWeighted(1000, new long[]{1, 1}, new long[]{500, 500}));
+        assertThrows(IllegalArgumentException.class, () -> FairSplitDP.splitWeighted(1000, new long[]{1, 1}, new long[]{400, 500}));
+        assertThrows(IllegalArgumentException.class, () -> FairSplitDP.splitWeighted(1000, new long[]{1, 1}, new long[]{400}));
+
+        Random rnd = new Random(9);
+        for (int round = 0; round < 2_000; round++) {
+            int n = 1 + rnd.nextInt(6);
+            long[] weights = new long[n], caps = new long[n];
+            for (int i = 0; i < n; i++) {
+                weights[i] = 1 + rnd.nextInt(10);
+                caps[i] = rnd.nextBoolean() ? none : rnd.nextInt(50_000);
+            }
+            long total = rnd.nextInt(100_000);
+            if (Arrays.stream(caps).allMatch(c -> c != none) && Arrays.stream(caps).sum() < total) continue;
+
+            long[] share = FairSplitDP.splitWeighted(total, weights, caps);
+
+            assertEquals(total, Arrays.stream(share).sum());
+            for (int i = 0; i < n; i++) assertTrue(share[i] <= caps[i], "member " + i + " over its cap");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.fairshare.backend.dsa.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphColoringTest {
+
+    @Test
+    void poolExhaustedByOverlappingRequests() {
+        // three requests all covering 10..20 against two machines: the third gets nothing
+        long[] starts = {10, 12, 15}, ends = {20, 20, 18};
+        int[] color = GraphColoring.colorIntervals(starts, ends, 2, null);
+
+        assertEquals(0, color[0]);
+        assertEquals(1, color[1]);
+        assertEquals(-1, color[2]);
+    }
+
+    @Test
+    void colorIsReusedOnceItsIntervalEnds() {
+        // touching intervals [0,10) and [10,20) do not overlap, so one machine serves both
+        long[] starts = {0, 10, 20, 5}, ends = {10, 20, 30, 25};
+        int[] color = GraphColoring.colorIntervals(starts, ends, 2, null);
+
+        assertArrayEquals(new int[]{0, 0, 0, 1}, color);
+        assertEquals(-1, GraphColoring.colorIntervals(new long[]{0, 5, 9}, new long[]{10, 20, 30}, 2, null)[2]);
+    }
+
+    @Test
+    void colorCheckSkipsMachinesThatAreAlreadyBusy() {
+        // machine 0 already has a booking over 0..10; the request goes to machine 1 and the next one back to 0
+        GraphColoring.ColorCheck busy = (c, start, end) -> c != 0 || start >= 10;
+        int[] color = GraphColoring.colorIntervals(new long[]{0, 10}, new long[]{10, 20}, 2, busy);
+
+        assertArrayEquals(new int[]{1, 0}, color);
+        assertArrayEquals(new int[]{-1}, GraphColoring.colorIntervals(new long[]{0}, new long[]{5}, 1, busy));
+    }
+
+    @Test
+    void unboundedColoringUsesExactlyTheMaxOverlap() {
+        Random rnd = new Random(3);
+        int n = 500;
+        long[] starts = new long[n], ends = new long[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = rnd.nextInt(10_000);
+            ends[i] = starts[i] + 1 + rnd.nextInt(300);
+        }
+        int[] color = GraphColoring.colorIntervals(starts, ends);
+
+        int maxOverlap = 0;
+        for (long t = 0; t < 10_400; t++) {
+            int live = 0;
+            for (int i = 0; i < n; i++) if (starts[i] <= t && t < ends[i]) live++;
+            maxOverlap = Math.max(maxOverlap, live);
+        }
+        assertEquals(maxOverlap, Arrays.stream(color).max().orElseThrow() + 1);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                boolean overlap = starts[i] < ends[j] && starts[j] < ends[i];
+                assertFalse(overlap && color[i] == color[j], "intervals " + i + " and " + j + " share a color");
+            }
+        }
+    }
+}
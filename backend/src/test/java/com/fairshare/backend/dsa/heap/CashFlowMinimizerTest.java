@@ -0,0 +1,62 @@
+package com.fairshare.backend.dsa.heap;
+
+import com.fairshare.backend.dsa.heap.CashFlowMinimizer.Transfer;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CashFlowMinimizerTest {
+
+    /** Net position of every member after the transfers are paid; all zero when settled. */
+    private static Map<String, Long> apply(Map<String, Long> net, List<Transfer> transfers) {
+        Map<String, Long> left = new HashMap<>(net);
+        for (Transfer t : transfers) {
+            assertTrue(t.cents() > 0, "empty transfer " + t);
+            assertNotEquals(t.from(), t.to());
+            left.merge(t.from(), t.cents(), Long::sum);
+            left.merge(t.to(), -t.cents(), Long::sum);
+        }
+        return left;
+    }
+
+    @Test
+    void settlesEveryBalanceWithAtMostNMinusOneTransfers() {
+        Random rnd = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            int n = 2 + rnd.nextInt(12);
+            Map<String, Long> net = new HashMap<>();
+            long sum = 0;
+            for (int i = 0; i < n - 1; i++) {
+                long cents = rnd.nextInt(4) == 0 ? 0 : rnd.nextInt(200_001) - 100_000;
+                net.put("m" + i, cents);
+                sum += cents;
+            }
+            net.put("m" + (n - 1), -sum);
+
+            List<Transfer> transfers = CashFlowMinimizer.settle(net);
+
+            apply(net, transfers).forEach((member, cents) -> assertEquals(0L, cents, member + " is not settled"));
+            long nonZero = net.values().stream().filter(c -> c != 0).count();
+            assertTrue(transfers.size() <= Math.max(0, nonZero - 1), transfers.size() + " transfers for " + nonZero + " members");
+            long owed = net.values().stream().filter(c -> c > 0).mapToLong(Long::longValue).sum();
+            assertEquals(owed, transfers.stream().mapToLong(Transfer::cents).sum());
+        }
+    }
+
+    @Test
+    void matchedPairsSettleDirectly() {
+        Map<String, Long> net = Map.of("ana", 500L, "ben", -500L, "cai", 1200L, "dev", -1200L);
+
+        List<Transfer> transfers = CashFlowMinimizer.settle(net);
+
+        assertEquals(List.of(new Transfer("dev", "cai", 1200), new Transfer("ben", "ana", 500)), transfers);
+    }
+
+    @Test
+    void nothingToSettle() {
+        assertTrue(CashFlowMinimizer.settle(Map.of()).isEmpty());
+        assertTrue(CashFlowMinimizer.settle(Map.of("ana", 0L, "ben", 0L)).isEmpty());
+    }
+}
@@ -0,0 +1,67 @@
+package com.fairshare.backend.dsa.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeasonalAnomalyDetectorTest {
+
+    private static SeasonalAnomalyDetector detector() {
+        return new SeasonalAnomalyDetector(0.05, 0.1, 4.0, 0.1, 20, 5);
+    }
+
+    // Heater: ~1 unit at night, ~5 units at 18:00, with noise
+    private static void train(SeasonalAnomalyDetector d, Random rnd, int days) {
+        for (int day = 0; day < days; day++) {
+            for (int hour = 0; hour < 24; hour++) {
+                double base = hour == 18 ? 5.0 : 1.0;
+                assertFalse(d.observe("Heater", hour, base + rnd.nextGaussian() * 0.05).anomaly());
+            }
+        }
+    }
+
+    @Test
+    void flagsSpikesAgainstTheHourOfDayBaseline() {
+        SeasonalAnomalyDetector d = detector();
+        train(d, new Random(7), 14);
+
+        // the usual evening load is not a spike, the same load at 03:00 is
+        assertFalse(d.observe("Heater", 18, 5.1).anomaly());
+        SeasonalAnomalyDetector.Score night = d.observe("Heater", 3, 5.0);
+        assertTrue(night.anomaly());
+        assertEquals(1.0, night.expected(), 0.05);
+
+        // a spike barely moves the baseline, so the next normal night reading is fine
+        assertFalse(d.observe("Heater", 3, 1.0).anomaly());
+        assertTrue(d.observe("Heater", 3, 5.0).anomaly());
+    }
+
+    @Test
+    void staysQuietWhileWarmingUp() {
+        SeasonalAnomalyDetector d = detector();
+        for (int i = 0; i < 10; i++) d.observe("Fan", 12, 1.0);
+        assertFalse(d.observe("Fan", 12, 50.0).anomaly());
+    }
+
+    @Test
+    void snapshotRestoresTheSameBaselines() {
+        SeasonalAnomalyDetector d = detector();
+        train(d, new Random(3), 10);
+        assertEquals(List.of("Heater"), d.takeDirty());
+        assertEquals(List.of(), d.takeDirty());
+        d.markDirty("Heater");
+        d.markDirty("Kettle"); // unknown keys are ignored
+        assertEquals(List.of("Heater"), d.takeDirty());
+
+        SeasonalAnomalyDetector restored = detector();
+        restored.restore("Heater", d.snapshot("Heater"));
+        assertTrue(restored.takeDirty().isEmpty());
+        for (int hour = 0; hour < 24; hour++) {
+            assertEquals(d.observe("Heater", hour, 3.0), restored.observe("Heater", hour, 3.0));
+        }
+        assertNull(d.snapshot("Kettle"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.fairshare.backend.dsa.tree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AVLTreeTest {
+
+    // compareTo sees only the score; ids keep equal-scoring items distinct under equals()
+    private record Item(int score, int id) implements Comparable<Item> {
+        @Override
+        public int compareTo(Item o) { return Integer.compare(score, o.score); }
+    }
+
+    @Test
+    void keepsDuplicatesAndMatchesASortedListUnderRandomOps() {
+        AVLTree<Item> tree = new AVLTree<>();
+        List<Item> model = new ArrayList<>(); // stable-sorted by score, insertion order among ties
+        Random rnd = new Random(5);
+        for (int step = 0; step < 4000; step++) {
+            if (!model.isEmpty() && rnd.nextInt(3) == 0) {
+                Item victim = model.get(rnd.nextInt(model.size()));
+                assertTrue(tree.delete(victim));
+                model.remove(victim);
+            } else {
+                Item item = new Item(rnd.nextInt(50), step);
+                tree.insert(item);
+                int at = 0;
+                while (at < model.size() && model.get(at).score() <= item.score()) at++;
+                model.add(at, item);
+            }
+        }
+        assertFalse(tree.delete(new Item(10, -1)));
+        assertEquals(model, tree.inOrder());
+        assertEquals(model.size(), tree.size());
+
+        for (int i = 0; i < model.size(); i += 7) assertEquals(model.get(i), tree.select(i));
+        for (int score = 0; score <= 50; score++) {
+            int s = score;
+            Item probe = new Item(s, -1);
+            long smaller = model.stream().filter(m -> m.score() < s).count();
+            assertEquals(smaller, tree.rank(probe));
+            assertEquals(model.stream().anyMatch(m -> m.score() == s), tree.contains(probe));
+        }
+
+        List<Item> ranged = new ArrayList<>();
+        tree.range(new Item(10, 0), new Item(20, 0)).forEach(ranged::add);
+        assertEquals(model.stream().filter(m -> m.score() >= 10 && m.score() < 20).toList(), ranged);
+        assertEquals(ranged.size(), tree.count(new Item(10, 0), new Item(20, 0)));
+
+        List<Item> reversed = new ArrayList<>(model);
+        Collections.reverse(reversed);
+        assertEquals(reversed.subList(5, 25), tree.slice(5, 20, true));
+        assertEquals(model.subList(model.size() - 3, model.size()), tree.slice(model.size() - 3, 10, false));
+        assertTrue(tree.slice(model.size(), 10, false).isEmpty());
+    }
+
+    @Test
+    void bulkBuildFromSortedInput() {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) keys.add(i / 3);
+        AVLTree<Integer> tree = AVLTree.fromSorted(keys);
+        assertEquals(keys, tree.inOrder());
+        assertEquals(300, tree.rank(100));
+
+        tree.insert(-1);
+        tree.delete(500 / 3);
+        assertEquals(1000, tree.size());
+        assertEquals(-1, tree.select(0));
+
+        assertThrows(IllegalArgumentException.class, () -> AVLTree.fromSorted(List.of(2, 1)));
+        assertTrue(AVLTree.<Integer>fromSorted(List.of()).isEmpty());
+    }
+
+    @Test
+    void iteratorsAreLazyAndFailFast() {
+        AVLTree<Integer> tree = AVLTree.fromSorted(List.of(1, 2, 3, 4, 5));
+        Iterator<Integer> desc = tree.descendingIterator();
+        assertEquals(5, desc.next());
+        assertEquals(4, desc.next());
+
+        Iterator<Integer> it = tree.range(2, null).iterator();
+        assertEquals(2, it.next());
+        tree.insert(6);
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    void countTreatsNullBoundsAsOpenLikeRange() {
+        AVLTree<Integer> tree = AVLTree.fromSorted(List.of(1, 2, 3, 4, 5));
+
+        assertEquals(3, tree.count(3, null));
+        assertEquals(2, tree.count(null, 3));
+        assertEquals(5, tree.count(null, null));
+        assertEquals(0, tree.count(9, null));
+        assertEquals(0, new AVLTree<Integer>().count(null, null));
+        int ranged = 0;
+        for (int ignored : tree.range(3, null)) ranged++;
+        assertEquals(ranged, tree.count(3, null));
+    }
+}
@@ -0,0 +1,91 @@
+package com.fairshare.backend.dsa.tree;
+
+import com.fairshare.backend.dsa.tree.IntervalTree.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    @Test
+    void touchingEndpointsDoNotOverlap() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(10, 20, 1);
+
+        assertFalse(tree.overlaps(0, 10));
+        assertFalse(tree.overlaps(20, 30));
+        assertTrue(tree.overlaps(19, 21));
+        assertTrue(tree.overlaps(0, 11));
+        assertTrue(tree.overlaps(12, 15));
+        assertTrue(tree.overlaps(0, 100));
+        assertTrue(tree.findOverlapping(20, 30).isEmpty());
+        assertEquals(List.of(new Interval(10, 20, 1)), tree.findOverlapping(5, 11));
+        assertNull(tree.firstEndingAfter(20));
+        assertEquals(1, tree.firstEndingAfter(19).id());
+    }
+
+    @Test
+    void sharedStartsAreKeptApartByIdAndRemovedOneAtATime() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(10, 20, 1);
+        tree.insert(10, 30, 2);
+        assertEquals(2, tree.size());
+
+        assertFalse(tree.remove(10, 3));
+        assertFalse(tree.remove(11, 1));
+        assertTrue(tree.remove(10, 2));
+        assertEquals(1, tree.size());
+        assertFalse(tree.overlaps(20, 30));
+        assertTrue(tree.remove(10, 1));
+        assertFalse(tree.overlaps(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    void staysBalancedOnSortedInsertsAndDeletes() {
+        IntervalTree tree = new IntervalTree();
+        // ascending starts: every insert after the second rotates; max ends must survive the rotations
+        for (int i = 0; i < 1024; i++) tree.insert(i * 10L, i * 10L + 5, i);
+        tree.insert(0, 100_000, 5000); // one long interval buried at the far left
+        assertTrue(tree.overlaps(99_990, 99_999));
+        assertEquals(List.of(new Interval(0, 100_000, 5000)), tree.findOverlapping(20_000, 20_005));
+
+        for (int i = 0; i < 1024; i += 2) assertTrue(tree.remove(i * 10L, i));
+        assertTrue(tree.remove(0, 5000));
+        assertEquals(512, tree.size());
+        assertFalse(tree.overlaps(0, 10));
+        assertTrue(tree.overlaps(10, 11));
+        assertEquals(30, tree.firstEndingAfter(16).start());
+    }
+
+    @Test
+    void matchesALinearScanUnderRandomOps() {
+        IntervalTree tree = new IntervalTree();
+        List<Interval> model = new ArrayList<>();
+        Random rnd = new Random(11);
+        for (int step = 0; step < 3000; step++) {
+            if (!model.isEmpty() && rnd.nextInt(3) == 0) {
+                Interval victim = model.remove(rnd.nextInt(model.size()));
+                assertTrue(tree.remove(victim.start(), victim.id()));
+            } else {
+                long start = rnd.nextInt(10_000);
+                Interval iv = new Interval(start, start + 1 + rnd.nextInt(200), step);
+                tree.insert(iv.start(), iv.end(), iv.id());
+                model.add(iv);
+            }
+            long from = rnd.nextInt(10_000), to = from + rnd.nextInt(300);
+            List<Interval> expected = model.stream()
+                    .filter(iv -> iv.start() < to && iv.end() > from)
+                    .sorted(Comparator.comparingLong(Interval::start).thenComparingLong(Interval::id))
+                    .toList();
+            assertEquals(expected, tree.findOverlapping(from, to));
+            assertEquals(!expected.isEmpty(), tree.overlaps(from, to));
+            Interval next = model.stream().filter(iv -> iv.end() > from)
+                    .min(Comparator.comparingLong(Interval::start).thenComparingLong(Interval::id)).orElse(null);
+            assertEquals(next, tree.firstEndingAfter(from));
+        }
+        assertEquals(model.size(), tree.size());
+    }
+}
@@ -0,0 +1,70 @@
+package com.fairshare.backend.dsa.tree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+
+    @Test
+    void matchesAFullSortUnderRandomUpdates() {
+        Leaderboard<Integer, String> board = new Leaderboard<>();
+        Map<Integer, Double> scores = new HashMap<>();
+        Random rnd = new Random(11);
+        for (int step = 0; step < 5000; step++) {
+            int key = rnd.nextInt(300);
+            if (rnd.nextInt(5) == 0) {
+                assertEquals(scores.remove(key) != null, board.remove(key));
+            } else {
+                double score = rnd.nextInt(40); // plenty of ties
+                scores.put(key, score);
+                board.put(key, score, "m" + key);
+            }
+        }
+
+        List<Integer> expected = new ArrayList<>(scores.keySet());
+        expected.sort(Comparator.comparingDouble((Integer k) -> -scores.get(k)).thenComparing(Comparator.reverseOrder()));
+        assertEquals(expected.size(), board.size());
+
+        List<String> names = expected.stream().map(k -> "m" + k).toList();
+        assertEquals(names.subList(0, 10), board.top(10));
+        List<String> ascending = new ArrayList<>(names);
+        Collections.reverse(ascending);
+        assertEquals(ascending, board.ascending());
+
+        List<Leaderboard.Ranked<String>> page = board.page(40, 20);
+        assertEquals(20, page.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(41 + i, page.get(i).rank());
+            assertEquals(names.get(40 + i), page.get(i).value());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i + 1, board.rank(expected.get(i)).orElseThrow().rank());
+        }
+        assertEquals(5, board.page(expected.size() - 5, 20).size());
+        assertTrue(board.page(expected.size(), 20).isEmpty());
+
+        // keyset: the page after rank 40 is the same as offset 40, even once that member has left
+        int cursor = expected.get(39);
+        board.remove(cursor);
+        List<Leaderboard.Ranked<String>> after = board.pageAfter(scores.get(cursor), cursor, 20);
+        assertEquals(names.subList(40, 60), after.stream().map(Leaderboard.Ranked::value).toList());
+        assertEquals(40, after.get(0).rank());
+    }
+
+    @Test
+    void rescoringMovesAMember() {
+        Leaderboard<String, String> board = new Leaderboard<>();
+        board.put("a", 50, "a");
+        board.put("b", 60, "b");
+        board.put("c", 70, "c");
+        assertEquals(3, board.rank("a").orElseThrow().rank());
+
+        board.put("a", 90, "a");
+        assertEquals(List.of("a", "c", "b"), board.top(5));
+        assertEquals(90.0, board.rank("a").orElseThrow().score());
+        assertTrue(board.rank("z").isEmpty());
+    }
+}
@@ -0,0 +1,99 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.Booking;
+import com.fairshare.backend.model.Resource;
+import com.fairshare.backend.repository.ResourceRepository;
+import com.fairshare.backend.service.AvailabilityService.FreeSlot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvailabilityServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 10, 0, 0);
+    private static final Resource WASHER_1 = Resource.builder().id(1L).name("Washer 1").category("laundry").build();
+    private static final Resource WASHER_2 = Resource.builder().id(2L).name("Washer 2").category("laundry").build();
+
+    private final AtomicLong ids = new AtomicLong();
+    private final BookingIndex index = new BookingIndex();
+    private AvailabilityService service;
+
+    @BeforeEach
+    void setUp() {
+        ResourceRepository resources = mock(ResourceRepository.class);
+        when(resources.findByCategory("laundry")).thenReturn(List.of(WASHER_1, WASHER_2));
+        when(resources.findById(1L)).thenReturn(Optional.of(WASHER_1));
+        service = new AvailabilityService(index, resources);
+    }
+
+    private void book(Resource r, int fromHour, int toHour) {
+        index.add(Booking.builder().id(ids.incrementAndGet()).resourceId(r.getId())
+                .startTime(DAY.plusHours(fromHour)).endTime(DAY.plusHours(toHour)).status("pending").build());
+    }
+
+    private static FreeSlot slot(Resource r, int fromHour, int toHour) {
+        return new FreeSlot(r.getId(), r.getName(), DAY.plusHours(fromHour), DAY.plusHours(toHour));
+    }
+
+    private List<FreeSlot> search(Long resourceId, int fromHour, int toHour, long minMinutes, int limit) {
+        return service.findFreeSlots(resourceId == null ? "laundry" : null, resourceId,
+                DAY.plusHours(fromHour), DAY.plusHours(toHour), Duration.ofMinutes(minMinutes), limit);
+    }
+
+    @Test
+    void emptyCalendarIsOneWindowPerResource() {
+        assertEquals(List.of(slot(WASHER_1, 8, 20), slot(WASHER_2, 8, 20)), search(null, 8, 20, 45, 10));
+        assertEquals(List.of(slot(WASHER_1, 8, 20)), search(1L, 8, 20, 45, 10));
+        assertTrue(search(1L, 8, 9, 61, 10).isEmpty());
+    }
+
+    @Test
+    void backToBackBookingsLeaveNoGapBetweenThem() {
+        book(WASHER_1, 9, 10);
+        book(WASHER_1, 10, 11);
+        book(WASHER_1, 11, 12);
+
+        assertEquals(List.of(slot(WASHER_1, 8, 9), slot(WASHER_1, 12, 14)), search(1L, 8, 14, 1, 10));
+    }
+
+    @Test
+    void gapExactlyTheRequestedLengthIsFree() {
+        book(WASHER_1, 9, 10);
+        book(WASHER_1, 11, 12);
+
+        assertEquals(List.of(slot(WASHER_1, 10, 11)), search(1L, 9, 12, 60, 10));
+        assertTrue(search(1L, 9, 12, 61, 10).isEmpty());
+    }
+
+    @Test
+    void windowEdgesClipBookingsThatCrossThem() {
+        book(WASHER_1, 6, 9);   // running when the window opens
+        book(WASHER_1, 11, 18); // still running when it closes
+        book(WASHER_2, 8, 10);  // starts exactly at the window start
+        book(WASHER_2, 12, 13); // starts exactly at the window end
+
+        assertEquals(List.of(slot(WASHER_1, 9, 11), slot(WASHER_2, 10, 12)), search(null, 8, 12, 30, 10));
+        assertTrue(search(1L, 13, 18, 1, 10).isEmpty());
+        assertEquals(List.of(slot(WASHER_1, 18, 20)), search(1L, 13, 20, 1, 10));
+    }
+
+    @Test
+    void mergesResourcesByStartAndStopsAtTheLimit() {
+        book(WASHER_1, 8, 10);
+        book(WASHER_2, 9, 11);
+        book(WASHER_1, 12, 13);
+
+        assertEquals(List.of(slot(WASHER_2, 8, 9), slot(WASHER_1, 10, 12), slot(WASHER_2, 11, 16)),
+                search(null, 8, 16, 30, 3));
+        assertThrows(IllegalArgumentException.class, () -> search(null, 10, 10, 30, 3));
+    }
+}
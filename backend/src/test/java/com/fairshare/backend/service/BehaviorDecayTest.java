@@ -0,0 +1,65 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.RoommateBehavior;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BehaviorDecayTest {
+
+    private final BehaviorDecay decay = new BehaviorDecay(30);
+    private final Instant t0 = Instant.parse("2025-06-01T00:00:00Z");
+
+    private RoommateBehavior at(double score, Instant when) {
+        RoommateBehavior b = new RoommateBehavior("m", "m@x", score);
+        decay.set(b, score, when);
+        return b;
+    }
+
+    @Test
+    void halvesTheDeviationEveryHalfLife() {
+        RoommateBehavior b = at(90, t0);
+        assertEquals(70, decay.scoreAt(b, t0.plus(Duration.ofDays(30))), 1e-9);
+        assertEquals(42.5, decay.scoreAt(at(20, t0), t0.plus(Duration.ofDays(60))), 1e-9);
+
+        decay.add(b, 5, t0.plus(Duration.ofDays(30)));
+        assertEquals(75, b.getBehaviorScore(), 1e-9);
+        decay.add(b, 100, t0.plus(Duration.ofDays(30)));
+        assertEquals(100, b.getBehaviorScore());
+    }
+
+    @Test
+    void rankKeyOrdersCurrentScoresAtAnyTime() {
+        Random rnd = new Random(3);
+        List<RoommateBehavior> all = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            all.add(at(rnd.nextDouble() * 100, t0.plus(Duration.ofHours(rnd.nextInt(24 * 365)))));
+        }
+        all.add(at(50, t0));
+
+        List<RoommateBehavior> byKey = new ArrayList<>(all);
+        byKey.sort(Comparator.comparingDouble(RoommateBehavior::getRankKey));
+        for (int years = 1; years <= 3; years++) {
+            Instant now = t0.plus(Duration.ofDays(365L * years));
+            for (int i = 1; i < byKey.size(); i++) {
+                assertTrue(decay.scoreAt(byKey.get(i - 1), now) <= decay.scoreAt(byKey.get(i), now) + 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void settlingDoesNotMoveTheRankKey() {
+        RoommateBehavior b = at(12, t0);
+        double key = b.getRankKey();
+        decay.settle(b, t0.plus(Duration.ofDays(45)));
+        assertEquals(key, b.getRankKey());
+        assertEquals(key, decay.rankKey(b.getBehaviorScore(), b.getScoreUpdatedAt()), 1e-9);
+    }
+}
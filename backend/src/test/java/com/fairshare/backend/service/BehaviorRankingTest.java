@@ -0,0 +1,94 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.dsa.tree.Leaderboard.Ranked;
+import com.fairshare.backend.model.Roommate;
+import com.fairshare.backend.repository.RoommateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class BehaviorRankingTest {
+
+    // one score for everyone; ids ascending as unsigned bytes, with the sign bit
+    // set and clear in each half, so signed UUID.compareTo would order them differently
+    private static final List<UUID> IDS = List.of(
+            new UUID(0x0000000000000001L, 0x0000000000000001L),
+            new UUID(0x7fffffffffffffffL, 0x0000000000000002L),
+            new UUID(0x7fffffffffffffffL, 0x8000000000000000L),
+            new UUID(0x8000000000000000L, 0x0000000000000001L),
+            new UUID(0xffffffffffffffffL, 0x0000000000000003L),
+            new UUID(0xffffffffffffffffL, 0xffffffffffffffffL));
+
+    @Autowired RoommateRepository repo;
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        for (UUID id : IDS) {
+            jdbc.update("INSERT INTO roommates (id, name, email, cleanliness, cooperation, responsibility, noise_level, "
+                    + "behavior_score) VALUES (?, ?, ?, 5, 5, 5, 3, 4.0)", id, id.toString(), id + "@example.com");
+        }
+    }
+
+    private static List<UUID> ids(List<Ranked<Roommate>> page) {
+        return page.stream().map(r -> r.value().getId()).toList();
+    }
+
+    private static List<UUID> walk(BehaviorRanking<Roommate> ranking, int size) {
+        List<UUID> out = new ArrayList<>();
+        List<Ranked<Roommate>> page = ranking.page(0, size);
+        while (!page.isEmpty()) {
+            out.addAll(ids(page));
+            Ranked<Roommate> last = page.get(page.size() - 1);
+            assertEquals(out.size(), last.rank());
+            page = ranking.pageAfter(last.score(), last.value().getId(), last.rank(), size);
+        }
+        return out;
+    }
+
+    @Test
+    void tiesAreOrderedTheSameInMemoryAndInTheDatabase() {
+        BehaviorRanking<Roommate> db = new BehaviorRanking<>(repo, false);
+        BehaviorRanking<Roommate> memory = new BehaviorRanking<>(repo, true);
+        memory.load();
+
+        List<UUID> expected = new ArrayList<>(IDS);
+        Collections.reverse(expected);
+        assertEquals(expected, ids(db.page(0, 10)));
+        assertEquals(expected, ids(memory.page(0, 10)));
+        assertEquals(expected, walk(db, 4));
+        assertEquals(expected, walk(memory, 4));
+        for (int i = 0; i < IDS.size(); i++) {
+            UUID id = expected.get(i);
+            assertEquals(i + 1, db.rank(id).orElseThrow().rank());
+            assertEquals(i + 1, memory.rank(id).orElseThrow().rank());
+        }
+    }
+
+    @Test
+    void leaderboardRejectsBadPagesAndPartialCursors() {
+        BehaviorRanking<Roommate> db = new BehaviorRanking<>(repo, false);
+        UUID id = IDS.get(0);
+        assertThrows(IllegalArgumentException.class, () -> db.leaderboard(-1, 10, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> db.leaderboard(0, 101, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> db.leaderboard(0, 10, 4.0, id, null));
+        assertThrows(IllegalArgumentException.class, () -> db.leaderboard(0, 10, 4.0, id, 0));
+
+        assertEquals(ids(db.page(1, 2)), ids(db.leaderboard(1, 2, null, null, null)));
+        assertEquals(ids(db.pageAfter(4.0, IDS.get(3), 2, 2)), ids(db.leaderboard(0, 2, 4.0, IDS.get(3), 2)));
+    }
+}
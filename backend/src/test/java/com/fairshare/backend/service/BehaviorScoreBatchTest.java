@@ -0,0 +1,62 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.RoommateBehavior;
+import com.fairshare.backend.repository.BehaviorScoreBatchRepository;
+import com.fairshare.backend.repository.BehaviorScoreBatchRepository.ScoreState;
+import com.fairshare.backend.repository.RoommateBehaviorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(BehaviorScoreBatchRepository.class)
+class BehaviorScoreBatchTest {
+
+    @Autowired BehaviorScoreBatchRepository batch;
+    @Autowired RoommateBehaviorRepository repo;
+    @Autowired TestEntityManager em;
+
+    private RoommateBehavior reload(UUID id) {
+        em.clear();
+        return repo.findById(id).orElseThrow();
+    }
+
+    @Test
+    void writesOnlyRowsStillAtTheVersionTheyWereReadAt() {
+        RoommateBehavior a = repo.save(new RoommateBehavior("a", "a@x", 50));
+        RoommateBehavior b = repo.save(new RoommateBehavior("b", "b@x", 50));
+        em.flush();
+        Instant now = Instant.now();
+
+        assertEquals(Set.of(), batch.saveScores(List.of(
+                new ScoreState(a.getId(), 0, 60, now, 3.0),
+                new ScoreState(b.getId(), 0, 40, now, -3.0))));
+        assertEquals(1, reload(a.getId()).getScoreVersion());
+
+        // a was read before the write above, b after it, and the third row is gone
+        UUID gone = UUID.randomUUID();
+        assertEquals(Set.of(a.getId(), gone), batch.saveScores(List.of(
+                new ScoreState(a.getId(), 0, 70, now, 4.0),
+                new ScoreState(b.getId(), 1, 30, now, -4.0),
+                new ScoreState(gone, 0, 80, now, 5.0))));
+
+        RoommateBehavior storedA = reload(a.getId()), storedB = reload(b.getId());
+        assertEquals(60, storedA.getBehaviorScore(), 1e-9);
+        assertEquals(3.0, storedA.getRankKey(), 1e-9);
+        assertEquals(30, storedB.getBehaviorScore(), 1e-9);
+        assertEquals(2, storedB.getScoreVersion());
+    }
+}
@@ -0,0 +1,200 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.RoommateBehavior;
+import com.fairshare.backend.repository.BehaviorScoreBatchRepository;
+import com.fairshare.backend.repository.RoommateBehaviorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class BehaviorServiceWriteBehindTest {
+
+    private final RoommateBehaviorRepository repo = mock(RoommateBehaviorRepository.class);
+    private final BehaviorScoreBatchRepository batchRepo = mock(BehaviorScoreBatchRepository.class);
+    private final Map<UUID, RoommateBehavior> rows = new ConcurrentHashMap<>(); // the table
+    private final Map<UUID, Double> written = new HashMap<>();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private BehaviorService service;
+
+    @BeforeEach
+    void setUp() {
+        when(repo.findByEmail(any())).thenAnswer(inv -> rows.values().stream()
+                .filter(b -> b.getEmail().equals(inv.getArgument(0))).findFirst().map(RoommateBehavior::new));
+        when(repo.save(any())).thenAnswer(inv -> {
+            RoommateBehavior b = inv.getArgument(0);
+            ReflectionTestUtils.setField(b, "id", UUID.randomUUID());
+            rows.put(b.getId(), new RoommateBehavior(b));
+            return b;
+        });
+        when(repo.findAllById(any())).thenAnswer(inv -> {
+            List<RoommateBehavior> found = new ArrayList<>();
+            for (UUID id : inv.<Iterable<UUID>>getArgument(0)) {
+                if (rows.containsKey(id)) found.add(new RoommateBehavior(rows.get(id)));
+            }
+            return found;
+        });
+        doAnswer(this::record).when(batchRepo).saveScores(anyList());
+        service = new BehaviorService(repo, batchRepo, true, 1_000_000, 0);
+    }
+
+    // the versioned UPDATE: a row only takes the state if it is still at the version it was read at
+    private Set<UUID> record(org.mockito.invocation.InvocationOnMock inv) {
+        List<BehaviorScoreBatchRepository.ScoreState> states = inv.getArgument(0);
+        batchSizes.add(states.size());
+        Set<UUID> stale = new HashSet<>();
+        for (BehaviorScoreBatchRepository.ScoreState s : states) {
+            RoommateBehavior row = rows.get(s.id());
+            if (row == null || row.getScoreVersion() != s.version()) {
+                stale.add(s.id());
+                continue;
+            }
+            written.put(s.id(), s.score());
+            row.setBehaviorScore(s.score());
+            row.setScoreUpdatedAt(s.updatedAt());
+            row.setRankKey(s.rankKey());
+            bumpVersion(row);
+        }
+        return stale;
+    }
+
+    private static void bumpVersion(RoommateBehavior row) {
+        ReflectionTestUtils.setField(row, "scoreVersion", row.getScoreVersion() + 1);
+    }
+
+    @Test
+    void concurrentUpdatesCoalesceIntoOneBatch() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 4000; i++) {
+            String email = "m" + (i % 4) + "@x";
+            double delta = (i / 4) % 2 == 0 ? 0.0625 : -0.03125; // stays inside 0..100 in any order
+            pool.execute(() -> service.addOrUpdate("m", email, delta));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        verify(repo, times(4)).save(any()); // one insert per new member, then buffered
+        assertEquals(4, service.flush());
+        assertEquals(List.of(4), batchSizes);
+
+        for (RoommateBehavior b : service.getTopPerformers(4)) {
+            assertEquals(50 + 500 * 0.03125, b.getBehaviorScore(), 1e-9);
+            assertEquals(50 + 500 * 0.03125, written.get(b.getId()), 1e-9);
+        }
+        assertEquals(0, service.flush());
+    }
+
+    @Test
+    void clampsTheBufferedSumWhenItIsApplied() {
+        assertEquals(95, service.addOrUpdate("a", "a@x", 45).getBehaviorScore(), 1e-9);
+        assertEquals(100, service.addOrUpdate("a", "a@x", 30).getBehaviorScore(), 1e-9);
+        RoommateBehavior a = service.addOrUpdate("a", "a@x", -20);
+        assertEquals(100, a.getBehaviorScore(), 1e-9); // 50 + 55, not clamped per update
+        assertEquals(50, service.getTopPerformers(1).get(0).getBehaviorScore(), 1e-9); // nothing flushed yet
+
+        service.flush();
+        assertEquals(100, written.get(a.getId()), 1e-9);
+        assertEquals(80, service.addOrUpdate("a", "a@x", -20).getBehaviorScore(), 1e-9);
+    }
+
+    @Test
+    void withoutTheInMemoryLeaderboardEveryUpdateReadsTheTable() {
+        service = new BehaviorService(repo, batchRepo, false, 1_000_000, 0);
+        RoommateBehavior a = service.addOrUpdate("a", "a@x", 5);
+        service.flush();
+        rows.get(a.getId()).setBehaviorScore(70); // written by another instance
+
+        assertEquals(72, service.addOrUpdate("a", "a@x", 2).getBehaviorScore(), 1e-9);
+        verify(repo, times(1)).save(any());
+    }
+
+    @Test
+    void rowWrittenByAnotherInstanceMeanwhileIsReadAgain() {
+        RoommateBehavior a = service.addOrUpdate("a", "a@x", 5);
+        service.flush();
+        service.addOrUpdate("a", "a@x", 2);
+        // another instance adds 10 between this flush's read and its write
+        doAnswer(inv -> {
+            RoommateBehavior row = rows.get(a.getId());
+            List<RoommateBehavior> found = List.of(new RoommateBehavior(row));
+            if (row.getBehaviorScore() == 55) {
+                row.setBehaviorScore(65);
+                bumpVersion(row);
+            }
+            return found;
+        }).when(repo).findAllById(any());
+
+        assertEquals(1, service.flush());
+        assertEquals(67, written.get(a.getId()), 1e-9);
+        assertEquals(List.of(1, 1, 1), batchSizes);
+        assertEquals(0, service.flush());
+    }
+
+    @Test
+    void rowThatKeepsChangingIsLeftForTheNextFlush() {
+        RoommateBehavior a = service.addOrUpdate("a", "a@x", 5);
+        doAnswer(inv -> {
+            RoommateBehavior row = rows.get(a.getId());
+            List<RoommateBehavior> found = List.of(new RoommateBehavior(row));
+            bumpVersion(row);
+            return found;
+        }).when(repo).findAllById(any());
+        assertEquals(0, service.flush());
+        assertFalse(written.containsKey(a.getId()));
+
+        doAnswer(inv -> List.of(new RoommateBehavior(rows.get(a.getId())))).when(repo).findAllById(any());
+        assertEquals(1, service.flush());
+        assertEquals(55, written.get(a.getId()), 1e-9);
+    }
+
+    @Test
+    void newHalfLifeRekeysEveryRowAtStartup() {
+        RoommateBehavior a = service.addOrUpdate("a", "a@x", 20);
+        RoommateBehavior b = service.addOrUpdate("b", "b@x", -10);
+        service.flush();
+        double oldKey = rows.get(a.getId()).getRankKey();
+        when(repo.findFirstByOrderByRankKeyDesc()).thenAnswer(inv -> Optional.of(new RoommateBehavior(rows.get(a.getId()))));
+        when(repo.findFirstByOrderByRankKeyAsc()).thenAnswer(inv -> Optional.of(new RoommateBehavior(rows.get(b.getId()))));
+        when(repo.findAll()).thenAnswer(inv -> rows.values().stream().map(RoommateBehavior::new).toList());
+
+        new BehaviorService(repo, batchRepo, true, 1_000_000, 0).loadLeaderboard();
+        verify(batchRepo, times(1)).saveScores(anyList()); // same half-life: only the flush wrote
+
+        new BehaviorService(repo, batchRepo, true, 1_000_000, 30).loadLeaderboard();
+        BehaviorDecay decay = new BehaviorDecay(30);
+        for (RoommateBehavior row : rows.values()) {
+            assertEquals(decay.rankKey(row.getBehaviorScore(), row.getScoreUpdatedAt()), row.getRankKey(), 1e-12);
+        }
+        assertNotEquals(oldKey, rows.get(a.getId()).getRankKey());
+        assertEquals(70, rows.get(a.getId()).getBehaviorScore(), 1e-9);
+    }
+
+    @Test
+    void failedFlushKeepsUpdatesForTheNextFlush() {
+        RoommateBehavior a = service.addOrUpdate("a", "a@x", 5);
+        doThrow(new RuntimeException("db down")).when(batchRepo).saveScores(anyList());
+        assertEquals(0, service.flush());
+        reset(batchRepo);
+        doAnswer(this::record).when(batchRepo).saveScores(anyList());
+
+        assertEquals(1, service.flush());
+        assertEquals(55, written.get(a.getId()), 1e-9);
+    }
+
+    @Test
+    void sizeThresholdTriggersAFlush() {
+        service = new BehaviorService(repo, batchRepo, true, 3, 0);
+        for (int i = 0; i < 7; i++) service.addOrUpdate("a", "a@x", 1);
+        verify(batchRepo, times(2)).saveScores(anyList());
+    }
+}
@@ -0,0 +1,136 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.Bill;
+import com.fairshare.backend.repository.BillBatchRepository;
+import com.fairshare.backend.repository.BillRepository;
+import com.fairshare.backend.repository.BillSplitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class BillImportTest {
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final List<Bill> written = new ArrayList<>();
+    private BillService service;
+
+    @BeforeEach
+    void setUp() {
+        BillBatchRepository batchRepo = mock(BillBatchRepository.class);
+        doAnswer(inv -> {
+            List<Bill> bills = inv.getArgument(0);
+            batchSizes.add(bills.size());
+            written.addAll(bills);
+            return null;
+        }).when(batchRepo).insertAll(anyList());
+        service = new BillService(mock(BillRepository.class), mock(BillSplitRepository.class), batchRepo,
+                mock(BalanceLedgerService.class), new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    private ImportReport run(String body, String format) throws Exception {
+        return service.importBills(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    @Test
+    void csvRowsAreWrittenInFixedBatchesWithPerRowErrors() throws Exception {
+        StringBuilder csv = new StringBuilder("title,amount,dueDate,category,paidBy,members\n");
+        for (int i = 0; i < 2500; i++) {
+            if (i == 7) csv.append("broken,abc,2025-01-01,rent,,\n");
+            csv.append("\"Rent, flat ").append(i).append("\",100.00,2025-01-01,rent,ana,ana;ben;cy\n");
+        }
+
+        ImportReport report = run(csv.toString(), "text/csv");
+
+        assertEquals(2500, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(9, report.getErrors().get(0).line());
+        assertEquals("amount must be a number", report.getErrors().get(0).error());
+        assertEquals(List.of(1000, 1000, 500), batchSizes);
+
+        Bill first = written.get(0);
+        assertEquals("Rent, flat 0", first.getTitle());
+        assertEquals(3, first.getSplits().size());
+        assertEquals(new BigDecimal("33.34"), first.getSplits().get(0).getAmount());
+        assertTrue(first.getSplits().get(0).isPaid()); // ana paid the bill
+        assertFalse(first.getSplits().get(1).isPaid());
+    }
+
+    @Test
+    void ndjsonSupportsWeightsAndCaps() throws Exception {
+        String body = """
+                {"title":"Power","amount":90,"dueDate":"2025-02-01","members":["a","b","c"],"weights":[1,1,1],"caps":[10,null,null]}
+
+                {"title":"Bad","amount":10}
+                not json
+                """;
+
+        ImportReport report = run(body, "application/x-ndjson");
+
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(3, report.getErrors().get(0).line());
+        assertEquals("dueDate is required", report.getErrors().get(0).error());
+        assertEquals("Invalid JSON", report.getErrors().get(1).error());
+        List<BigDecimal> amounts = written.get(0).getSplits().stream().map(s -> s.getAmount()).toList();
+        assertEquals(List.of(new BigDecimal("10.00"), new BigDecimal("40.00"), new BigDecimal("40.00")), amounts);
+    }
+
+    @Test
+    void formatIsMatchedExplicitly() {
+        assertTrue(ImportRowReader.isNdjson("application/x-ndjson"));
+        assertTrue(ImportRowReader.isNdjson("application/jsonl; charset=UTF-8"));
+        assertTrue(ImportRowReader.isNdjson("NDJSON"));
+        assertFalse(ImportRowReader.isNdjson("application/json"));
+        assertFalse(ImportRowReader.isNdjson("text/csv; note=json"));
+        assertFalse(ImportRowReader.isNdjson(null));
+        assertTrue(ImportRowReader.isJson("application/json;charset=UTF-8"));
+        assertFalse(ImportRowReader.isJson("application/x-ndjson"));
+    }
+
+    @Test
+    void jsonArrayBodyIsReadElementByElement() throws Exception {
+        String body = """
+                [
+                  {"title":"Water","amount":30,"dueDate":"2025-02-01","members":["a","b"]},
+                  {"title":"Bad","amount":10},
+                  42,
+                  {"title":"Gas","amount":12.5,"dueDate":"2025-02-03"}
+                ]
+                """;
+
+        ImportReport report = run(body, "application/json");
+
+        assertEquals(2, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(2, report.getErrors().get(0).line());
+        assertEquals(3, report.getErrors().get(1).line());
+        assertEquals(List.of("Water", "Gas"), written.stream().map(Bill::getTitle).toList());
+    }
+
+    @Test
+    void malformedOrMismatchedJsonIsReportedNotMisparsed() throws Exception {
+        ImportReport truncated = run("[{\"title\":\"Water\",\"amount\":30,\"dueDate\":\"2025-02-01\"}, {\"title\":", "json");
+        assertEquals(1, truncated.getImported());
+        assertEquals("Invalid JSON", truncated.getErrors().get(0).error());
+
+        ImportReport notAnArray = run("{\"title\":\"Water\"}", "json");
+        assertEquals(0, notAnArray.getImported());
+        assertEquals("Expected a JSON array of objects", notAnArray.getErrors().get(0).error());
+
+        ImportReport arrayAsNdjson = run("[{\"title\":\"Water\",\"amount\":30,\"dueDate\":\"2025-02-01\"}]\n", "application/x-ndjson");
+        assertEquals(0, arrayAsNdjson.getImported());
+        assertEquals("Expected one JSON object per line, not an array", arrayAsNdjson.getErrors().get(0).error());
+    }
+}
@@ -0,0 +1,136 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.Bill;
+import com.fairshare.backend.model.BillSplit;
+import com.fairshare.backend.model.MemberBalance;
+import com.fairshare.backend.repository.BillBatchRepository;
+import com.fairshare.backend.repository.BillRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({BillService.class, BalanceLedgerService.class, BillBatchRepository.class})
+class BillServiceTest {
+
+    private static final LocalDate DUE = LocalDate.of(2025, 5, 1);
+
+    @Autowired BillService billService;
+    @Autowired BillRepository billRepository;
+    @Autowired BalanceLedgerService ledger;
+    @Autowired TestEntityManager em;
+
+    private Bill create(String amount, String paidBy, String... members) {
+        return billService.create("Internet", new BigDecimal(amount), DUE, "utilities", null, paidBy, List.of(members), null, null);
+    }
+
+    /** The bill as stored, read back through findAll after dropping everything cached. */
+    private Bill reload(UUID id) {
+        em.flush();
+        em.clear();
+        return billRepository.findAll().stream().filter(b -> b.getId().equals(id)).findFirst().orElseThrow();
+    }
+
+    /** member -> {owed, owing} cents, as stored in member_balances. */
+    private Map<String, List<Long>> balances() {
+        em.flush();
+        em.clear();
+        return ledger.getAll().stream().collect(Collectors.toMap(MemberBalance::getMember,
+                m -> List.of(m.getOwedCents(), m.getOwingCents())));
+    }
+
+    private static Map<String, BillSplit> byMember(Bill bill) {
+        return bill.getSplits().stream().collect(Collectors.toMap(BillSplit::getMember, Function.identity()));
+    }
+
+    @Test
+    void createStoresOneRowPerSplit() {
+        Bill bill = create("100.00", "ana", "ana", "ben", "cai");
+
+        Map<String, BillSplit> splits = byMember(reload(bill.getId()));
+        assertEquals(3, splits.size());
+        assertEquals(new BigDecimal("33.34"), splits.get("ana").getAmount());
+        assertEquals(new BigDecimal("33.33"), splits.get("cai").getAmount());
+        assertTrue(splits.get("ana").isPaid(), "the payer's own share is settled");
+        assertFalse(splits.get("ben").isPaid());
+        splits.values().forEach(s -> assertNotNull(s.getId()));
+        assertEquals(3L, em.getEntityManager()
+                .createQuery("SELECT COUNT(s) FROM BillSplit s WHERE s.bill.id = :id", Long.class)
+                .setParameter("id", bill.getId()).getSingleResult());
+    }
+
+    @Test
+    void payingSharesOneByOneSettlesAndReopensTheBill() {
+        Bill bill = create("30.00", "ana", "ana", "ben", "cai");
+        Map<String, BillSplit> splits = byMember(reload(bill.getId()));
+        UUID ben = splits.get("ben").getId(), cai = splits.get("cai").getId();
+
+        assertTrue(billService.setSplitPaid(bill.getId(), ben, true));
+        assertFalse(billService.setSplitPaid(bill.getId(), ben, true), "already paid");
+        assertFalse(billService.setSplitPaid(UUID.randomUUID(), cai, true), "split of another bill");
+        Bill stored = reload(bill.getId());
+        assertTrue(byMember(stored).get("ben").isPaid());
+        assertEquals("pending", stored.getStatus());
+
+        assertTrue(billService.setSplitPaid(bill.getId(), cai, true));
+        assertEquals("paid", reload(bill.getId()).getStatus());
+
+        assertTrue(billService.setSplitPaid(bill.getId(), cai, false));
+        stored = reload(bill.getId());
+        assertEquals("pending", stored.getStatus());
+        assertFalse(byMember(stored).get("cai").isPaid());
+    }
+
+    @Test
+    void markingTheBillPaidPaysEveryShare() {
+        Bill bill = create("30.00", "ana", "ana", "ben", "cai");
+
+        billService.updateStatus(bill.getId(), "paid");
+
+        Bill stored = reload(bill.getId());
+        assertEquals("paid", stored.getStatus());
+        assertTrue(stored.getSplits().stream().allMatch(BillSplit::isPaid));
+    }
+
+    @Test
+    void payingABillReturnsTheLedgerToZero() {
+        Bill bill = create("30.00", "ana", "ana", "ben", "cai");
+        assertEquals(Map.of("ana", List.of(2000L, 0L), "ben", List.of(0L, 1000L), "cai", List.of(0L, 1000L)), balances());
+
+        billService.updateStatus(bill.getId(), "paid");
+
+        assertEquals(Map.of("ana", List.of(0L, 0L), "ben", List.of(0L, 0L), "cai", List.of(0L, 0L)), balances());
+        billService.updateStatus(bill.getId(), "paid");
+        assertEquals(List.of(0L, 0L), balances().get("ana"), "paying twice must not decrement twice");
+    }
+
+    @Test
+    void payingSharesAndDeletingKeepTheLedgerInStep() {
+        Bill first = create("30.00", "ana", "ana", "ben", "cai");
+        Bill second = create("20.00", "ben", "ana", "ben");
+        UUID cai = byMember(reload(first.getId())).get("cai").getId();
+
+        billService.setSplitPaid(first.getId(), cai, true);
+        assertEquals(Map.of("ana", List.of(1000L, 1000L), "ben", List.of(1000L, 1000L), "cai", List.of(0L, 0L)), balances());
+
+        billService.delete(second.getId());
+        billService.updateStatus(first.getId(), "paid");
+        balances().forEach((member, b) -> assertEquals(List.of(0L, 0L), b, member));
+    }
+}
@@ -0,0 +1,149 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.Booking;
+import com.fairshare.backend.model.Resource;
+import com.fairshare.backend.repository.BookingBatchRepository;
+import com.fairshare.backend.repository.BookingRepository;
+import com.fairshare.backend.repository.ResourceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class BookingBatchTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 31, 18, 0);
+
+    private final AtomicLong ids = new AtomicLong();
+    private final List<List<Booking>> inserted = new ArrayList<>();
+    private BookingService service;
+
+    @BeforeEach
+    void setUp() {
+        BookingRepository repo = mock(BookingRepository.class);
+        when(repo.save(any(Booking.class))).thenAnswer(inv -> {
+            Booking b = inv.getArgument(0);
+            b.setId(ids.incrementAndGet());
+            return b;
+        });
+        BookingBatchRepository batch = mock(BookingBatchRepository.class);
+        doAnswer(inv -> {
+            List<Booking> rows = inv.getArgument(0);
+            rows.forEach(b -> b.setId(ids.incrementAndGet()));
+            inserted.add(new ArrayList<>(rows));
+            return null;
+        }).when(batch).insertAll(anyList());
+        ResourceRepository resources = mock(ResourceRepository.class);
+        when(resources.findByCategory("laundry")).thenReturn(List.of(
+                Resource.builder().id(2L).category("laundry").build(),
+                Resource.builder().id(1L).category("laundry").build()));
+        service = new BookingService(repo, batch, resources, new BookingIndex());
+    }
+
+    private static Booking at(int hours) {
+        return Booking.builder().startTime(T0.plusHours(hours)).endTime(T0.plusHours(hours + 1)).build();
+    }
+
+    private static List<LocalDateTime> starts(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getStartTime).toList();
+    }
+
+    private static List<String> statuses(List<BookingService.BatchResult> results) {
+        return results.stream().map(BookingService.BatchResult::status).toList();
+    }
+
+    @Test
+    void expandsEachFrequency() {
+        LocalDateTime end = T0.plusMinutes(90);
+        assertEquals(List.of(T0, T0.plusDays(2), T0.plusDays(4)),
+                starts(BookingService.expandRecurrence(1L, T0, end, "daily", 2, 3, null)));
+        assertEquals(List.of(T0, T0.plusWeeks(1), T0.plusWeeks(2)),
+                starts(BookingService.expandRecurrence(1L, T0, end, null, 1, 3, null)));
+        // each month is counted from the first start, so Feb 28 does not drag March back
+        assertEquals(List.of(T0, LocalDateTime.of(2025, 2, 28, 18, 0), LocalDateTime.of(2025, 3, 31, 18, 0)),
+                starts(BookingService.expandRecurrence(1L, T0, end, "MONTHLY", 1, 3, null)));
+
+        List<Booking> untilInclusive = BookingService.expandRecurrence(1L, T0, end, "weekly", 1, null, T0.plusWeeks(4));
+        assertEquals(5, untilInclusive.size());
+        assertEquals(2, BookingService.expandRecurrence(1L, T0, end, "weekly", 1, 2, T0.plusWeeks(4)).size());
+        for (Booking b : untilInclusive) {
+            assertEquals(1L, b.getResourceId());
+            assertEquals(b.getStartTime().plusMinutes(90), b.getEndTime());
+        }
+    }
+
+    @Test
+    void rejectsSeriesLongerThanTheLimitInsteadOfTruncating() {
+        LocalDateTime end = T0.plusHours(1);
+        assertEquals(520, BookingService.expandRecurrence(1L, T0, end, "weekly", 1, 520, null).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> BookingService.expandRecurrence(1L, T0, end, "weekly", 1, 521, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> BookingService.expandRecurrence(1L, T0, end, "daily", 1, null, T0.plusYears(2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> BookingService.expandRecurrence(1L, T0, end, "weekly", 1, 0, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> BookingService.expandRecurrence(1L, T0, end, "hourly", 1, 3, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> BookingService.expandRecurrence(1L, T0, end, "weekly", 1, null, null));
+    }
+
+    @Test
+    void partialBatchCreatesEveryFreeOccurrence() {
+        service.reserve(Booking.builder().resourceId(1L).startTime(T0.plusHours(2)).endTime(T0.plusHours(3)).build());
+        Booking invalid = Booking.builder().startTime(T0.plusHours(9)).endTime(T0.plusHours(9)).build();
+        List<Booking> batch = List.of(at(0), at(2), Booking.builder().startTime(T0.plusMinutes(30))
+                .endTime(T0.plusMinutes(90)).build(), invalid, at(5));
+
+        List<BookingService.BatchResult> results = service.createBatch(1L, batch, false);
+
+        assertEquals(List.of("created", "conflict", "conflict", "invalid", "created"), statuses(results));
+        assertEquals(List.of(T0, T0.plusHours(5)), starts(inserted.get(0)));
+        assertTrue(service.hasConflict(Booking.builder().resourceId(1L).startTime(T0.plusHours(5)).endTime(T0.plusHours(6)).build()));
+    }
+
+    @Test
+    void allOrNothingBatchPersistsNothingWhenOneOccurrenceConflicts() {
+        service.reserve(Booking.builder().resourceId(1L).startTime(T0.plusHours(2)).endTime(T0.plusHours(3)).build());
+
+        List<BookingService.BatchResult> results = service.createBatch(1L, List.of(at(0), at(2), at(5)), true);
+
+        assertEquals(List.of("skipped", "conflict", "skipped"), statuses(results));
+        assertTrue(inserted.get(0).isEmpty());
+        assertFalse(service.hasConflict(Booking.builder().resourceId(1L).startTime(T0).endTime(T0.plusHours(1)).build()));
+
+        // the same series moved off the taken hour goes through whole
+        results = service.createBatch(1L, List.of(at(0), at(3), at(5)), true);
+        assertEquals(List.of("created", "created", "created"), statuses(results));
+        assertEquals(3, inserted.get(1).size());
+    }
+
+    @Test
+    void allOrNothingAlsoRejectsOverlapsInsideTheSeries() {
+        List<Booking> series = BookingService.expandRecurrence(1L, T0, T0.plusDays(2), "daily", 1, 3, null);
+
+        assertEquals(List.of("skipped", "conflict", "skipped"), statuses(service.createBatch(1L, series, true)));
+        assertTrue(inserted.get(0).isEmpty());
+    }
+
+    @Test
+    void pooledRequestsExhaustThePoolAndReuseAMachineOnceItFrees() {
+        service.reserve(Booking.builder().resourceId(1L).startTime(T0).endTime(T0.plusHours(1)).build());
+
+        List<BookingService.BatchResult> results = service.reservePooled("laundry", List.of(at(0), at(0), at(1), at(1), at(1)));
+
+        assertEquals(List.of("created", "conflict", "created", "created", "conflict"), statuses(results));
+        List<Long> machines = results.stream().map(r -> r.booking().getResourceId()).toList();
+        assertEquals(2L, machines.get(0)); // machine 1 is taken by the existing booking
+        assertEquals(List.of(1L, 2L), List.of(machines.get(2), machines.get(3)));
+        assertEquals(3, inserted.get(0).size());
+    }
+}
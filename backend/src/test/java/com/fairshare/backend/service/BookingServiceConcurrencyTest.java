@@ -0,0 +1,185 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.Booking;
+import com.fairshare.backend.repository.BookingBatchRepository;
+import com.fairshare.backend.repository.BookingRepository;
+import com.fairshare.backend.repository.ResourceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingServiceConcurrencyTest {
+
+    private static final LocalDateTime SLOT = LocalDateTime.of(2025, 6, 1, 9, 0);
+
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, CountDownLatch> saveGates = new ConcurrentHashMap<>();
+    private final Map<Long, Booking> rows = new ConcurrentHashMap<>(); // the table; reads return copies
+    private final BookingRepository repo = mock(BookingRepository.class);
+    private BookingService service;
+
+    @BeforeEach
+    void setUp() {
+        when(repo.save(any(Booking.class))).thenAnswer(inv -> {
+            Booking b = inv.getArgument(0);
+            CountDownLatch gate = saveGates.get(b.getResourceId());
+            if (gate != null) gate.await(5, TimeUnit.SECONDS);
+            Thread.sleep(1); // widen the check-then-insert window
+            if (b.getId() == null) b.setId(ids.incrementAndGet());
+            rows.put(b.getId(), copy(b));
+            return b;
+        });
+        when(repo.findById(any())).thenAnswer(inv ->
+                Optional.ofNullable(rows.get(inv.<Long>getArgument(0))).map(BookingServiceConcurrencyTest::copy));
+        when(repo.findResourceIdById(any())).thenAnswer(inv ->
+                Optional.ofNullable(rows.get(inv.<Long>getArgument(0))).map(Booking::getResourceId));
+        doAnswer(inv -> rows.remove(inv.<Long>getArgument(0))).when(repo).deleteById(any());
+        service = new BookingService(repo, mock(BookingBatchRepository.class),
+                mock(ResourceRepository.class), new BookingIndex());
+    }
+
+    private static Booking copy(Booking b) {
+        return Booking.builder().id(b.getId()).resourceId(b.getResourceId())
+                .startTime(b.getStartTime()).endTime(b.getEndTime()).status(b.getStatus()).build();
+    }
+
+    private static Booking slot(long resourceId, int offsetMinutes) {
+        LocalDateTime start = SLOT.plusMinutes(offsetMinutes);
+        return Booking.builder().resourceId(resourceId).startTime(start).endTime(start.plusHours(1)).build();
+    }
+
+    @Test
+    void concurrentRequestsNeverDoubleBook() throws Exception {
+        int resources = 8, attemptsPerResource = 32;
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<Long, AtomicInteger> successes = new ConcurrentHashMap<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < resources * attemptsPerResource; i++) {
+            long resourceId = 1 + i % resources;
+            int offset = (i / resources) % 30; // overlapping variants of the same slot
+            futures.add(pool.submit(() -> {
+                start.await();
+                if (service.reserve(slot(resourceId, offset)).isPresent()) {
+                    successes.computeIfAbsent(resourceId, k -> new AtomicInteger()).incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(resources, successes.size());
+        successes.forEach((resourceId, count) ->
+                assertEquals(1, count.get(), "double booking on resource " + resourceId));
+    }
+
+    @Test
+    void slowReservationDoesNotBlockOtherResources() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        saveGates.put(1L, gate);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        Future<?> blocked = pool.submit(() -> service.reserve(slot(1L, 0)));
+        Future<?> other = pool.submit(() -> service.reserve(slot(2L, 0)));
+
+        assertTrue(other.get(2, TimeUnit.SECONDS) != null);
+        assertFalse(blocked.isDone());
+        gate.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+    }
+
+    @Test
+    void updateRunsTheConflictCheckOnTheTargetResource() {
+        Booking a = service.reserve(slot(1L, 0)).orElseThrow();          // 09:00-10:00
+        Booking b = service.reserve(slot(1L, 120)).orElseThrow();        // 11:00-12:00
+        service.reserve(slot(2L, 0)).orElseThrow();                      // resource 2, 09:00-10:00
+
+        assertThrows(IllegalStateException.class, () -> service.updateBooking(b.getId(), slot(1L, 30)));
+        assertThrows(IllegalStateException.class, () -> service.updateBooking(b.getId(), slot(2L, 30)));
+        assertThrows(IllegalArgumentException.class, () -> service.updateBooking(b.getId(),
+                Booking.builder().endTime(SLOT.plusHours(2)).build()));
+        assertTrue(service.hasConflict(slot(1L, 120)), "a rejected update must leave the booking where it was");
+
+        // touching the neighbour is fine, and a booking never conflicts with itself
+        assertEquals(SLOT.plusHours(1), service.updateBooking(b.getId(), slot(1L, 60)).orElseThrow().getStartTime());
+        service.updateBooking(a.getId(), Booking.builder().status("confirmed").build()).orElseThrow();
+        assertEquals(SLOT, rows.get(a.getId()).getStartTime());
+
+        Booking moved = service.updateBooking(b.getId(), slot(2L, 60)).orElseThrow();
+        assertEquals(2L, moved.getResourceId());
+        assertFalse(service.hasConflict(slot(1L, 60)));
+        assertTrue(service.hasConflict(slot(2L, 60)));
+        assertTrue(service.updateBooking(999L, slot(1L, 0)).isEmpty());
+    }
+
+    @Test
+    void concurrentUpdatesOfOneBookingLeaveNoGhostIntervals() throws Exception {
+        Booking booking = service.reserve(slot(1L, 0)).orElseThrow();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i <= 64; i++) {
+            long resourceId = 1 + i % 3; // some updates also move the booking
+            int offset = 120 * (i % 8);
+            futures.add(pool.submit(() -> {
+                start.await();
+                service.updateBooking(booking.getId(), slot(resourceId, offset));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        Booking last = rows.get(booking.getId());
+        for (long resourceId = 1; resourceId <= 3; resourceId++) {
+            for (int k = 0; k < 8; k++) {
+                boolean expected = last.getResourceId() == resourceId && last.getStartTime().equals(SLOT.plusMinutes(120 * k));
+                assertEquals(expected, service.hasConflict(slot(resourceId, 120 * k)),
+                        "resource " + resourceId + ", slot " + k);
+            }
+        }
+    }
+
+    @Test
+    void deleteRemovesTheIntervalOfTheBookingAsMovedMeanwhile() {
+        Long id = service.reserve(slot(1L, 0)).orElseThrow().getId();
+        AtomicBoolean moved = new AtomicBoolean();
+        // an update moves the booking right after delete's first read of it
+        doAnswer(inv -> {
+            Optional<Long> read = Optional.ofNullable(rows.get(id)).map(Booking::getResourceId);
+            if (moved.compareAndSet(false, true)) service.updateBooking(id, slot(2L, 120));
+            return read;
+        }).when(repo).findResourceIdById(id);
+        doAnswer(inv -> {
+            Optional<Booking> read = Optional.ofNullable(rows.get(id)).map(BookingServiceConcurrencyTest::copy);
+            if (moved.compareAndSet(false, true)) service.updateBooking(id, slot(2L, 120));
+            return read;
+        }).when(repo).findById(id);
+
+        assertTrue(service.deleteBooking(id));
+        assertTrue(rows.isEmpty());
+        assertFalse(service.hasConflict(slot(1L, 0)));
+        assertFalse(service.hasConflict(slot(2L, 120)));
+        assertFalse(service.deleteBooking(id));
+    }
+}
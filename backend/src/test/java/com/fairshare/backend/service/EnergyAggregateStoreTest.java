@@ -0,0 +1,59 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.EnergyReading;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnergyAggregateStoreTest {
+
+    private static EnergyReading reading(String device, String category, double units, double cost, int month) {
+        EnergyReading r = new EnergyReading();
+        r.setDevice(device);
+        r.setCategory(category);
+        r.setUnits(units);
+        r.setCostPerUnit(cost);
+        r.setTotalCost(units * cost);
+        r.setCreatedAt(Date.from(LocalDate.of(2025, month, 10).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        return r;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void incrementalUpdatesMatchTheGroupedTotals() {
+        EnergyAggregateStore store = new EnergyAggregateStore();
+        store.add("Heater", "heating", 2, 2, 30, 60);
+
+        EnergyReading fan = reading("Fan", null, 4, 2, 1);
+        store.add(fan);
+        store.addAll(List.of(reading(null, "heating", 6, 1, 3)));
+
+        Map<String, Object> a = store.analytics();
+        assertSame(a, store.analytics()); // cached until the next write
+        assertEquals(4L, a.get("totalReadings"));
+        assertEquals(40.0, a.get("totalUnits"));
+        assertEquals(74.0, a.get("totalCost"));
+        assertEquals(10.0, a.get("avgUnits"));
+        assertEquals(List.of("MAR", "JAN"), List.copyOf(((Map<String, Double>) a.get("monthlyConsumption")).keySet()));
+        assertEquals(36.0, ((Map<String, Double>) a.get("monthlyConsumption")).get("MAR"));
+        Map<String, Map<String, Double>> devices = (Map<String, Map<String, Double>>) a.get("deviceConsumption");
+        assertEquals(List.of("Heater", "unknown", "Fan"), List.copyOf(devices.keySet()));
+        assertEquals(8.0, devices.get("Fan").get("cost"));
+        assertEquals(List.of("heating", "other"),
+                List.copyOf(((Map<String, ?>) a.get("categoryConsumption")).keySet()));
+
+        store.remove(fan);
+        Map<String, Object> b = store.analytics();
+        assertNotSame(a, b);
+        assertEquals(3L, b.get("totalReadings"));
+        assertEquals(List.of("MAR"), List.copyOf(((Map<String, Double>) b.get("monthlyConsumption")).keySet()));
+        assertFalse(((Map<String, ?>) b.get("deviceConsumption")).containsKey("Fan"));
+        assertFalse(((Map<String, ?>) b.get("categoryConsumption")).containsKey("other"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.EnergyReading;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnergyArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private static Date at(LocalDateTime t) {
+        return Date.from(t.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void archivedSegmentsDecodeToTheSameAggregatesAsTheRows() throws Exception {
+        Random rnd = new Random(3);
+        LocalDateTime start = LocalDateTime.of(2024, 11, 20, 0, 0);
+        List<EnergyReading> heater = new ArrayList<>(), fan = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            EnergyReading r = new EnergyReading();
+            r.setId(1000L + i);
+            r.setDevice(i % 4 == 0 ? "Fan" : "Heater");
+            r.setCategory(i % 4 == 0 ? "cooling" : i % 7 == 0 ? null : "heating");
+            r.setUnits(Math.round(rnd.nextDouble() * 500) / 1000.0);
+            r.setCostPerUnit(0.25);
+            r.setTotalCost(r.getUnits() * r.getCostPerUnit());
+            r.setCreatedAt(at(start.plusMinutes(5L * i)));
+            (i % 4 == 0 ? fan : heater).add(r);
+        }
+
+        EnergyArchive writer = new EnergyArchive(dir.toString());
+        writer.write("Heater", heater);
+        writer.write("Fan", fan);
+        EnergyArchive archive = new EnergyArchive(dir.toString());
+        archive.load(); // finishes the .tmp files like a restart after the delete committed
+
+        EnergyArchive.Stats stats = archive.stats();
+        assertEquals(2, stats.segments());
+        assertEquals(20_000, stats.readings());
+        assertTrue(stats.bytes() < 20_000 * 10, "expected under 10 bytes per reading, got " + stats.bytes());
+
+        Date from = at(LocalDateTime.of(2024, 12, 15, 0, 0));
+        Date to = at(LocalDateTime.of(2025, 1, 10, 0, 0));
+        for (String device : new String[]{null, "Fan"}) {
+            EnergyAggregateStore scanned = new EnergyAggregateStore();
+            archive.forEachReading((d, category, time, units, cost) -> {
+                if (time < from.getTime() || time >= to.getTime() || (device != null && !device.equals(d))) return;
+                int month = Instant.ofEpochMilli(time).atZone(ZoneId.systemDefault()).getMonthValue() - 1;
+                scanned.add(d, category, month, 1, units, cost);
+            });
+            EnergyAggregateStore expected = new EnergyAggregateStore();
+            for (List<EnergyReading> rows : List.of(heater, fan)) {
+                for (EnergyReading r : rows) {
+                    boolean inRange = !r.getCreatedAt().before(from) && r.getCreatedAt().before(to);
+                    if (inRange && (device == null || device.equals(r.getDevice()))) expected.add(r);
+                }
+            }
+            assertEquals(expected.analytics().get("totalReadings"), scanned.analytics().get("totalReadings"));
+            assertEquals((double) expected.analytics().get("totalUnits"), (double) scanned.analytics().get("totalUnits"), 1e-6);
+            assertEquals((double) expected.analytics().get("totalCost"), (double) scanned.analytics().get("totalCost"), 1e-6);
+            Map<String, Double> expectedMonths = (Map<String, Double>) expected.analytics().get("monthlyConsumption");
+            Map<String, Double> scannedMonths = (Map<String, Double>) scanned.analytics().get("monthlyConsumption");
+            assertEquals(List.copyOf(expectedMonths.keySet()), List.copyOf(scannedMonths.keySet()));
+            expectedMonths.forEach((m, units) -> assertEquals(units, scannedMonths.get(m), 1e-6));
+            assertEquals(((Map<String, ?>) expected.analytics().get("categoryConsumption")).keySet(),
+                    ((Map<String, ?>) scanned.analytics().get("categoryConsumption")).keySet());
+        }
+    }
+}
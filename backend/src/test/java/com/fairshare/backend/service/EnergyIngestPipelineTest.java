@@ -0,0 +1,78 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.EnergyReading;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnergyIngestPipelineTest {
+
+    private static List<EnergyReading> readings(int n) {
+        List<EnergyReading> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            EnergyReading r = new EnergyReading();
+            r.setDevice("plug-" + i);
+            out.add(r);
+        }
+        return out;
+    }
+
+    @Test
+    void fullQueueTakesOnlyAPrefixAndShutdownDrainsTheRest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+        EnergyIngestPipeline pipeline = new EnergyIngestPipeline(batch -> {
+            try {
+                release.await(5, TimeUnit.SECONDS); // hold the flusher so the queue fills up
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(batch.size());
+        }, 10, 4, 10);
+        pipeline.start();
+
+        assertEquals(1, pipeline.offer(readings(1)));
+        while (pipeline.stats().queued() > 0) Thread.onSpinWait(); // flusher holds that one
+        assertEquals(10, pipeline.offer(readings(15)));
+        assertEquals(0, pipeline.offer(readings(1)));
+
+        release.countDown();
+        pipeline.stop();
+        assertFalse(pipeline.isRunning());
+        assertEquals(0, pipeline.offer(readings(1)));
+
+        EnergyIngestPipeline.Stats stats = pipeline.stats();
+        assertEquals(11, stats.accepted());
+        assertEquals(6, stats.rejected());
+        assertEquals(11, stats.written());
+        assertEquals(List.of(1, 4, 4, 2), batches);
+    }
+
+    @Test
+    void flusherOutlivesAnErrorFromTheSink() throws Exception {
+        List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+        EnergyIngestPipeline pipeline = new EnergyIngestPipeline(batch -> {
+            if (batches.isEmpty()) {
+                batches.add(0);
+                throw new StackOverflowError();
+            }
+            batches.add(batch.size());
+        }, 10, 4, 10);
+        pipeline.start();
+
+        assertEquals(1, pipeline.offer(readings(1)));
+        while (pipeline.stats().failed() == 0) Thread.onSpinWait();
+        assertEquals(3, pipeline.offer(readings(3)));
+        pipeline.stop();
+
+        assertEquals(1, pipeline.stats().failed());
+        assertEquals(3, pipeline.stats().written());
+        assertEquals(List.of(0, 3), batches);
+    }
+}
@@ -0,0 +1,50 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.repository.EnergyReadingRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EnergyPlannerTest {
+
+    private static EnergyReadingRepository.GroupTotal device(String key, long readings, double units, double cost) {
+        return new EnergyReadingRepository.GroupTotal() {
+            public String getKey() { return key; }
+            public long getReadings() { return readings; }
+            public Double getUnits() { return units; }
+            public Double getCost() { return cost; }
+        };
+    }
+
+    @Test
+    void picksTheMostUsefulDevicesThatFitTheBudget() {
+        EnergyReadingRepository repo = mock(EnergyReadingRepository.class);
+        when(repo.byDevice(any(), isNull(), isNull())).thenReturn(List.of(
+                device("Heater", 10, 30.0, 6.0),    // 3 units/run, used 10x
+                device("Washer", 4, 8.0, 1.6),      // 2 units/run, used 4x
+                device("Dryer", 5, 12.5, 2.5),      // 2.5 units/run, used 5x
+                device("Kettle", 20, 4.0, 0.8)));   // 0.2 units/run, used 20x
+        EnergyPlanner planner = new EnergyPlanner(repo);
+
+        EnergyPlanner.Plan byUnits = planner.plan(5.5, "units", 30, null);
+        assertEquals(List.of("Heater", "Washer", "Kettle"),
+                byUnits.selected().stream().map(EnergyPlanner.PlanItem::device).toList());
+        assertEquals(5.2, byUnits.totalUnits(), 1e-9);
+        assertEquals(34, byUnits.totalValue());
+
+        EnergyPlanner.Plan prioritized = planner.plan(5.5, "units", 30, Map.of("Washer", 10, "Dryer", 10));
+        assertEquals(List.of("Washer", "Dryer", "Kettle"),
+                prioritized.selected().stream().map(EnergyPlanner.PlanItem::device).toList());
+
+        EnergyPlanner.Plan byCost = planner.plan(0.5, "cost", 30, null);
+        assertEquals("cost", byCost.by());
+        assertEquals(List.of("Washer", "Kettle"), byCost.selected().stream().map(EnergyPlanner.PlanItem::device).toList());
+    }
+}
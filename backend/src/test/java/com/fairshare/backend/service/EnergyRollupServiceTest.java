@@ -0,0 +1,72 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.service.EnergyRollupService.Source;
+import com.fairshare.backend.service.EnergyRollupService.Span;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnergyRollupServiceTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Berlin");
+
+    private static Date at(String localDateTime) {
+        return Date.from(LocalDateTime.parse(localDateTime).atZone(ZONE).toInstant());
+    }
+
+    @Test
+    void routesEachPartOfTheRangeToTheCoarsestSource() {
+        List<Span> spans = EnergyRollupService.plan(at("2025-03-03T10:15:00"), at("2025-03-06T08:40:00"), ZONE);
+
+        assertEquals(List.of(
+                new Span(Source.RAW, at("2025-03-03T10:15:00"), at("2025-03-03T11:00:00")),
+                new Span(Source.HOURLY, at("2025-03-03T11:00:00"), at("2025-03-04T00:00:00")),
+                new Span(Source.DAILY, at("2025-03-04T00:00:00"), at("2025-03-06T00:00:00")),
+                new Span(Source.HOURLY, at("2025-03-06T00:00:00"), at("2025-03-06T08:00:00")),
+                new Span(Source.RAW, at("2025-03-06T08:00:00"), at("2025-03-06T08:40:00"))), spans);
+    }
+
+    @Test
+    void alignedAndOpenRangesSkipTheFinerSources() {
+        assertEquals(List.of(new Span(Source.DAILY, null, null)), EnergyRollupService.plan(null, null, ZONE));
+        assertEquals(List.of(new Span(Source.DAILY, at("2025-01-01T00:00:00"), at("2025-02-01T00:00:00"))),
+                EnergyRollupService.plan(at("2025-01-01T00:00:00"), at("2025-02-01T00:00:00"), ZONE));
+        assertEquals(List.of(
+                        new Span(Source.HOURLY, at("2025-01-01T22:00:00"), at("2025-01-02T00:00:00")),
+                        new Span(Source.DAILY, at("2025-01-02T00:00:00"), null)),
+                EnergyRollupService.plan(at("2025-01-01T22:00:00"), null, ZONE));
+    }
+
+    @Test
+    void shortRangesStayOnHourlyOrRaw() {
+        assertEquals(List.of(new Span(Source.HOURLY, at("2025-03-03T09:00:00"), at("2025-03-03T17:00:00"))),
+                EnergyRollupService.plan(at("2025-03-03T09:00:00"), at("2025-03-03T17:00:00"), ZONE));
+        assertEquals(List.of(new Span(Source.RAW, at("2025-03-03T09:10:00"), at("2025-03-03T09:50:00"))),
+                EnergyRollupService.plan(at("2025-03-03T09:10:00"), at("2025-03-03T09:50:00"), ZONE));
+        // 01:30 to 03:30 local is one real hour on the spring-forward night, with no whole hour inside
+        assertEquals(List.of(new Span(Source.RAW, at("2025-03-30T01:30:00"), at("2025-03-30T03:30:00"))),
+                EnergyRollupService.plan(at("2025-03-30T01:30:00"), at("2025-03-30T03:30:00"), ZONE));
+    }
+
+    @Test
+    void rawEdgesPastRetentionAreReadFromTheirWholeHours() {
+        Date from = at("2025-03-03T10:15:00"), to = at("2025-03-04T08:40:00");
+
+        assertEquals(List.of(
+                new Span(Source.HOURLY, at("2025-03-03T10:00:00"), at("2025-03-03T11:00:00")),
+                new Span(Source.HOURLY, at("2025-03-03T11:00:00"), at("2025-03-04T08:00:00")),
+                new Span(Source.HOURLY, at("2025-03-04T08:00:00"), at("2025-03-04T09:00:00"))),
+                EnergyRollupService.plan(from, to, ZONE, at("2025-03-10T00:00:00")));
+        // only the edge the cutoff has passed loses its raw rows
+        assertEquals(new Span(Source.RAW, at("2025-03-04T08:00:00"), to),
+                EnergyRollupService.plan(from, to, ZONE, at("2025-03-04T00:00:00")).get(2));
+        assertEquals(List.of(new Span(Source.HOURLY, at("2025-03-03T09:00:00"), at("2025-03-03T10:00:00"))),
+                EnergyRollupService.plan(at("2025-03-03T09:10:00"), at("2025-03-03T09:50:00"), ZONE, to));
+        assertEquals(EnergyRollupService.plan(from, to, ZONE), EnergyRollupService.plan(from, to, ZONE, from));
+    }
+}
@@ -0,0 +1,75 @@
+package com.fairshare.backend.service;
+
+import com.fairshare.backend.model.DeviceOwner;
+import com.fairshare.backend.repository.DeviceOwnerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EnergyUsageAllocatorTest {
+
+    private final EnergyRollupService rollups = mock(EnergyRollupService.class);
+    private final DeviceOwnerRepository owners = mock(DeviceOwnerRepository.class);
+    private EnergyUsageAllocator allocator;
+
+    private static final LocalDate MARCH = LocalDate.of(2025, 3, 1), APRIL = LocalDate.of(2025, 4, 1);
+
+    @BeforeEach
+    void setUp() {
+        allocator = new EnergyUsageAllocator(rollups, owners);
+        when(owners.findAll()).thenReturn(List.of(
+                new DeviceOwner("Heater", "asha"),
+                new DeviceOwner("Console", "ben"),
+                new DeviceOwner("Kettle", "carl")));
+    }
+
+    @Test
+    void ownDevicesPlusAnEqualShareOfSharedOnes() {
+        when(rollups.unitsByDevice(any(), any())).thenReturn(Map.of(
+                "Heater", 30.0, "Console", 10.0, "Fridge", 20.0, "Kettle", 4.0));
+
+        // carl is not on this bill, so his kettle counts as shared
+        EnergyUsageAllocator.Allocation a = allocator.allocate(List.of("asha", "ben"), MARCH, APRIL);
+
+        assertEquals(List.of("asha", "ben"), a.members());
+        assertEquals(24.0, a.sharedUnits(), 1e-9);
+        assertArrayEquals(new long[]{42_000, 22_000}, a.weights());
+        assertEquals(42.0, a.unitsByMember().get("asha"), 1e-9);
+    }
+
+    @Test
+    void membersDefaultToDeviceOwners() {
+        when(rollups.unitsByDevice(any(), any())).thenReturn(Map.of("Heater", 1.5));
+
+        EnergyUsageAllocator.Allocation a = allocator.allocate(null, MARCH, APRIL);
+
+        assertEquals(List.of("asha", "ben", "carl"), a.members());
+        assertArrayEquals(new long[]{1_500, 0, 0}, a.weights());
+    }
+
+    @Test
+    void noUsageSplitsEqually() {
+        when(rollups.unitsByDevice(any(), any())).thenReturn(Map.of());
+        assertArrayEquals(new long[]{1, 1}, allocator.allocate(List.of("asha", "dev"), MARCH, APRIL).weights());
+    }
+
+    @Test
+    void rejectsEmptyPeriods() {
+        assertThrows(IllegalArgumentException.class, () -> allocator.allocate(List.of("asha"), APRIL, MARCH));
+    }
+
+    @Test
+    void defaultPeriodIsTheMonthBeforeTheDueDate() {
+        LocalDate[] p = EnergyUsageAllocator.defaultPeriod(LocalDate.of(2025, 4, 10));
+        assertEquals(MARCH, p[0]);
+        assertEquals(APRIL, p[1]);
+    }
+}
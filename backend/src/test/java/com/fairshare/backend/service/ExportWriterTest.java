@@ -0,0 +1,77 @@
+package com.fairshare.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportWriterTest {
+
+    private static final Date AT = Date.from(Instant.parse("2025-03-01T10:15:30Z"));
+
+    private static String export(String format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter writer = new ExportWriter(out, format, "device", "category", "units", "costPerUnit", "createdAt")) {
+            writer.row("Heater", "heating, main", 2.5, new BigDecimal("0.20"), AT);
+            writer.row("Fan \"quiet\"", null, 1L, null, LocalDate.of(2025, 3, 2));
+            assertEquals(2, writer.rows());
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void writesQuotedCsvThatReadsBackThroughTheImporter() throws Exception {
+        String csv = export("csv");
+        assertEquals("""
+                device,category,units,costPerUnit,createdAt
+                Heater,"heating, main",2.5,0.20,2025-03-01T10:15:30Z
+                "Fan ""quiet""\",,1,,2025-03-02
+                """, csv);
+
+        try (ImportRowReader reader = new ImportRowReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "csv")) {
+            Map<String, Object> first = reader.next();
+            assertEquals("heating, main", ImportRowReader.text(first, "category"));
+            assertEquals(AT, EnergyService.parseDate(ImportRowReader.text(first, "createdAt")));
+            assertEquals("Fan \"quiet\"", ImportRowReader.text(reader.next(), "device"));
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void multiLineTitlesSurviveTheRoundTrip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter writer = new ExportWriter(out, "csv", "title", "amount")) {
+            writer.row("Rent\nJanuary, \"flat 2\"\n", new BigDecimal("900.00"));
+            writer.row("Internet", new BigDecimal("40.00"));
+        }
+        String csv = out.toString(StandardCharsets.UTF_8) + "\"never\nclosed,1\n";
+
+        try (ImportRowReader reader = new ImportRowReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "csv")) {
+            Map<String, Object> rent = reader.next();
+            assertEquals("Rent\nJanuary, \"flat 2\"", ImportRowReader.text(rent, "title")); // values are trimmed
+            assertEquals("900.00", ImportRowReader.text(rent, "amount"));
+            assertEquals(2, reader.lineNumber());
+            assertEquals("Internet", ImportRowReader.text(reader.next(), "title"));
+            assertEquals(5, reader.lineNumber());
+            assertTrue(reader.next().containsKey(ImportRowReader.ERROR));
+            assertEquals(6, reader.lineNumber());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void writesOneTypedJsonObjectPerLine() {
+        assertEquals("""
+                {"device":"Heater","category":"heating, main","units":2.5,"costPerUnit":0.20,"createdAt":"2025-03-01T10:15:30Z"}
+                {"device":"Fan \\"quiet\\"","category":null,"units":1,"costPerUnit":null,"createdAt":"2025-03-02"}
+                """, export("ndjson"));
+    }
+}